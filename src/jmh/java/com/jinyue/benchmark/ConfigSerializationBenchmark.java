@@ -0,0 +1,84 @@
+package com.jinyue.benchmark;
+
+import com.jinyue.dto.NapcatConfig;
+import com.jinyue.utils.NapcatConfigFileGenerator;
+import com.jinyue.utils.NapcatConfigTypeHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.postgresql.util.PGobject;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 实例配置的序列化路径：JSONB类型处理器的读写与OneBot配置文件生成
+ * JDBC对象以动态代理代替，只截获setObject/getString，不连接数据库
+ * 运行: mvn -Pbenchmark package exec:exec -Djmh.args="-f 1 -prof gc ConfigSerialization"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigSerializationBenchmark {
+
+    private final NapcatConfigTypeHandler typeHandler = new NapcatConfigTypeHandler();
+    private final NapcatConfigFileGenerator configFileGenerator = new NapcatConfigFileGenerator();
+
+    private NapcatConfig config;
+    private PreparedStatement statement;
+    private ResultSet resultSet;
+    private Object captured;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        config = new NapcatConfig();
+        config.setServicePort(6123);
+        config.setHttpPort(7123);
+        config.setWsPort(8123);
+        config.setMemoryLimit("1g");
+
+        statement = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    if ("setObject".equals(method.getName())) {
+                        captured = args[1];
+                    }
+                    return null;
+                });
+
+        typeHandler.setNonNullParameter(statement, 1, config, null);
+        String json = ((PGobject) captured).getValue();
+        resultSet = (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ResultSet.class}, (proxy, method, args) ->
+                        "getString".equals(method.getName()) ? json : null);
+    }
+
+    @Benchmark
+    public Object encodeJsonb() throws SQLException {
+        typeHandler.setNonNullParameter(statement, 1, config, null);
+        return captured;
+    }
+
+    @Benchmark
+    public NapcatConfig decodeJsonb() throws SQLException {
+        return typeHandler.getNullableResult(resultSet, "config");
+    }
+
+    @Benchmark
+    public String generateOneBotConfig() {
+        return configFileGenerator.generateOneBotConfig("1234567890", "http://napcat-manager:8080/api/webhook/message");
+    }
+}
@@ -0,0 +1,125 @@
+package com.jinyue.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 慢Docker守护进程下的实例操作吞吐对比
+ * 本地HTTP服务模拟每次调用耗时daemonLatencyMs的Docker接口，实例操作以阻塞HTTP调用表示；
+ * platform为平台线程池（应用当前的配置），virtual为虚拟线程工厂+有界线程池（需要JDK 21+运行），用于评估升级到Java 21后切换的收益。
+ * 结果单位为每秒完成的调用数
+ * 运行: mvn -Pbenchmark package exec:exec -Djmh.args="ExecutorThroughput"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class ExecutorThroughputBenchmark {
+
+    private static final int OPERATIONS = 200;
+    private static final byte[] INSPECT_RESPONSE =
+            "{\"Id\":\"bench\",\"State\":{\"Status\":\"running\",\"Running\":true}}".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"10", "200"})
+    private int concurrency;
+
+    @Param({"50"})
+    private int daemonLatencyMs;
+
+    private HttpServer daemon;
+    private ExecutorService daemonWorkers;
+    private ExecutorService executor;
+    private String inspectUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        daemonWorkers = Executors.newCachedThreadPool();
+        daemon = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        daemon.setExecutor(daemonWorkers);
+        daemon.createContext("/containers/", exchange -> {
+            try {
+                Thread.sleep(daemonLatencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, INSPECT_RESPONSE.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(INSPECT_RESPONSE);
+            }
+        });
+        daemon.start();
+        inspectUrl = "http://127.0.0.1:" + daemon.getAddress().getPort() + "/containers/bench/json";
+
+        ThreadFactory threadFactory = switch (mode) {
+            case "platform" -> Executors.defaultThreadFactory();
+            case "virtual" -> new VirtualThreadTaskExecutor("bench-").getVirtualThreadFactory();
+            default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+        };
+        executor = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        daemon.stop(0);
+        daemonWorkers.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public int inspectContainers() {
+        CompletableFuture<?>[] futures = new CompletableFuture[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            futures[i] = CompletableFuture.supplyAsync(this::inspect, executor);
+        }
+        CompletableFuture.allOf(futures).join();
+        return futures.length;
+    }
+
+    private int inspect() {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) URI.create(inspectUrl).toURL().openConnection();
+            try (InputStream body = connection.getInputStream()) {
+                return body.readAllBytes().length;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Simulated daemon call failed", e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.jinyue.benchmark;
+
+import com.jinyue.dto.InstancePortUsage;
+import com.jinyue.mapper.NapcatInstanceMapper;
+import com.jinyue.service.impl.PortAllocationServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端口分配器在不同实例规模下的开销（原findAvailablePorts路径）
+ * 已占用端口连续排列在端口段开头，分配必须跨过全部已占用位；映射器以动态代理返回端口占用，不连接数据库
+ * 运行: mvn -Pbenchmark package exec:exec -Djmh.args="-f 1 -prof gc PortAllocator"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PortAllocatorBenchmark {
+
+    private static final int BASE_PORT = 6099;
+    private static final int RANGE_SIZE = 10000;
+
+    @Param({"50", "500", "5000"})
+    private int instances;
+
+    private PortAllocationServiceImpl allocator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<InstancePortUsage> usages = new ArrayList<>(instances);
+        for (int i = 0; i < instances; i++) {
+            InstancePortUsage usage = new InstancePortUsage();
+            usage.setPort(BASE_PORT + i);
+            usage.setHttpPort(BASE_PORT + RANGE_SIZE + i);
+            usage.setWsPort(BASE_PORT + 2 * RANGE_SIZE + i);
+            usages.add(usage);
+        }
+
+        NapcatInstanceMapper mapper = (NapcatInstanceMapper) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{NapcatInstanceMapper.class}, (proxy, method, args) -> {
+                    if ("selectPortUsages".equals(method.getName())) {
+                        return usages;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        allocator = new PortAllocationServiceImpl(mapper);
+        setField("basePort", BASE_PORT);
+        setField("rangeSize", RANGE_SIZE);
+        allocator.resync();
+    }
+
+    @Benchmark
+    public int reserveAndRelease() {
+        int port = allocator.reserve(1).get(0);
+        allocator.release(port, port + RANGE_SIZE, port + 2 * RANGE_SIZE);
+        return port;
+    }
+
+    @Benchmark
+    public int availableCount() {
+        return allocator.availableCount();
+    }
+
+    private void setField(String name, Object value) {
+        Field field = ReflectionUtils.findField(PortAllocationServiceImpl.class, name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, allocator, value);
+    }
+}
@@ -0,0 +1,54 @@
+package com.jinyue.benchmark;
+
+import com.jinyue.utils.TarArchives;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 向容器复制配置文件/从容器读取文件时的tar打包与解包
+ * 运行: mvn -Pbenchmark package exec:exec -Djmh.args="-f 1 -prof gc TarArchive"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TarArchiveBenchmark {
+
+    @Param({"1024", "65536"})
+    private int fileSize;
+
+    private String content;
+    private byte[] archive;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        content = "{\"k\":\"v\"}\n".repeat(fileSize / 10 + 1).substring(0, fileSize);
+        archive = TarArchives.createSingleFile("onebot11_1234567890.json", content);
+    }
+
+    @Benchmark
+    public byte[] createArchive() throws IOException {
+        return TarArchives.createSingleFile("onebot11_1234567890.json", content);
+    }
+
+    @Benchmark
+    public byte[] extractFile() throws IOException {
+        return TarArchives.extractFirstFile(new ByteArrayInputStream(archive));
+    }
+}
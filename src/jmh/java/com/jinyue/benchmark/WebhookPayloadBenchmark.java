@@ -0,0 +1,74 @@
+package com.jinyue.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jinyue.dto.WebhookMessageRequest;
+import com.jinyue.utils.WebhookPayloadBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Webhook消息转发的负载转换：构建转发Map，以及RestTemplate发送前的JSON序列化
+ * 运行: mvn -Pbenchmark package exec:exec -Djmh.args="-f 1 -prof gc WebhookPayload"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebhookPayloadBenchmark {
+
+    @Param({"group", "private"})
+    private String messageType;
+
+    @Param({"64", "4096"})
+    private int messageLength;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private WebhookMessageRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        WebhookMessageRequest.Sender sender = new WebhookMessageRequest.Sender();
+        sender.setUserId(10001L);
+        sender.setNickname("bench-user");
+
+        request = new WebhookMessageRequest();
+        request.setPostType("message");
+        request.setMessageType(messageType);
+        request.setTime(1_700_000_000L);
+        request.setSelfId(1234567890L);
+        request.setMessageId(987654321L);
+        request.setUserId(10001L);
+        request.setRawMessage("x".repeat(messageLength));
+        request.setSender(sender);
+        if ("group".equals(messageType)) {
+            request.setGroupId(20002L);
+            request.setGroupName("bench-group");
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> buildPayload() {
+        return WebhookPayloadBuilder.build(request);
+    }
+
+    @Benchmark
+    public byte[] buildAndSerialize() throws Exception {
+        return objectMapper.writeValueAsBytes(WebhookPayloadBuilder.build(request));
+    }
+}
@@ -2,12 +2,16 @@ package com.jinyue;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class XxfInstanceManagerApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(XxfInstanceManagerApplication.class, args);
+        SpringApplication application = new SpringApplication(XxfInstanceManagerApplication.class);
+        // 记录启动步骤耗时，供StartupReport和/actuator/startup使用
+        application.setApplicationStartup(new BufferingApplicationStartup(4096));
+        application.run(args);
     }
 
 }
@@ -1,25 +1,133 @@
 package com.jinyue.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
+@Slf4j
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    public static final String OPERATION_EXECUTOR_METRIC = "napcat.operation";
+
+    /**
+     * 项目以Java 17为目标，本应用的线程池不支持虚拟线程；只用于在启动时提示该配置项被忽略
+     */
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsRequested;
+
+    @Value("${napcat.provisioning.concurrency:4}")
+    private int provisioningConcurrency;
+
+    @Value("${async.task.core-pool-size:5}")
+    private int taskCorePoolSize;
+
+    @Value("${async.task.max-pool-size:10}")
+    private int taskMaxPoolSize;
+
+    @Value("${async.task.queue-capacity:100}")
+    private int taskQueueCapacity;
+
+    @Value("${napcat.docker.io-concurrency:16}")
+    private int dockerIoConcurrency;
+
+    @Value("${async.operation.core-pool-size:10}")
+    private int operationCorePoolSize;
+
+    @Value("${async.operation.max-pool-size:20}")
+    private int operationMaxPoolSize;
+
+    @Value("${async.operation.queue-capacity:1000}")
+    private int operationQueueCapacity;
+
+    @PostConstruct
+    public void logThreadingMode() {
+        if (virtualThreadsRequested) {
+            log.warn("spring.threads.virtual.enabled is set, but virtual threads are not available in this build "
+                    + "(Java 17 target): taskExecutor, operationExecutor, provisioningExecutor and dockerIoExecutor "
+                    + "use platform thread pools and the setting is ignored for them");
+        }
+    }
+
     @Bean("taskExecutor")
     public Executor taskExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);           // 核心线程数
-        executor.setMaxPoolSize(10);           // 最大线程数
-        executor.setQueueCapacity(100);        // 队列容量
+        executor.setCorePoolSize(taskCorePoolSize);      // 核心线程数
+        executor.setMaxPoolSize(taskMaxPoolSize);        // 最大线程数
+        executor.setQueueCapacity(taskQueueCapacity);    // 队列容量
         executor.setThreadNamePrefix("AsyncTask-");
         executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+
+    /**
+     * 批量创建流水线线程池，线程数即同时进行的Docker创建/注入/启动步骤上限
+     */
+    @Bean("provisioningExecutor")
+    public Executor provisioningExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(provisioningConcurrency);
+        executor.setMaxPoolSize(provisioningConcurrency);
+        executor.setQueueCapacity(Integer.MAX_VALUE);  // 阶段任务数量受max-instances约束
+        executor.setThreadNamePrefix("Provision-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Docker I/O线程池，异步Docker服务的阻塞调用都在这里执行，线程数即对守护进程的并发上限
+     */
+    @Bean("dockerIoExecutor")
+    public Executor dockerIoExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(dockerIoConcurrency);
+        executor.setMaxPoolSize(dockerIoConcurrency);
+        executor.setQueueCapacity(Integer.MAX_VALUE);  // 调用方已受各自线程池和实例数约束
+        executor.setThreadNamePrefix("DockerIO-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 批量实例操作线程池
+     * 核心线程数即同时执行的实例操作上限，自适应模式下在core-pool-size与max-pool-size之间动态调整；
+     * 队列中每个元素对应一个实例的串行操作队列，队列满时拒绝并计数
+     */
+    @Bean("operationExecutor")
+    public ThreadPoolTaskExecutor operationExecutor(MeterRegistry meterRegistry) {
+        Counter rejected = Counter.builder(OPERATION_EXECUTOR_METRIC + ".rejected")
+                .description("被拒绝的实例操作数")
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(operationCorePoolSize);
+        executor.setMaxPoolSize(Math.max(operationCorePoolSize, operationMaxPoolSize));
+        executor.setQueueCapacity(operationQueueCapacity);
+        executor.setThreadNamePrefix("Operation-");
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            throw new RejectedExecutionException("Operation executor saturated, queue size " + pool.getQueue().size());
+        });
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+
+        // executor.active / executor.queued / executor.pool.size 等指标，name=napcat.operation
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), OPERATION_EXECUTOR_METRIC, Tags.empty())
+                .bindTo(meterRegistry);
+        return executor;
+    }
+}
@@ -0,0 +1,41 @@
+package com.jinyue.config;
+
+import com.jinyue.metrics.ConnectionHoldTrackingDataSource;
+import com.jinyue.metrics.StatementMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * 数据库访问观测
+ * SQL语句拦截器由MyBatis-Plus自动配置收集Interceptor类型的Bean注册；
+ * 数据源包装为记录连接占用时间的代理，Hikari自带指标通过DelegatingDataSource解包后仍然可用
+ */
+@Configuration
+public class DbInstrumentationConfig {
+
+    @Bean
+    public StatementMetricsInterceptor statementMetricsInterceptor(MeterRegistry meterRegistry) {
+        return new StatementMetricsInterceptor(meterRegistry);
+    }
+
+    @Bean
+    public static BeanPostProcessor connectionHoldTrackingPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${napcat.db.connection-hold-warn-ms:1000}") long warnMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionHoldTrackingDataSource)) {
+                    return new ConnectionHoldTrackingDataSource(dataSource, meterRegistry.getObject(), warnMillis);
+                }
+                return bean;
+            }
+        };
+    }
+}
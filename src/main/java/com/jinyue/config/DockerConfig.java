@@ -6,10 +6,13 @@ import com.github.dockerjava.core.DockerClientConfig;
 import com.github.dockerjava.core.DockerClientImpl;
 import com.github.dockerjava.okhttp.OkDockerHttpClient;
 import com.github.dockerjava.transport.DockerHttpClient;
+import com.jinyue.metrics.InstrumentedDockerHttpClient;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
 import java.time.Duration;
 
@@ -26,35 +29,59 @@ public class DockerConfig {
     @Value("${napcat.docker.cert-path:}")
     private String certPath;
 
+    @Value("${napcat.docker.connectivity.ping-timeout-ms:2000}")
+    private int pingTimeoutMs;
+
+    /**
+     * 创建Docker客户端，不在此处连接守护进程：Docker暂时不可用时应用照常启动，
+     * 连通性由IDockerConnectivity在后台探测
+     */
     @Bean
-    public DockerClient dockerClient() {
+    @Primary
+    public DockerClient dockerClient(MeterRegistry meterRegistry) {
         try {
-            DefaultDockerClientConfig.Builder configBuilder = DefaultDockerClientConfig.createDefaultConfigBuilder()
-                    .withDockerHost(dockerHost)
-                    .withDockerTlsVerify(tlsVerify);
-
-            if (tlsVerify && !certPath.isEmpty()) {
-                configBuilder.withDockerCertPath(certPath);
-            }
-
-            DockerClientConfig config = configBuilder.build();
-
-            DockerHttpClient httpClient = new OkDockerHttpClient.Builder()
-                    .dockerHost(config.getDockerHost())
-                    .sslConfig(config.getSSLConfig())
-                    .connectTimeout(30000)
-                    .readTimeout(45000)
-                    .build();
+            DockerClientConfig config = clientConfig();
+            DockerHttpClient httpClient = new InstrumentedDockerHttpClient(httpClient(config, 30000, 45000),
+                    meterRegistry, config.getDockerHost().toString());
 
             DockerClient dockerClient = DockerClientImpl.getInstance(config, httpClient);
-
-            dockerClient.pingCmd().exec();
-            log.info("Docker client connected successfully to: {}", dockerHost);
+            log.info("Docker client configured for: {}", dockerHost);
 
             return dockerClient;
         } catch (Exception e) {
-            log.error("Failed to connect to Docker: {}", e.getMessage());
+            log.error("Invalid Docker client configuration: {}", e.getMessage());
             throw new RuntimeException("Failed to initialize Docker client", e);
         }
     }
+
+    /**
+     * 连通性探测专用客户端，连接和读取超时都很短：守护进程不可达时探测很快失败，
+     * 不会长时间占用定时任务线程
+     */
+    @Bean
+    public DockerClient dockerPingClient() {
+        DockerClientConfig config = clientConfig();
+        return DockerClientImpl.getInstance(config, httpClient(config, pingTimeoutMs, pingTimeoutMs));
+    }
+
+    private DockerClientConfig clientConfig() {
+        DefaultDockerClientConfig.Builder configBuilder = DefaultDockerClientConfig.createDefaultConfigBuilder()
+                .withDockerHost(dockerHost)
+                .withDockerTlsVerify(tlsVerify);
+
+        if (tlsVerify && !certPath.isEmpty()) {
+            configBuilder.withDockerCertPath(certPath);
+        }
+
+        return configBuilder.build();
+    }
+
+    private DockerHttpClient httpClient(DockerClientConfig config, int connectTimeoutMs, int readTimeoutMs) {
+        return new OkDockerHttpClient.Builder()
+                .dockerHost(config.getDockerHost())
+                .sslConfig(config.getSSLConfig())
+                .connectTimeout(connectTimeoutMs)
+                .readTimeout(readTimeoutMs)
+                .build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.jinyue.config;
+
+import org.springframework.boot.diagnostics.AbstractFailureAnalyzer;
+import org.springframework.boot.diagnostics.FailureAnalysis;
+import org.springframework.jdbc.datasource.init.ScriptStatementFailedException;
+
+/**
+ * 端口唯一索引创建失败时的启动诊断
+ * 旧版本没有该索引，库中可能已有端口重复的未删除实例，此时schema.sql建索引失败、应用无法启动，
+ * 需要按README中“升级：端口唯一索引”一节手动处理重复端口
+ */
+public class PortIndexFailureAnalyzer extends AbstractFailureAnalyzer<ScriptStatementFailedException> {
+
+    private static final String PORT_INDEX = "uk_napcat_instance_port";
+
+    @Override
+    protected FailureAnalysis analyze(Throwable rootFailure, ScriptStatementFailedException cause) {
+        if (cause.getMessage() == null || !cause.getMessage().contains(PORT_INDEX)) {
+            return null;
+        }
+        return new FailureAnalysis(
+                "无法创建端口唯一索引 " + PORT_INDEX + "：napcat_instance中存在端口重复的未删除实例。",
+                "按README中“升级：端口唯一索引”一节查出重复端口并处理（每个端口只保留一个未删除实例），然后重新启动。",
+                cause);
+    }
+}
@@ -0,0 +1,37 @@
+package com.jinyue.controller;
+
+import com.jinyue.dto.ResourceGcReport;
+import com.jinyue.service.IResourceGcService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/maintenance")
+@RequiredArgsConstructor
+@Tag(name = "运维管理", description = "Docker资源回收等运维操作")
+public class MaintenanceController {
+
+    private final IResourceGcService resourceGcService;
+
+    @PostMapping("/gc")
+    @Operation(summary = "回收孤儿资源", description = "比对Docker容器/数据卷与数据库实例，删除孤儿资源并清理已删除实例；默认只生成演练报告")
+    public ResponseEntity<ResourceGcReport> runGc(
+            @Parameter(description = "演练模式，只报告不删除") @RequestParam(defaultValue = "true") boolean dryRun) {
+        try {
+            return ResponseEntity.ok(resourceGcService.runGc(dryRun));
+        } catch (IllegalStateException e) {
+            log.warn("GC rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            log.error("GC failed: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
@@ -2,10 +2,16 @@ package com.jinyue.controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.jinyue.dto.*;
+import com.jinyue.entity.NapcatInstance;
 import com.jinyue.entity.TaskInfo;
 import com.jinyue.dto.InstanceAccessInfo;
+import com.jinyue.exception.DockerUnavailableException;
+import com.jinyue.exception.InstanceNotFoundException;
 import com.jinyue.exception.InvalidInstanceStateException;
 import com.jinyue.service.IAsyncOperationService;
+import com.jinyue.service.IContainerLogService;
+import com.jinyue.service.IInstanceTrafficService;
+import com.jinyue.service.IRoutingTableService;
 import com.jinyue.service.INapcatInstanceService;
 import com.jinyue.service.ITaskManagerService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -19,6 +25,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -35,6 +42,9 @@ public class NapcatInstanceController {
     private final IAsyncOperationService asyncOperationService;
 
     private final INapcatInstanceService instanceService;
+    private final IContainerLogService containerLogService;
+    private final IInstanceTrafficService trafficService;
+    private final IRoutingTableService routingTableService;
 
 
     @PostMapping
@@ -53,12 +63,23 @@ public class NapcatInstanceController {
         } catch (IllegalArgumentException e) {
             log.warn("Invalid batch create request: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
+        } catch (DockerUnavailableException e) {
+            log.warn("Rejected batch create request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (Exception e) {
             log.error("Failed to create multiple instances: {}", e.getMessage());
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "流式创建Napcat实例", description = "批量创建实例，每个实例完成后立即通过SSE推送结果（instance/failed事件），最后推送summary汇总")
+    public SseEmitter createMultipleInstancesStream(@Valid @RequestBody CreateMultiInstanceRequest request) {
+        SseEmitter emitter = new SseEmitter(600000L);
+        asyncOperationService.executeCreateStreamAsync(request, emitter);
+        return emitter;
+    }
+
     @GetMapping
     @Operation(summary = "获取实例列表", description = "分页获取所有Napcat实例")
     public ResponseEntity<IPage<InstanceResponse>> getInstances(
@@ -235,13 +256,32 @@ public class NapcatInstanceController {
         }
     }
 
+    @GetMapping("/routing-table")
+    @Operation(summary = "获取实例路由表", description = "全部实例的访问信息，供proxy缓存在本地。ETag为表版本，" +
+            "If-None-Match命中或since等于当前版本时返回304；带since时只返回之后新增/变化的实例和删除的UUID，" +
+            "since过旧时返回全量（full=true）")
+    public ResponseEntity<RoutingTable> getRoutingTable(
+            @Parameter(description = "调用方已有的路由表版本") @RequestParam(required = false) Long since,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            long version = routingTableService.currentVersion();
+            String etag = "\"" + version + "\"";
+            if ((ifNoneMatch != null && ifNoneMatch.contains(etag)) || (since != null && since == version)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            RoutingTable table = routingTableService.getTable(since);
+            return ResponseEntity.ok().eTag("\"" + table.getVersion() + "\"").body(table);
+        } catch (Exception e) {
+            log.error("Failed to get routing table: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     /**
      * 构建NapCat实例的HTTP API地址
      */
     private String buildNapcatUrl(InstanceResponse instance) {
-        // 根据实例端口构建URL
-        // 注意: 这里假设NapCat实例运行在localhost,实际部署时可能需要调整
-        return String.format("http://localhost:%d", instance.getPort());
+        return InstanceAccessInfo.napcatUrlOf(instance.getPort());
     }
 
     /**
@@ -291,4 +331,56 @@ public class NapcatInstanceController {
         }
     }
 
-}
\ No newline at end of file
+    @GetMapping(value = "/{id}/logs", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "获取实例日志", description = "通过SSE推送容器日志，follow=true时持续跟随，多个查看者共享同一日志流")
+    public ResponseEntity<SseEmitter> streamInstanceLogs(
+            @Parameter(description = "实例ID") @PathVariable String id,
+            @Parameter(description = "是否持续跟随") @RequestParam(defaultValue = "true") boolean follow,
+            @Parameter(description = "回放的历史行数") @RequestParam(defaultValue = "200") int tail) {
+        try {
+            SseEmitter emitter = containerLogService.openLogStream(id, follow, tail);
+            return ResponseEntity.ok(emitter);
+        } catch (InstanceNotFoundException e) {
+            log.warn("Cannot open log stream: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            log.warn("Log stream rejected for instance {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        } catch (Exception e) {
+            log.error("Failed to open log stream for instance {}: {}", id, e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/{id}/traffic")
+    @Operation(summary = "获取实例消息流量", description = "该实例机器人的收消息数、每秒消息数、群聊/私聊拆分、转发耗时和转发失败，自管理器启动起累计")
+    public ResponseEntity<InstanceTrafficStats> getInstanceTraffic(
+            @Parameter(description = "实例ID") @PathVariable String id) {
+        try {
+            NapcatInstance instance = instanceService.getById(id);
+            if (instance == null) {
+                return ResponseEntity.notFound().build();
+            }
+            InstanceTrafficStats stats = instance.getQqAccount() != null
+                    ? trafficService.getStats(instance.getQqAccount())
+                    : new InstanceTrafficStats();
+            return ResponseEntity.ok(stats.setInstanceId(id));
+        } catch (Exception e) {
+            log.error("Failed to get traffic for instance {}: {}", id, e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/traffic")
+    @Operation(summary = "获取全体消息流量", description = "全部机器人的消息流量汇总，以及每秒消息数最高的前top个机器人")
+    public ResponseEntity<FleetTrafficStats> getFleetTraffic(
+            @Parameter(description = "返回的机器人数量") @RequestParam(defaultValue = "10") int top) {
+        try {
+            return ResponseEntity.ok(trafficService.getFleetStats(top));
+        } catch (Exception e) {
+            log.error("Failed to get fleet traffic: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+}
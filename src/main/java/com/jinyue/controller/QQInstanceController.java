@@ -6,6 +6,7 @@ import com.jinyue.dto.InstanceResponse;
 import com.jinyue.dto.MultiInstanceResponse;
 import com.jinyue.exception.InvalidInstanceStateException;
 import com.jinyue.exception.InstanceNotFoundException;
+import com.jinyue.exception.InstanceStateConflictException;
 import com.jinyue.service.INapcatInstanceService;
 import com.jinyue.entity.NapcatInstance;
 import io.swagger.v3.oas.annotations.Operation;
@@ -36,6 +37,17 @@ public class QQInstanceController {
 
     private final INapcatInstanceService instanceService;
 
+    /**
+     * 状态冲突统一返回409
+     */
+    private ResponseEntity<?> conflict(InstanceStateConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "error", "实例状态冲突",
+                "message", e.getMessage(),
+                "current_state", e.getCurrentState()
+        ));
+    }
+
     /**
      * 通过QQ号解析实例UUID
      */
@@ -123,6 +135,9 @@ public class QQInstanceController {
         } catch (InstanceNotFoundException e) {
             log.warn("Instance not found for QQ: {}", qqNumber);
             return ResponseEntity.notFound().build();
+        } catch (InstanceStateConflictException e) {
+            log.warn("State conflict for QQ {}: {}", qqNumber, e.getMessage());
+            return conflict(e);
         } catch (Exception e) {
             log.error("Error starting instance for QQ {}: {}", qqNumber, e.getMessage());
             return ResponseEntity.internalServerError().body(Map.of(
@@ -155,6 +170,9 @@ public class QQInstanceController {
         } catch (InstanceNotFoundException e) {
             log.warn("Instance not found for QQ: {}", qqNumber);
             return ResponseEntity.notFound().build();
+        } catch (InstanceStateConflictException e) {
+            log.warn("State conflict for QQ {}: {}", qqNumber, e.getMessage());
+            return conflict(e);
         } catch (Exception e) {
             log.error("Error stopping instance for QQ {}: {}", qqNumber, e.getMessage());
             return ResponseEntity.internalServerError().body(Map.of(
@@ -187,6 +205,9 @@ public class QQInstanceController {
         } catch (InstanceNotFoundException e) {
             log.warn("Instance not found for QQ: {}", qqNumber);
             return ResponseEntity.notFound().build();
+        } catch (InstanceStateConflictException e) {
+            log.warn("State conflict for QQ {}: {}", qqNumber, e.getMessage());
+            return conflict(e);
         } catch (Exception e) {
             log.error("Error restarting instance for QQ {}: {}", qqNumber, e.getMessage());
             return ResponseEntity.internalServerError().body(Map.of(
@@ -219,6 +240,9 @@ public class QQInstanceController {
         } catch (InstanceNotFoundException e) {
             log.warn("Instance not found for QQ: {}", qqNumber);
             return ResponseEntity.notFound().build();
+        } catch (InstanceStateConflictException e) {
+            log.warn("State conflict for QQ {}: {}", qqNumber, e.getMessage());
+            return conflict(e);
         } catch (Exception e) {
             log.error("Error deleting instance for QQ {}: {}", qqNumber, e.getMessage());
             return ResponseEntity.internalServerError().body(Map.of(
@@ -2,16 +2,23 @@ package com.jinyue.controller;
 
 import com.jinyue.entity.TaskInfo;
 import com.jinyue.mapper.NapcatInstanceMapper;
+import com.jinyue.service.IAsyncOperationService;
 import com.jinyue.service.ITaskManagerService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
 
 @Slf4j
 @RestController
@@ -21,6 +28,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class TaskController {
 
     private final ITaskManagerService taskManagerService;
+    private final IAsyncOperationService asyncOperationService;
 
     @GetMapping("/tasks/{taskId}")
     @Operation(summary = "查询任务状态", description = "根据taskId查询异步任务的执行状态")
@@ -36,4 +44,54 @@ public class TaskController {
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    @GetMapping(value = "/tasks/{taskId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "订阅任务进度", description = "SSE推送任务进度：snapshot为当前快照，progress为单个实例的完成事件，finished为任务结束")
+    public ResponseEntity<SseEmitter> streamTaskProgress(@PathVariable String taskId) {
+        try {
+            SseEmitter emitter = taskManagerService.subscribeTaskProgress(taskId);
+            if (emitter == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(emitter);
+        } catch (Exception e) {
+            log.error("Failed to subscribe task progress: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @PostMapping("/tasks/{taskId}/cancel")
+    @Operation(summary = "取消任务", description = "取消执行中的任务，未开始的实例操作跳过，已完成的实例结果保留")
+    public ResponseEntity<?> cancelTask(@PathVariable String taskId) {
+        try {
+            TaskInfo task = taskManagerService.getTask(taskId);
+            if (task == null) {
+                return ResponseEntity.notFound().build();
+            }
+            if (!asyncOperationService.cancelTask(taskId)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                        "error", "任务已结束，无法取消",
+                        "status", String.valueOf(task.getStatus())
+                ));
+            }
+            return ResponseEntity.accepted().body(Map.of(
+                    "message", "取消请求已提交",
+                    "task_id", taskId
+            ));
+        } catch (Exception e) {
+            log.error("Failed to cancel task: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/queues")
+    @Operation(summary = "查询实例操作队列", description = "返回每个实例上排队中的操作数，大于1说明该实例存在操作争用")
+    public ResponseEntity<Map<String, Integer>> getOperationQueues() {
+        try {
+            return ResponseEntity.ok(asyncOperationService.getOperationQueueDepths());
+        } catch (Exception e) {
+            log.error("Failed to get operation queues: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
 }
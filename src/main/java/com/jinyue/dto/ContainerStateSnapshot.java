@@ -0,0 +1,45 @@
+package com.jinyue.dto;
+
+import com.jinyue.entity.LifecycleOperation;
+import com.jinyue.entity.NapcatInstance;
+import com.jinyue.service.IDockerService;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 某一时刻全部托管容器的状态快照
+ * 由一次容器列表调用生成，不在快照中的容器视为不存在
+ */
+@Getter
+public class ContainerStateSnapshot {
+
+    private final Map<String, IDockerService.ContainerStatus> statuses;
+
+    private final LocalDateTime refreshedTime;
+
+    public ContainerStateSnapshot(Map<String, IDockerService.ContainerStatus> statuses, LocalDateTime refreshedTime) {
+        this.statuses = Map.copyOf(statuses);
+        this.refreshedTime = refreshedTime;
+    }
+
+    public IDockerService.ContainerStatus statusOf(String containerId) {
+        return statuses.getOrDefault(containerId, IDockerService.ContainerStatus.NOT_FOUND);
+    }
+
+    /**
+     * 实例的观测状态
+     * 过渡状态由生命周期操作独占；数据库记录晚于快照时以数据库为准，否则以快照中的容器状态为准
+     */
+    public NapcatInstance.InstanceStatus observedStatus(NapcatInstance instance) {
+        NapcatInstance.InstanceStatus status = instance.getStatus();
+        if (instance.getContainerId() == null || LifecycleOperation.isTransitional(status)) {
+            return status;
+        }
+        if (instance.getUpdatedTime() != null && !refreshedTime.isAfter(instance.getUpdatedTime())) {
+            return status;
+        }
+        return statusOf(instance.getContainerId()).toInstanceStatus();
+    }
+}
@@ -0,0 +1,46 @@
+package com.jinyue.dto;
+
+import com.jinyue.service.IDockerService;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.List;
+
+/**
+ * 持久化到本地文件的实例容器状态快照，用于重启后快速恢复容器状态
+ */
+@Data
+@Accessors(chain = true)
+public class FleetSnapshot {
+
+    /**
+     * 快照写入时间（Unix毫秒）
+     */
+    private long savedTime;
+
+    /**
+     * 容器状态的观测时间（Unix秒），恢复时从该时间起回放Docker事件
+     */
+    private long eventOffset;
+
+    private List<Entry> containers;
+
+    /**
+     * 单个实例的容器状态和端口
+     */
+    @Data
+    public static class Entry {
+
+        private String instanceId;
+
+        private String containerId;
+
+        private IDockerService.ContainerStatus containerStatus;
+
+        private Integer port;
+
+        private Integer httpPort;
+
+        private Integer wsPort;
+    }
+}
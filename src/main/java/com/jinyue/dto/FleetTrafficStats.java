@@ -0,0 +1,47 @@
+package com.jinyue.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Accessors(chain = true)
+@Schema(description = "全部机器人的消息流量汇总")
+public class FleetTrafficStats {
+
+    @Schema(description = "有流量记录的机器人数量")
+    private int activeSelfIds;
+
+    @Schema(description = "收到的消息总数")
+    private long received;
+
+    @Schema(description = "群消息数")
+    private long groupMessages;
+
+    @Schema(description = "私聊消息数")
+    private long privateMessages;
+
+    @Schema(description = "最近一个统计窗口内的每秒消息数")
+    private double messagesPerSecond;
+
+    @Schema(description = "转发成功数")
+    private long forwarded;
+
+    @Schema(description = "转发失败数")
+    private long forwardFailures;
+
+    @Schema(description = "平均转发耗时（毫秒）")
+    private double forwardLatencyAvgMs;
+
+    @Schema(description = "转发耗时P50（毫秒）")
+    private long forwardLatencyP50Ms;
+
+    @Schema(description = "转发耗时P99（毫秒）")
+    private long forwardLatencyP99Ms;
+
+    @Schema(description = "按每秒消息数排序的前若干个机器人")
+    private List<InstanceTrafficStats> topSelfIds = new ArrayList<>();
+}
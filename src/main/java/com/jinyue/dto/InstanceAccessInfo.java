@@ -34,7 +34,7 @@ public class InstanceAccessInfo {
 
     /**
      * 实例当前状态
-     * STOPPED, STARTING, RUNNING, STOPPING, ERROR, UNKNOWN
+     * STOPPED, STARTING, RUNNING, STOPPING, DELETING, ERROR, UNKNOWN
      */
     private String status;
 
@@ -42,4 +42,12 @@ public class InstanceAccessInfo {
      * 实例端口号
      */
     private Integer port;
+
+    /**
+     * NapCat实例的HTTP API地址
+     * 注意: 这里假设NapCat实例运行在localhost,实际部署时可能需要调整
+     */
+    public static String napcatUrlOf(Integer port) {
+        return String.format("http://localhost:%d", port);
+    }
 }
\ No newline at end of file
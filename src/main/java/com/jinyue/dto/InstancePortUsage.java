@@ -0,0 +1,17 @@
+package com.jinyue.dto;
+
+import lombok.Data;
+
+/**
+ * 实例占用的端口（服务端口、HTTP端口、WebSocket端口）
+ * 只从config中取端口字段，不反序列化整个JSONB配置
+ */
+@Data
+public class InstancePortUsage {
+
+    private Integer port;
+
+    private Integer httpPort;
+
+    private Integer wsPort;
+}
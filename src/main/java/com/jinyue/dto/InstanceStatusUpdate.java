@@ -0,0 +1,21 @@
+package com.jinyue.dto;
+
+import com.jinyue.entity.NapcatInstance;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 实例状态列更新
+ */
+@Data
+@AllArgsConstructor
+public class InstanceStatusUpdate {
+
+    private String id;
+
+    private NapcatInstance.InstanceStatus status;
+
+    private LocalDateTime updatedTime;
+}
@@ -0,0 +1,49 @@
+package com.jinyue.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.time.LocalDateTime;
+
+@Data
+@Accessors(chain = true)
+@Schema(description = "单个机器人（self_id）的消息流量统计，自管理器启动起累计")
+public class InstanceTrafficStats {
+
+    @Schema(description = "机器人QQ号")
+    private String selfId;
+
+    @Schema(description = "实例ID，仅单实例查询时返回")
+    private String instanceId;
+
+    @Schema(description = "收到的消息总数")
+    private long received;
+
+    @Schema(description = "群消息数")
+    private long groupMessages;
+
+    @Schema(description = "私聊消息数")
+    private long privateMessages;
+
+    @Schema(description = "最近一个统计窗口内的每秒消息数")
+    private double messagesPerSecond;
+
+    @Schema(description = "转发成功数")
+    private long forwarded;
+
+    @Schema(description = "转发失败数")
+    private long forwardFailures;
+
+    @Schema(description = "平均转发耗时（毫秒）")
+    private double forwardLatencyAvgMs;
+
+    @Schema(description = "转发耗时P50（毫秒，按直方图桶上界估算）")
+    private long forwardLatencyP50Ms;
+
+    @Schema(description = "转发耗时P99（毫秒，按直方图桶上界估算）")
+    private long forwardLatencyP99Ms;
+
+    @Schema(description = "最后一条消息的到达时间")
+    private LocalDateTime lastMessageTime;
+}
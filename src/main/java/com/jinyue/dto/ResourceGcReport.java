@@ -0,0 +1,49 @@
+package com.jinyue.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Schema(description = "孤儿容器与数据卷回收报告")
+public class ResourceGcReport {
+
+    @Schema(description = "是否为演练模式（只报告不删除）")
+    private boolean dryRun;
+
+    @Schema(description = "开始时间")
+    private LocalDateTime startedTime;
+
+    @Schema(description = "结束时间")
+    private LocalDateTime finishedTime;
+
+    @Schema(description = "数据库中存活的实例数量")
+    private int liveInstanceCount;
+
+    @Schema(description = "孤儿容器（名称/ID）")
+    private List<String> orphanContainers = new ArrayList<>();
+
+    @Schema(description = "孤儿数据卷")
+    private List<String> orphanVolumes = new ArrayList<>();
+
+    @Schema(description = "已逻辑删除、待彻底清理的实例")
+    private List<String> deletedInstances = new ArrayList<>();
+
+    @Schema(description = "实际删除的容器数量")
+    private int removedContainers;
+
+    @Schema(description = "实际删除的数据卷数量")
+    private int removedVolumes;
+
+    @Schema(description = "彻底清理的实例行数量")
+    private int purgedInstances;
+
+    @Schema(description = "因单次删除上限而跳过的资源数量")
+    private int deferred;
+
+    @Schema(description = "删除失败的资源及原因")
+    private List<String> failures = new ArrayList<>();
+}
@@ -0,0 +1,25 @@
+package com.jinyue.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.List;
+
+@Data
+@Accessors(chain = true)
+@Schema(description = "实例路由表，全量或自某版本以来的增量")
+public class RoutingTable {
+
+    @Schema(description = "路由表版本，单调递增，重启后不回退")
+    private long version;
+
+    @Schema(description = "是否为全量表；为true时调用方应以instances整体替换本地表")
+    private boolean full;
+
+    @Schema(description = "全量时为全部实例，增量时为新增或变化的实例")
+    private List<InstanceAccessInfo> instances;
+
+    @Schema(description = "增量时为自since版本以来删除的实例UUID")
+    private List<String> removed;
+}
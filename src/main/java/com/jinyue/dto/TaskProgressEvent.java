@@ -0,0 +1,32 @@
+package com.jinyue.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+@Schema(description = "任务进度增量事件，每个实例操作完成时推送一次")
+public class TaskProgressEvent {
+
+    @Schema(description = "任务ID")
+    private String taskId;
+
+    @Schema(description = "本次完成的实例ID")
+    private String instanceId;
+
+    @Schema(description = "本次操作是否成功")
+    private boolean success;
+
+    @Schema(description = "失败原因")
+    private String errorMessage;
+
+    @Schema(description = "累计成功数量")
+    private int successCount;
+
+    @Schema(description = "累计失败数量")
+    private int failedCount;
+
+    @Schema(description = "总数量")
+    private int totalCount;
+}
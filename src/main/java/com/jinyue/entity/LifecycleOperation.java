@@ -0,0 +1,107 @@
+package com.jinyue.entity;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static com.jinyue.entity.NapcatInstance.InstanceStatus.*;
+
+/**
+ * 实例生命周期操作的状态转换表
+ * 每个操作声明：进入的过渡状态、以及拒绝执行的当前状态及原因，其余状态均允许进入过渡状态。
+ * 进入过渡状态时以读到的状态为期望值做条件更新（UPDATE ... WHERE status = 读到的状态），同时写入updated_time；
+ * 持有者崩溃或收尾写入失败时，过渡状态超过期限后由健康检查按Docker报告的状态恢复
+ */
+@Getter
+public enum LifecycleOperation {
+
+    START(STARTING, "STOPPED", Map.of(
+            RUNNING, "实例已经在运行中",
+            STARTING, "实例正在启动中",
+            STOPPING, "实例正在停止中",
+            DELETING, "实例正在删除中")),
+
+    STOP(STOPPING, "RUNNING", Map.of(
+            STOPPED, "实例已经停止",
+            STOPPING, "实例正在停止中",
+            STARTING, "实例正在启动中",
+            DELETING, "实例正在删除中")),
+
+    RESTART(STOPPING, "RUNNING or STOPPED", Map.of(
+            STARTING, "实例正在进行状态转换，无法重启",
+            STOPPING, "实例正在进行状态转换，无法重启",
+            DELETING, "实例正在删除中")),
+
+    DELETE(DELETING, "STOPPED or RUNNING", Map.of(
+            STARTING, "实例正在进行状态转换，无法删除",
+            STOPPING, "实例正在进行状态转换，无法删除",
+            DELETING, "实例正在删除中"));
+
+    /**
+     * 操作执行期间的过渡状态
+     */
+    private final NapcatInstance.InstanceStatus transitional;
+
+    /**
+     * 期望的状态描述（用于错误提示）
+     */
+    private final String requiredState;
+
+    private final Map<NapcatInstance.InstanceStatus, String> rejections;
+
+    LifecycleOperation(NapcatInstance.InstanceStatus transitional, String requiredState,
+                       Map<NapcatInstance.InstanceStatus, String> rejections) {
+        this.transitional = transitional;
+        this.requiredState = requiredState;
+        this.rejections = rejections;
+    }
+
+    /**
+     * 检查当前状态能否执行该操作
+     * @return 不允许时返回原因，允许时返回null
+     */
+    public String check(NapcatInstance.InstanceStatus current) {
+        return rejections.get(current);
+    }
+
+    /**
+     * 是否为生命周期操作占用的过渡状态
+     */
+    public static boolean isTransitional(NapcatInstance.InstanceStatus status) {
+        return status == STARTING || status == STOPPING || status == DELETING;
+    }
+
+    /**
+     * 滞留在过渡状态的实例的恢复目标
+     * 过渡状态进入时写入updated_time，早于staleBefore仍未结束说明持有者已不在，以Docker报告的状态为准
+     * @param instance 实例（需要status和updated_time）
+     * @param observed Docker报告的容器状态对应的实例状态
+     * @param staleBefore 过渡状态的最晚开始时间
+     * @return 需要恢复时返回目标状态，否则返回null
+     */
+    public static NapcatInstance.InstanceStatus recoveryTarget(NapcatInstance instance,
+                                                                NapcatInstance.InstanceStatus observed,
+                                                                LocalDateTime staleBefore) {
+        if (!isTransitional(instance.getStatus())) {
+            return null;
+        }
+        if (instance.getUpdatedTime() != null && !instance.getUpdatedTime().isBefore(staleBefore)) {
+            return null;
+        }
+        // 观测状态不应是过渡状态，防御性地落到ERROR，保证实例可以再次操作
+        return observed == null || isTransitional(observed) ? ERROR : observed;
+    }
+
+    /**
+     * 按名称解析操作
+     * @throws IllegalArgumentException 不支持的操作类型
+     */
+    public static LifecycleOperation of(String operation) {
+        try {
+            return valueOf(operation.toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("不支持的操作类型: " + operation);
+        }
+    }
+}
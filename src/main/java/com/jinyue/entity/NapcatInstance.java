@@ -49,6 +49,7 @@ public class NapcatInstance {
         STARTING,
         RUNNING,
         STOPPING,
+        DELETING,
         ERROR,
         UNKNOWN
     }
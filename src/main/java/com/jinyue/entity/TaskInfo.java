@@ -25,7 +25,8 @@ public class TaskInfo {
         PENDING,    // 等待执行
         RUNNING,    // 执行中
         COMPLETED,  // 已完成
-        FAILED      // 失败
+        FAILED,     // 失败
+        CANCELLED   // 已取消
     }
 
     @Data
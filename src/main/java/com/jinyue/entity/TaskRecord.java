@@ -0,0 +1,62 @@
+package com.jinyue.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.time.LocalDateTime;
+
+/**
+ * 异步任务持久化记录
+ * 列表字段以JSON文本保存，与TaskInfo之间的转换由任务存储负责
+ */
+@Data
+@Accessors(chain = true)
+@TableName("napcat_task")
+public class TaskRecord {
+
+    @TableId(value = "task_id", type = IdType.INPUT)
+    private String taskId;
+
+    @TableField("operation")
+    private String operation;
+
+    @TableField("status")
+    private TaskInfo.TaskStatus status;
+
+    @TableField("instance_ids")
+    private String instanceIds;
+
+    @TableField("total_count")
+    private Integer totalCount;
+
+    @TableField("success_count")
+    private Integer successCount;
+
+    @TableField("failed_count")
+    private Integer failedCount;
+
+    @TableField("success_ids")
+    private String successIds;
+
+    @TableField("failed_operations")
+    private String failedOperations;
+
+    @TableField("error_message")
+    private String errorMessage;
+
+    @TableField("node_id")
+    private String nodeId;
+
+    @TableField("created_time")
+    private LocalDateTime createdTime;
+
+    @TableField("completed_time")
+    private LocalDateTime completedTime;
+
+    @TableField("updated_time")
+    private LocalDateTime updatedTime;
+}
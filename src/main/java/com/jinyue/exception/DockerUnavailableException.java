@@ -0,0 +1,12 @@
+package com.jinyue.exception;
+
+/**
+ * Docker不可用异常
+ * 连通性检查判定Docker守护进程不可达时，写操作快速失败而不是等待连接超时
+ */
+public class DockerUnavailableException extends RuntimeException {
+
+    public DockerUnavailableException(String message) {
+        super(message);
+    }
+}
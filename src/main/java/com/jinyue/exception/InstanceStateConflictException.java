@@ -0,0 +1,22 @@
+package com.jinyue.exception;
+
+import lombok.Getter;
+
+/**
+ * 实例状态冲突异常
+ * 条件更新未命中（实例状态已被并发请求修改）时抛出，调用方应快速失败而不是重试
+ */
+@Getter
+public class InstanceStateConflictException extends RuntimeException {
+
+    private final String instanceId;
+    private final String operation;
+    private final String currentState;
+
+    public InstanceStateConflictException(String instanceId, String operation, String currentState, String reason) {
+        super(String.format("实例 %s 无法执行 %s: %s (当前状态: %s)", instanceId, operation, reason, currentState));
+        this.instanceId = instanceId;
+        this.operation = operation;
+        this.currentState = currentState;
+    }
+}
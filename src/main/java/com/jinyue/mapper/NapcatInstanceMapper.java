@@ -1,9 +1,121 @@
 package com.jinyue.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.jinyue.dto.FleetSnapshot;
+import com.jinyue.dto.InstancePortUsage;
+import com.jinyue.dto.InstanceStatusUpdate;
 import com.jinyue.entity.NapcatInstance;
+import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @Mapper
 public interface NapcatInstanceMapper extends BaseMapper<NapcatInstance> {
-}
\ No newline at end of file
+
+    /**
+     * 条件状态转换（CAS）：仅当当前状态属于from时才更新为to
+     * @return 影响行数，0表示状态已被并发修改
+     */
+    @Update("<script>" +
+            "UPDATE napcat_instance SET status = #{to}, updated_time = #{updatedTime} " +
+            "WHERE id = #{id} AND deleted = 0 AND status IN " +
+            "<foreach collection='from' item='s' open='(' separator=',' close=')'>#{s}</foreach>" +
+            "</script>")
+    int compareAndSetStatus(@Param("id") String id,
+                            @Param("from") Collection<NapcatInstance.InstanceStatus> from,
+                            @Param("to") NapcatInstance.InstanceStatus to,
+                            @Param("updatedTime") LocalDateTime updatedTime);
+
+    /**
+     * 查询开始时间早于staleBefore仍处于过渡状态的实例，只取恢复所需的列
+     */
+    @Select("SELECT id, name, container_id, status, updated_time FROM napcat_instance " +
+            "WHERE deleted = 0 AND status IN ('STARTING', 'STOPPING', 'DELETING') AND updated_time < #{staleBefore}")
+    List<NapcatInstance> selectStaleTransitions(@Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * 恢复滞留的过渡状态：仅当实例仍处于该过渡状态且开始时间早于staleBefore时更新，
+     * 期间重新开始的生命周期操作不会被覆盖
+     * @return 影响行数，0表示实例已离开该过渡状态
+     */
+    @Update("UPDATE napcat_instance SET status = #{to}, updated_time = #{updatedTime} " +
+            "WHERE id = #{id} AND deleted = 0 AND status = #{from} AND updated_time < #{staleBefore}")
+    int resetStaleTransition(@Param("id") String id,
+                             @Param("from") NapcatInstance.InstanceStatus from,
+                             @Param("to") NapcatInstance.InstanceStatus to,
+                             @Param("staleBefore") LocalDateTime staleBefore,
+                             @Param("updatedTime") LocalDateTime updatedTime);
+
+    /**
+     * 只更新容器ID列
+     */
+    @Update("UPDATE napcat_instance SET container_id = #{containerId}, updated_time = #{updatedTime} " +
+            "WHERE id = #{id} AND deleted = 0")
+    int updateContainerId(@Param("id") String id,
+                          @Param("containerId") String containerId,
+                          @Param("updatedTime") LocalDateTime updatedTime);
+
+    /**
+     * 单条语句批量更新多个实例的状态
+     * 只覆盖更旧的记录，延迟写入的过期状态不会覆盖之后同步写入的状态；
+     * 处于过渡状态的实例由生命周期操作独占，不被观测性的状态同步覆盖，滞留的过渡状态由resetStaleTransition恢复
+     */
+    @Update("<script>" +
+            "UPDATE napcat_instance AS t SET status = v.status, updated_time = v.updated_time " +
+            "FROM (VALUES " +
+            "<foreach collection='updates' item='u' separator=','>" +
+            "(#{u.id}, #{u.status}, CAST(#{u.updatedTime} AS TIMESTAMP))" +
+            "</foreach>" +
+            ") AS v(id, status, updated_time) " +
+            "WHERE t.id = v.id AND t.deleted = 0 AND t.updated_time &lt; v.updated_time " +
+            "AND t.status NOT IN ('STARTING', 'STOPPING', 'DELETING')" +
+            "</script>")
+    int batchUpdateStatus(@Param("updates") List<InstanceStatusUpdate> updates);
+
+    /**
+     * 查询所有未删除实例占用的端口，只读取端口相关字段
+     */
+    @Select("SELECT port, (config->>'httpPort')::int AS http_port, (config->>'wsPort')::int AS ws_port " +
+            "FROM napcat_instance WHERE deleted = 0")
+    List<InstancePortUsage> selectPortUsages();
+
+    /**
+     * 查询所有有容器的未删除实例及其端口，用于写入容器状态快照
+     */
+    @Select("SELECT id AS instance_id, container_id, port, (config->>'httpPort')::int AS http_port, " +
+            "(config->>'wsPort')::int AS ws_port FROM napcat_instance WHERE deleted = 0 AND container_id IS NOT NULL")
+    List<FleetSnapshot.Entry> selectFleetEntries();
+
+    /**
+     * 查询给定名称中已被占用的名称，包括逻辑删除的行（name唯一约束覆盖全部行）
+     */
+    @Select("<script>" +
+            "SELECT name FROM napcat_instance WHERE name IN " +
+            "<foreach collection='names' item='n' open='(' separator=',' close=')'>#{n}</foreach>" +
+            "</script>")
+    List<String> selectExistingNames(@Param("names") Collection<String> names);
+
+    /**
+     * 查询已逻辑删除的实例（绕过@TableLogic过滤，只取回收资源所需的列）
+     */
+    @Select("SELECT id, name, container_id FROM napcat_instance WHERE deleted = 1")
+    List<NapcatInstance> selectLogicallyDeleted();
+
+    /**
+     * 物理删除已逻辑删除的实例行
+     */
+    @Delete("DELETE FROM napcat_instance WHERE id = #{id} AND deleted = 1")
+    int purgeDeleted(@Param("id") String id);
+
+    /**
+     * 物理删除实例行（用于创建失败的补偿，不留下逻辑删除记录）
+     */
+    @Delete("DELETE FROM napcat_instance WHERE id = #{id}")
+    int deletePhysically(@Param("id") String id);
+}
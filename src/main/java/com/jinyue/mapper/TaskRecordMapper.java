@@ -0,0 +1,51 @@
+package com.jinyue.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.jinyue.entity.TaskRecord;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface TaskRecordMapper extends BaseMapper<TaskRecord> {
+
+    /**
+     * 单条语句批量写入多个任务的进度
+     * 已完成的任务由终态写入负责，延迟的进度不会覆盖终态
+     */
+    @Update("<script>" +
+            "UPDATE napcat_task AS t SET status = v.status, success_count = v.success_count, " +
+            "failed_count = v.failed_count, success_ids = v.success_ids, failed_operations = v.failed_operations, " +
+            "updated_time = v.updated_time " +
+            "FROM (VALUES " +
+            "<foreach collection='records' item='r' separator=','>" +
+            "(#{r.taskId}, #{r.status}, CAST(#{r.successCount} AS INTEGER), CAST(#{r.failedCount} AS INTEGER), " +
+            "#{r.successIds}, #{r.failedOperations}, CAST(#{r.updatedTime} AS TIMESTAMP))" +
+            "</foreach>" +
+            ") AS v(task_id, status, success_count, failed_count, success_ids, failed_operations, updated_time) " +
+            "WHERE t.task_id = v.task_id AND t.completed_time IS NULL" +
+            "</script>")
+    int batchUpdateProgress(@Param("records") List<TaskRecord> records);
+
+    /**
+     * 将指定节点未结束的任务标记为失败
+     * 任务只在创建它的进程内执行，该节点重启后仍为PENDING或RUNNING的任务已不会再有结果；
+     * 增加节点ID之前创建的任务没有节点ID，也一并结束
+     */
+    @Update("UPDATE napcat_task SET status = 'FAILED', error_message = #{reason}, " +
+            "completed_time = #{now}, updated_time = #{now} " +
+            "WHERE completed_time IS NULL AND status IN ('PENDING', 'RUNNING') " +
+            "AND (node_id = #{nodeId} OR node_id IS NULL)")
+    int failUnfinished(@Param("nodeId") String nodeId, @Param("reason") String reason,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * 删除创建时间早于指定时间的任务
+     */
+    @Delete("DELETE FROM napcat_task WHERE created_time < #{before}")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,96 @@
+package com.jinyue.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 记录连接占用时间的数据源代理
+ * 从getConnection到close为一次占用，按来源（HTTP请求线程或后台线程）记入 napcat.db.connection.hold，
+ * 请求线程上的占用同时计入RequestQueryStats。Hikari自带的hikaricp.connections.usage只有总体分布，
+ * 这里补充来源区分，并对超过阈值的占用打印线程名，便于定位在持有连接期间做Docker调用的代码路径
+ */
+@Slf4j
+public class ConnectionHoldTrackingDataSource extends DelegatingDataSource {
+
+    public static final String HOLD_TIMER = "napcat.db.connection.hold";
+
+    private final Timer requestHold;
+    private final Timer backgroundHold;
+    private final long warnNanos;
+
+    public ConnectionHoldTrackingDataSource(DataSource target, MeterRegistry meterRegistry, long warnMillis) {
+        super(target);
+        this.requestHold = holdTimer(meterRegistry, "request");
+        this.backgroundHold = holdTimer(meterRegistry, "background");
+        this.warnNanos = TimeUnit.MILLISECONDS.toNanos(warnMillis);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return track(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return track(super.getConnection(username, password));
+    }
+
+    private Connection track(Connection connection) {
+        long acquired = System.nanoTime();
+        boolean[] closed = {false};
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        case "close" -> {
+                            if (!closed[0]) {
+                                closed[0] = true;
+                                released(System.nanoTime() - acquired);
+                            }
+                        }
+                        default -> {
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private void released(long nanos) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            stats.recordConnectionHold(nanos);
+            requestHold.record(nanos, TimeUnit.NANOSECONDS);
+        } else {
+            backgroundHold.record(nanos, TimeUnit.NANOSECONDS);
+        }
+        if (nanos > warnNanos) {
+            log.warn("Connection held for {}ms on thread {}",
+                    TimeUnit.NANOSECONDS.toMillis(nanos), Thread.currentThread().getName());
+        }
+    }
+
+    private static Timer holdTimer(MeterRegistry meterRegistry, String origin) {
+        return Timer.builder(HOLD_TIMER)
+                .tag("origin", origin)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
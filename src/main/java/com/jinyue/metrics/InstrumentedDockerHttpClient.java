@@ -0,0 +1,134 @@
+package com.jinyue.metrics;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 带指标的Docker HTTP客户端
+ * 在传输层包装docker-java的每个请求，按命令类型计时（outcome: ok/notfound/notmodified/error）并统计进行中的调用数，
+ * 同步、异步和流式调用都经过这里。流式命令（logs/events等）只计到响应头返回为止
+ */
+public class InstrumentedDockerHttpClient implements DockerHttpClient {
+
+    public static final String COMMAND_TIMER = "napcat.docker.command";
+    public static final String INFLIGHT_GAUGE = "napcat.docker.inflight";
+
+    private static final Pattern VERSION_PREFIX = Pattern.compile("^/v\\d+\\.\\d+");
+    private static final Pattern CONTAINER_ACTION = Pattern.compile("^/containers/[^/]+/([a-z]+)$");
+    private static final Pattern CONTAINER = Pattern.compile("^/containers/[^/]+$");
+    private static final Pattern VOLUME = Pattern.compile("^/volumes/[^/]+$");
+    private static final Pattern IMAGE = Pattern.compile("^/images/.+/json$");
+
+    private final DockerHttpClient delegate;
+    private final MeterRegistry meterRegistry;
+    private final String host;
+    private final Map<String, AtomicInteger> inflight = new ConcurrentHashMap<>();
+
+    public InstrumentedDockerHttpClient(DockerHttpClient delegate, MeterRegistry meterRegistry, String host) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.host = host;
+    }
+
+    @Override
+    public Response execute(Request request) {
+        String command = command(request.method(), request.path());
+        AtomicInteger counter = inflight.computeIfAbsent(command, this::registerInflightGauge);
+
+        counter.incrementAndGet();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            Response response = delegate.execute(request);
+            outcome = outcome(response.getStatusCode());
+            return response;
+        } finally {
+            counter.decrementAndGet();
+            sample.stop(Timer.builder(COMMAND_TIMER)
+                    .description("Docker Engine API调用耗时")
+                    .tag("command", command)
+                    .tag("outcome", outcome)
+                    .tag("host", host)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    private AtomicInteger registerInflightGauge(String command) {
+        AtomicInteger counter = new AtomicInteger();
+        Gauge.builder(INFLIGHT_GAUGE, counter, AtomicInteger::get)
+                .description("进行中的Docker Engine API调用数")
+                .tag("command", command)
+                .tag("host", host)
+                .register(meterRegistry);
+        return counter;
+    }
+
+    private static String outcome(int statusCode) {
+        if (statusCode == 304) {
+            return "notmodified";
+        }
+        if (statusCode == 404) {
+            return "notfound";
+        }
+        return statusCode >= 200 && statusCode < 300 ? "ok" : "error";
+    }
+
+    /**
+     * 将请求归类为有限的命令类型，避免容器ID等进入标签
+     */
+    static String command(String method, String rawPath) {
+        int query = rawPath.indexOf('?');
+        String path = VERSION_PREFIX.matcher(query >= 0 ? rawPath.substring(0, query) : rawPath).replaceFirst("");
+
+        switch (path) {
+            case "/_ping":
+                return "ping";
+            case "/events":
+                return "events";
+            case "/containers/create":
+                return "container.create";
+            case "/containers/json":
+                return "container.list";
+            case "/images/create":
+                return "image.pull";
+            case "/volumes":
+                return "volume.list";
+            default:
+                break;
+        }
+
+        Matcher action = CONTAINER_ACTION.matcher(path);
+        if (action.matches()) {
+            return switch (action.group(1)) {
+                case "json" -> "container.inspect";
+                case "archive" -> "PUT".equals(method) ? "container.archive.put" : "container.archive.get";
+                default -> "container." + action.group(1);
+            };
+        }
+        if (CONTAINER.matcher(path).matches() && "DELETE".equals(method)) {
+            return "container.remove";
+        }
+        if (VOLUME.matcher(path).matches()) {
+            return "DELETE".equals(method) ? "volume.remove" : "volume.inspect";
+        }
+        if (IMAGE.matcher(path).matches()) {
+            return "image.inspect";
+        }
+        return "other";
+    }
+}
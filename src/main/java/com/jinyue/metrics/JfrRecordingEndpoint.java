@@ -0,0 +1,199 @@
+package com.jinyue.metrics;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * JFR录制端点 /actuator/jfr
+ * GET查看录制状态，POST开始一次有界录制（时长和大小不超过配置上限，到时自动停止并写入文件），
+ * DELETE提前停止，GET /actuator/jfr/{file}下载已停止录制的文件。
+ * 同一时间只保留一个录制，开始新录制会删除上一个文件；自定义事件见com.jinyue.*（Napcat分类）
+ */
+@Slf4j
+@Component
+@Endpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+
+    private static final int STATUS_CONFLICT = 409;
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Recording recording;
+    private Path file;
+
+    @Value("${napcat.jfr.settings:default}")
+    private String settings;
+
+    @Value("${napcat.jfr.max-duration-seconds:900}")
+    private long maxDurationSeconds;
+
+    @Value("${napcat.jfr.max-size-mb:256}")
+    private long maxSizeMb;
+
+    @Value("${napcat.jfr.directory:${java.io.tmpdir}}")
+    private String directory;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        lock.lock();
+        try {
+            return describe();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 开始录制
+     * @param durationSeconds 录制时长（秒），缺省或超过上限时取上限
+     * @param maxSizeMb 录制文件大小上限（MB），缺省或超过上限时取上限
+     */
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> start(@Nullable Long durationSeconds, @Nullable Long maxSizeMb) {
+        lock.lock();
+        try {
+            if (recording != null && recording.getState() == RecordingState.RUNNING) {
+                return new WebEndpointResponse<>(describe(), STATUS_CONFLICT);
+            }
+            discard();
+
+            long duration = bounded(durationSeconds, maxDurationSeconds);
+            long sizeMb = bounded(maxSizeMb, this.maxSizeMb);
+            Path destination = Path.of(directory, "napcat-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+
+            Recording started = new Recording(Configuration.getConfiguration(settings));
+            started.setName(destination.getFileName().toString());
+            started.setToDisk(true);
+            started.setDuration(Duration.ofSeconds(duration));
+            started.setMaxSize(sizeMb * 1024 * 1024);
+            started.setDestination(destination);
+            started.start();
+
+            recording = started;
+            file = destination;
+            log.info("JFR recording started: {} ({}s, {}MB max, settings={})", destination, duration, sizeMb, settings);
+            return new WebEndpointResponse<>(describe(), WebEndpointResponse.STATUS_OK);
+        } catch (Exception e) {
+            log.error("Failed to start JFR recording: {}", e.getMessage());
+            return new WebEndpointResponse<>(Map.of("error", String.valueOf(e.getMessage())),
+                    WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 提前停止录制，录制内容写入文件后可下载
+     */
+    @DeleteOperation
+    public Map<String, Object> stop() {
+        lock.lock();
+        try {
+            if (recording != null && recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+                log.info("JFR recording stopped: {}", file);
+            }
+            return describe();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 下载录制文件，文件名取自状态中的file字段；录制进行中时返回409
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> download(@Selector String name) {
+        lock.lock();
+        try {
+            if (recording == null || !file.getFileName().toString().equals(name)) {
+                return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+            }
+            if (recording.getState() != RecordingState.STOPPED || !Files.exists(file)) {
+                return new WebEndpointResponse<>(STATUS_CONFLICT);
+            }
+            return new WebEndpointResponse<>(new FileSystemResource(file), WebEndpointResponse.STATUS_OK);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lock.lock();
+        try {
+            if (recording != null) {
+                recording.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<String, Object> describe() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState().name());
+        status.put("file", file.getFileName().toString());
+        status.put("startTime", recording.getStartTime());
+        status.put("stopTime", recording.getStopTime());
+        status.put("durationSeconds", recording.getDuration() != null ? recording.getDuration().toSeconds() : null);
+        status.put("maxSizeBytes", recording.getMaxSize());
+        if (recording.getState() == RecordingState.STOPPED) {
+            try {
+                status.put("sizeBytes", Files.size(file));
+            } catch (IOException e) {
+                status.put("sizeBytes", null);
+            }
+        }
+        return status;
+    }
+
+    /**
+     * 关闭上一个录制并删除其文件
+     */
+    private void discard() {
+        if (recording == null) {
+            return;
+        }
+        recording.close();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete previous JFR recording {}: {}", file, e.getMessage());
+        }
+        recording = null;
+        file = null;
+    }
+
+    private static long bounded(Long requested, long limit) {
+        return requested == null || requested <= 0 ? limit : Math.min(requested, limit);
+    }
+}
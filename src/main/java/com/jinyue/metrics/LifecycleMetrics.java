@@ -0,0 +1,162 @@
+package com.jinyue.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * 实例生命周期步骤指标
+ * 生命周期操作拆分为若干短数据库步骤和Docker步骤，分别计时，
+ * 与Hikari自带的hikaricp.connections.usage（连接占用时间）对照即可看出数据库连接不再被Docker调用占用。
+ * 在trace/within范围内记录的步骤耗时同时累加到当前线程的LifecycleOperationEvent，供JFR录制按实例查看
+ */
+@Component
+@RequiredArgsConstructor
+public class LifecycleMetrics {
+
+    public static final String STEP_TIMER = "napcat.lifecycle.step";
+    public static final String COMPENSATION_COUNTER = "napcat.lifecycle.compensation";
+
+    private static final ThreadLocal<LifecycleOperationEvent> CURRENT_EVENT = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 以JFR事件包裹一次同步的生命周期操作
+     * 嵌套调用（如重启内的停止和启动）各自产生事件，耗时同时计入外层事件
+     */
+    public void trace(String instanceId, String operation, Runnable action) {
+        trace(instanceId, operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * 同trace，返回操作的结果
+     */
+    public <T> T trace(String instanceId, String operation, Supplier<T> action) {
+        LifecycleOperationEvent parent = CURRENT_EVENT.get();
+        LifecycleOperationEvent event = begin(instanceId, operation);
+        boolean success = false;
+        try {
+            T result = within(event, action);
+            success = true;
+            return result;
+        } finally {
+            finish(event, success);
+            if (parent != null) {
+                parent.addChild(event);
+            }
+        }
+    }
+
+    /**
+     * 开始一次跨线程的生命周期操作事件，各阶段通过within绑定，结束时调用finish
+     */
+    public LifecycleOperationEvent begin(String instanceId, String operation) {
+        LifecycleOperationEvent event = new LifecycleOperationEvent(instanceId, operation);
+        event.begin();
+        return event;
+    }
+
+    /**
+     * 在当前线程上绑定事件执行一个阶段，阶段内记录的步骤耗时计入该事件
+     */
+    public <T> T within(LifecycleOperationEvent event, Supplier<T> stage) {
+        LifecycleOperationEvent previous = CURRENT_EVENT.get();
+        CURRENT_EVENT.set(event);
+        try {
+            return stage.get();
+        } finally {
+            if (previous != null) {
+                CURRENT_EVENT.set(previous);
+            } else {
+                CURRENT_EVENT.remove();
+            }
+        }
+    }
+
+    public void finish(LifecycleOperationEvent event, boolean success) {
+        event.complete(success);
+    }
+
+    public <T> T recordDb(String operation, Supplier<T> step) {
+        return record(operation, "db", step);
+    }
+
+    public void recordDb(String operation, Runnable step) {
+        record(operation, "db", () -> {
+            step.run();
+            return null;
+        });
+    }
+
+    public <T> T recordDocker(String operation, Supplier<T> step) {
+        return record(operation, "docker", step);
+    }
+
+    public void recordDocker(String operation, Runnable step) {
+        record(operation, "docker", () -> {
+            step.run();
+            return null;
+        });
+    }
+
+    /**
+     * 记录异步Docker步骤，计时到future完成为止
+     */
+    public <T> CompletableFuture<T> recordDockerAsync(String operation, Supplier<CompletableFuture<T>> step) {
+        LifecycleOperationEvent event = CURRENT_EVENT.get();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return step.get().whenComplete((result, error) -> {
+            long nanos = sample.stop(Timer.builder(STEP_TIMER)
+                    .tag("operation", operation)
+                    .tag("step", "docker")
+                    .tag("outcome", error == null ? "ok" : "error")
+                    .register(meterRegistry));
+            if (event != null) {
+                event.addStepTime("docker", nanos);
+            }
+        });
+    }
+
+    /**
+     * 记录一次补偿动作
+     * @param operation 生命周期操作
+     * @param action 补偿动作，如remove-container
+     */
+    public void compensated(String operation, String action) {
+        Counter.builder(COMPENSATION_COUNTER)
+                .tag("operation", operation)
+                .tag("action", action)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private <T> T record(String operation, String kind, Supplier<T> step) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "ok";
+        try {
+            return step.get();
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            long nanos = sample.stop(Timer.builder(STEP_TIMER)
+                    .tag("operation", operation)
+                    .tag("step", kind)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+            LifecycleOperationEvent event = CURRENT_EVENT.get();
+            if (event != null) {
+                event.addStepTime(kind, nanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.jinyue.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 实例生命周期操作的JFR事件
+ * 事件持续时间为整个操作耗时，dockerTime/dbTime为其中Docker调用和数据库步骤的累计耗时，
+ * 由LifecycleMetrics在记录步骤时累加；嵌套操作（重启中的停止、启动）的耗时同时计入外层事件
+ */
+@Name("com.jinyue.LifecycleOperation")
+@Label("Instance Lifecycle Operation")
+@Category({"Napcat", "Lifecycle"})
+@Description("实例的创建、启动、停止、删除操作")
+public class LifecycleOperationEvent extends jdk.jfr.Event {
+
+    @Label("Instance ID")
+    String instanceId;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Docker Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long dockerTime;
+
+    @Label("DB Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long dbTime;
+
+    @Label("Success")
+    boolean success;
+
+    // transient字段不作为事件字段记录
+    private final transient ReentrantLock lock = new ReentrantLock();
+
+    LifecycleOperationEvent(String instanceId, String operation) {
+        this.instanceId = instanceId;
+        this.operation = operation;
+    }
+
+    /**
+     * 创建流水线的各阶段在不同线程上累加，但阶段之间串行，加锁只为保证可见性
+     */
+    void addStepTime(String kind, long nanos) {
+        lock.lock();
+        try {
+            if ("docker".equals(kind)) {
+                dockerTime += nanos;
+            } else {
+                dbTime += nanos;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void addChild(LifecycleOperationEvent child) {
+        long childDockerTime;
+        long childDbTime;
+        child.lock.lock();
+        try {
+            childDockerTime = child.dockerTime;
+            childDbTime = child.dbTime;
+        } finally {
+            child.lock.unlock();
+        }
+        lock.lock();
+        try {
+            dockerTime += childDockerTime;
+            dbTime += childDbTime;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void complete(boolean success) {
+        lock.lock();
+        try {
+            this.success = success;
+            end();
+            if (shouldCommit()) {
+                commit();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.jinyue.metrics;
+
+import com.jinyue.config.AsyncConfig;
+import com.jinyue.entity.LifecycleOperation;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 实例操作并发度控制
+ * 记录每个实例操作的耗时和结果；自适应模式下按窗口统计平均耗时和错误率做AIMD调整：
+ * Docker变慢或出错时按比例收缩操作线程池的核心线程数，线程池饱和且指标正常时逐个增加，
+ * 并发度限定在[min-concurrency, max-pool-size]之间
+ */
+@Slf4j
+@Component
+public class OperationConcurrencyController {
+
+    public static final String DURATION_TIMER = AsyncConfig.OPERATION_EXECUTOR_METRIC + ".duration";
+
+    private static final String[] OUTCOMES = {"success", "error", "rejected"};
+
+    private final ThreadPoolTaskExecutor operationExecutor;
+    private final MeterRegistry meterRegistry;
+    // 按“操作/结果”预先注册的计时器，记录时不再经过注册表查找
+    private final Map<String, Timer> durationTimers = new ConcurrentHashMap<>();
+
+    private final LongAdder windowCompleted = new LongAdder();
+    private final LongAdder windowErrors = new LongAdder();
+    private final LongAdder windowLatencyNanos = new LongAdder();
+
+    @Value("${async.operation.adaptive.enabled:false}")
+    private boolean adaptiveEnabled;
+
+    @Value("${async.operation.adaptive.min-concurrency:2}")
+    private int minConcurrency;
+
+    @Value("${async.operation.adaptive.target-latency-ms:20000}")
+    private long targetLatencyMs;
+
+    @Value("${async.operation.adaptive.max-error-rate:0.2}")
+    private double maxErrorRate;
+
+    @Value("${async.operation.adaptive.min-samples:5}")
+    private int minSamples;
+
+    @Value("${async.operation.adaptive.decrease-factor:0.75}")
+    private double decreaseFactor;
+
+    public OperationConcurrencyController(@Qualifier("operationExecutor") ThreadPoolTaskExecutor operationExecutor,
+                                          MeterRegistry meterRegistry) {
+        this.operationExecutor = operationExecutor;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder(AsyncConfig.OPERATION_EXECUTOR_METRIC + ".concurrency.limit", operationExecutor,
+                        ThreadPoolTaskExecutor::getCorePoolSize)
+                .description("当前允许同时执行的实例操作数")
+                .register(meterRegistry);
+        for (LifecycleOperation operation : LifecycleOperation.values()) {
+            for (String outcome : OUTCOMES) {
+                durationTimers.put(timerKey(operation.name(), outcome), durationTimer(operation.name(), outcome));
+            }
+        }
+    }
+
+    /**
+     * 记录一次实例操作
+     * @param operation 操作类型
+     * @param nanos 耗时
+     * @param success 是否成功
+     * @param dockerError 失败是否来自Docker/执行过程（状态冲突等业务拒绝不计入错误率）
+     */
+    public void record(String operation, long nanos, boolean success, boolean dockerError) {
+        String outcome = success ? "success" : (dockerError ? "error" : "rejected");
+        // 未预先注册的操作类型只在首次出现时注册一次
+        durationTimers.computeIfAbsent(timerKey(operation, outcome), key -> durationTimer(operation, outcome))
+                .record(nanos, TimeUnit.NANOSECONDS);
+
+        windowCompleted.increment();
+        windowLatencyNanos.add(nanos);
+        if (dockerError) {
+            windowErrors.increment();
+        }
+    }
+
+    private Timer durationTimer(String operation, String outcome) {
+        return Timer.builder(DURATION_TIMER)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static String timerKey(String operation, String outcome) {
+        return operation + "/" + outcome;
+    }
+
+    public int currentLimit() {
+        return operationExecutor.getCorePoolSize();
+    }
+
+    @Scheduled(fixedDelayString = "${async.operation.adaptive.window-ms:10000}")
+    public void adjust() {
+        long completed = windowCompleted.sumThenReset();
+        long errors = windowErrors.sumThenReset();
+        long latencyNanos = windowLatencyNanos.sumThenReset();
+        if (!adaptiveEnabled) {
+            return;
+        }
+
+        int limit = currentLimit();
+        int maxLimit = operationExecutor.getMaxPoolSize();
+        int floor = Math.max(1, Math.min(minConcurrency, maxLimit));
+        boolean saturated = operationExecutor.getActiveCount() >= limit
+                && operationExecutor.getThreadPoolExecutor().getQueue().size() > 0;
+
+        int newLimit = limit;
+        if (completed >= minSamples) {
+            double errorRate = (double) errors / completed;
+            long avgLatencyMs = TimeUnit.NANOSECONDS.toMillis(latencyNanos / completed);
+            if (errorRate > maxErrorRate || avgLatencyMs > targetLatencyMs) {
+                newLimit = Math.max(floor, (int) Math.floor(limit * decreaseFactor));
+                if (newLimit != limit) {
+                    log.warn("Decreasing operation concurrency {} -> {} (avg latency {}ms, error rate {})",
+                            limit, newLimit, avgLatencyMs, String.format("%.2f", errorRate));
+                }
+            } else if (saturated) {
+                newLimit = Math.min(maxLimit, limit + 1);
+            }
+        } else if (saturated && completed > 0 && errors == 0) {
+            newLimit = Math.min(maxLimit, limit + 1);
+        }
+
+        if (newLimit != limit) {
+            operationExecutor.setCorePoolSize(newLimit);
+            log.info("Operation concurrency adjusted {} -> {} ({} ops, {} errors in window)",
+                    limit, newLimit, completed, errors);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.jinyue.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每个HTTP请求的数据库查询预算
+ * 请求线程上执行的SQL条数记入 napcat.http.queries，连接占用总时间记入 napcat.http.connection.hold（按method/uri），
+ * 超过napcat.db.query-budget时计数 napcat.http.query-budget.exceeded 并打印警告。
+ * SSE等异步请求在请求线程返回时尚未结束，不做统计；actuator请求不统计
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    public static final String QUERIES_SUMMARY = "napcat.http.queries";
+    public static final String CONNECTION_HOLD_TIMER = "napcat.http.connection.hold";
+    public static final String EXCEEDED_COUNTER = "napcat.http.query-budget.exceeded";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${napcat.db.query-budget:20}")
+    private int queryBudget;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestQueryStats stats = RequestQueryStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestQueryStats.end();
+            if (!request.isAsyncStarted()) {
+                record(request, stats);
+            }
+        }
+    }
+
+    public int getQueryBudget() {
+        return queryBudget;
+    }
+
+    private void record(HttpServletRequest request, RequestQueryStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "unknown";
+        String method = request.getMethod();
+
+        DistributionSummary.builder(QUERIES_SUMMARY)
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getQueries());
+        Timer.builder(CONNECTION_HOLD_TIMER)
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getConnectionHoldNanos(), TimeUnit.NANOSECONDS);
+
+        if (stats.getQueries() > queryBudget) {
+            Counter.builder(EXCEEDED_COUNTER)
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("Query budget exceeded: {} {} ran {} queries (budget {}), {} rows, query time {}ms, connections held {}ms",
+                    method, request.getRequestURI(), stats.getQueries(), queryBudget, stats.getRows(),
+                    TimeUnit.NANOSECONDS.toMillis(stats.getQueryNanos()),
+                    TimeUnit.NANOSECONDS.toMillis(stats.getConnectionHoldNanos()));
+        }
+    }
+}
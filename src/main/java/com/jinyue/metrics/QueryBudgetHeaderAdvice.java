@@ -0,0 +1,54 @@
+package com.jinyue.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在响应体写出前附加查询统计响应头
+ * 超出查询预算时总是附加X-Query-Budget-Exceeded（实际条数/预算）；
+ * 开启napcat.db.debug-header时附加X-Query-Count和X-Connection-Hold-Ms。
+ * 写响应体时控制器已执行完毕，统计值即为请求线程上的全部数据库访问
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+public class QueryBudgetHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    private final QueryBudgetFilter queryBudgetFilter;
+
+    @Value("${napcat.db.debug-header:false}")
+    private boolean debugHeader;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats == null) {
+            return body;
+        }
+        int budget = queryBudgetFilter.getQueryBudget();
+        if (stats.getQueries() > budget) {
+            response.getHeaders().set("X-Query-Budget-Exceeded", stats.getQueries() + "/" + budget);
+        }
+        if (debugHeader) {
+            response.getHeaders().set("X-Query-Count", String.valueOf(stats.getQueries()));
+            response.getHeaders().set("X-Connection-Hold-Ms",
+                    String.valueOf(TimeUnit.NANOSECONDS.toMillis(stats.getConnectionHoldNanos())));
+        }
+        return body;
+    }
+}
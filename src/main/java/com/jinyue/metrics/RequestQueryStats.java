@@ -0,0 +1,68 @@
+package com.jinyue.metrics;
+
+/**
+ * 单个HTTP请求在请求线程上的数据库访问统计
+ * 由QueryBudgetFilter在请求开始时绑定到当前线程，语句拦截器和连接代理累加，请求结束时解绑；
+ * 异步执行器上的访问不属于任何请求，不计入
+ */
+public final class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private int queries;
+    private long rows;
+    private long queryNanos;
+    private long connectionHoldNanos;
+    private int connections;
+
+    private RequestQueryStats() {
+    }
+
+    static RequestQueryStats begin() {
+        RequestQueryStats stats = new RequestQueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 当前线程绑定的统计，不在请求线程上时返回null
+     */
+    public static RequestQueryStats current() {
+        return CURRENT.get();
+    }
+
+    void recordStatement(long nanos, long rowCount) {
+        queries++;
+        queryNanos += nanos;
+        rows += Math.max(0, rowCount);
+    }
+
+    void recordConnectionHold(long nanos) {
+        connections++;
+        connectionHoldNanos += nanos;
+    }
+
+    public int getQueries() {
+        return queries;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getQueryNanos() {
+        return queryNanos;
+    }
+
+    public long getConnectionHoldNanos() {
+        return connectionHoldNanos;
+    }
+
+    public int getConnections() {
+        return connections;
+    }
+}
@@ -0,0 +1,84 @@
+package com.jinyue.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 启动耗时预算报告
+ * 应用就绪时输出启动总耗时和自身耗时（扣除子步骤）最长的若干启动步骤，超出napcat.startup.budget-ms时以警告输出。
+ * 需要以BufferingApplicationStartup启动（见XxfInstanceManagerApplication），完整时间线见/actuator/startup
+ */
+@Slf4j
+@Component
+public class StartupReport {
+
+    @Value("${napcat.startup.budget-ms:10000}")
+    private long budgetMs;
+
+    @Value("${napcat.startup.report-top:10}")
+    private int reportTop;
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        Duration timeTaken = event.getTimeTaken();
+        if (!(event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup startup)) {
+            log.info("Application ready in {}ms (startup steps not recorded)", timeTaken.toMillis());
+            return;
+        }
+
+        List<StartupTimeline.TimelineEvent> events = startup.getBufferedTimeline().getEvents();
+        Map<Long, Duration> childDurations = new HashMap<>();
+        for (StartupTimeline.TimelineEvent timelineEvent : events) {
+            Long parentId = timelineEvent.getStartupStep().getParentId();
+            if (parentId != null) {
+                childDurations.merge(parentId, timelineEvent.getDuration(), Duration::plus);
+            }
+        }
+
+        String slowest = events.stream()
+                .map(timelineEvent -> new StepTime(describe(timelineEvent.getStartupStep()),
+                        timelineEvent.getDuration().minus(childDurations.getOrDefault(
+                                timelineEvent.getStartupStep().getId(), Duration.ZERO))))
+                .sorted(Comparator.comparing(StepTime::self).reversed())
+                .limit(reportTop)
+                .map(step -> String.format("  %6dms  %s", step.self().toMillis(), step.name()))
+                .collect(Collectors.joining("\n"));
+
+        if (timeTaken != null && timeTaken.toMillis() > budgetMs) {
+            log.warn("Application ready in {}ms, over startup budget of {}ms. Slowest steps (self time):\n{}",
+                    timeTaken.toMillis(), budgetMs, slowest);
+        } else {
+            log.info("Application ready in {}ms (budget {}ms). Slowest steps (self time):\n{}",
+                    timeTaken != null ? timeTaken.toMillis() : -1, budgetMs, slowest);
+        }
+    }
+
+    /**
+     * 步骤名加上标签，如spring.beans.instantiate[beanName=dockerClient]
+     */
+    private static String describe(StartupStep step) {
+        StringBuilder name = new StringBuilder(step.getName());
+        boolean first = true;
+        for (StartupStep.Tag tag : step.getTags()) {
+            name.append(first ? '[' : ',').append(tag.getKey()).append('=').append(tag.getValue());
+            first = false;
+        }
+        return first ? name.toString() : name.append(']').toString();
+    }
+
+    private record StepTime(String name, Duration self) {
+    }
+}
@@ -0,0 +1,117 @@
+package com.jinyue.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.executor.statement.RoutingStatementHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按Mapper语句记录SQL耗时和行数
+ * 拦截StatementHandler而不是Executor：分页插件的count查询也是一次往返，需要单独计入。
+ * 指标 napcat.db.statement（耗时，按statement/outcome）和 napcat.db.statement.rows（查询返回行数或更新影响行数）；
+ * 在请求线程上执行的语句同时计入RequestQueryStats。
+ * 批量执行（saveBatch）的JDBC往返发生在flush时，不经过这里
+ */
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class})
+})
+public class StatementMetricsInterceptor implements Interceptor {
+
+    public static final String STATEMENT_TIMER = "napcat.db.statement";
+    public static final String ROWS_SUMMARY = "napcat.db.statement.rows";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, StatementMeters> meters = new ConcurrentHashMap<>();
+
+    public StatementMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        String statement = statementId(invocation.getTarget());
+        long start = System.nanoTime();
+        boolean success = false;
+        long rows = 0;
+        try {
+            Object result = invocation.proceed();
+            rows = rowCount(result);
+            success = true;
+            return result;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            StatementMeters statementMeters = meters.computeIfAbsent(statement, this::register);
+            (success ? statementMeters.ok : statementMeters.error).record(nanos, TimeUnit.NANOSECONDS);
+            if (success) {
+                statementMeters.rows.record(rows);
+            }
+            RequestQueryStats stats = RequestQueryStats.current();
+            if (stats != null) {
+                stats.recordStatement(nanos, rows);
+            }
+        }
+    }
+
+    private StatementMeters register(String statement) {
+        return new StatementMeters(
+                timer(statement, "ok"),
+                timer(statement, "error"),
+                DistributionSummary.builder(ROWS_SUMMARY)
+                        .tag("statement", statement)
+                        .register(meterRegistry));
+    }
+
+    private Timer timer(String statement, String outcome) {
+        return Timer.builder(STATEMENT_TIMER)
+                .tag("statement", statement)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Mapper语句ID去掉包名，如NapcatInstanceMapper.selectList
+     */
+    private static String statementId(Object target) {
+        if (!(target instanceof RoutingStatementHandler)) {
+            return "unknown";
+        }
+        MetaObject metaObject = SystemMetaObject.forObject(target);
+        Object mappedStatement = metaObject.getValue("delegate.mappedStatement");
+        if (!(mappedStatement instanceof MappedStatement ms)) {
+            return "unknown";
+        }
+        String id = ms.getId();
+        int method = id.lastIndexOf('.');
+        int type = method > 0 ? id.lastIndexOf('.', method - 1) : -1;
+        return type >= 0 ? id.substring(type + 1) : id;
+    }
+
+    private static long rowCount(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Number number) {
+            return number.longValue();
+        }
+        return 0;
+    }
+
+    private record StatementMeters(Timer ok, Timer error, DistributionSummary rows) {
+    }
+}
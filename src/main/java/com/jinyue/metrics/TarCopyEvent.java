@@ -0,0 +1,39 @@
+package com.jinyue.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 容器文件复制（tar归档读写与Docker传输）的JFR事件
+ */
+@Name("com.jinyue.TarCopy")
+@Label("Container Tar Copy")
+@Category({"Napcat", "Docker"})
+@Description("向容器复制或从容器读取单个文件")
+public class TarCopyEvent extends jdk.jfr.Event {
+
+    public static final String TO_CONTAINER = "to-container";
+    public static final String FROM_CONTAINER = "from-container";
+
+    @Label("Direction")
+    public String direction;
+
+    @Label("Container ID")
+    public String containerId;
+
+    @Label("Path")
+    public String path;
+
+    /**
+     * tar归档字节数：写入时为打包后的归档大小，读取时为从Docker归档流实际读取的字节数
+     */
+    @Label("Archive Size")
+    @DataAmount
+    public long archiveBytes;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,34 @@
+package com.jinyue.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 批量任务执行的JFR事件，持续时间从任务开始执行到结束（完成、失败、超时或取消）
+ */
+@Name("com.jinyue.TaskExecution")
+@Label("Task Execution")
+@Category({"Napcat", "Task"})
+@Description("批量实例操作任务的一次执行")
+public class TaskExecutionEvent extends jdk.jfr.Event {
+
+    @Label("Task ID")
+    public String taskId;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Instance Count")
+    public int instanceCount;
+
+    @Label("Success Count")
+    public int successCount;
+
+    @Label("Failed Count")
+    public int failedCount;
+
+    @Label("Status")
+    public String status;
+}
@@ -0,0 +1,37 @@
+package com.jinyue.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Webhook消息从接入到转发完成的JFR事件
+ * 持续时间为接入到转发结束的总耗时，lookupTime为按QQ号查询实例的耗时，其余主要是转发请求
+ */
+@Name("com.jinyue.WebhookForward")
+@Label("Webhook Ingest To Forward")
+@Category({"Napcat", "Webhook"})
+@Description("一条webhook消息的接入与转发")
+public class WebhookForwardEvent extends jdk.jfr.Event {
+
+    @Label("Self ID")
+    public String selfId;
+
+    @Label("Message Type")
+    public String messageType;
+
+    @Label("Message ID")
+    public String messageId;
+
+    @Label("Lookup Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long lookupTime;
+
+    @Label("Forwarded")
+    public boolean forwarded;
+
+    @Label("Outcome")
+    public String outcome;
+}
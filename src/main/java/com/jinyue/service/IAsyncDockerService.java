@@ -0,0 +1,54 @@
+package com.jinyue.service;
+
+import com.jinyue.dto.NapcatConfig;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Docker操作的异步接口
+ * 调用方只组合返回的CompletableFuture，不在等待Docker响应时占用自己的线程；
+ * 阻塞的Docker调用集中在有界的Docker I/O线程池中执行，线程池大小即对守护进程的并发上限
+ */
+public interface IAsyncDockerService {
+
+    /**
+     * 异步创建容器
+     * @return 容器ID
+     */
+    CompletableFuture<String> createContainerAsync(String instanceName, NapcatConfig config, int port);
+
+    /**
+     * 异步启动容器
+     */
+    CompletableFuture<Void> startContainerAsync(String containerId);
+
+    /**
+     * 异步停止容器
+     */
+    CompletableFuture<Void> stopContainerAsync(String containerId);
+
+    /**
+     * 异步删除容器
+     */
+    CompletableFuture<Void> removeContainerAsync(String containerId);
+
+    /**
+     * 异步查询容器状态
+     */
+    CompletableFuture<IDockerService.ContainerStatus> inspectAsync(String containerId);
+
+    /**
+     * 异步复制文件到容器
+     */
+    CompletableFuture<Void> copyFileToContainerAsync(String containerId, String fileContent, String containerPath);
+
+    /**
+     * 就绪探测：按固定间隔查询容器状态，直到RUNNING时完成；
+     * 容器退出或不存在时以异常完成，超时以TimeoutException完成。两次探测之间不占用任何线程
+     * @param containerId 容器ID
+     * @param timeout 最长等待时间
+     * @return 最后一次探测到的状态
+     */
+    CompletableFuture<IDockerService.ContainerStatus> awaitRunningAsync(String containerId, Duration timeout);
+}
@@ -1,6 +1,10 @@
 package com.jinyue.service;
 
+import com.jinyue.dto.CreateMultiInstanceRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
 import java.util.List;
+import java.util.Map;
 
 public interface IAsyncOperationService {
 
@@ -23,4 +27,20 @@ public interface IAsyncOperationService {
      * 异步执行删除操作
      */
     void executeDeleteOperationsAsync(String taskId, List<String> instanceIds);
-}
\ No newline at end of file
+
+    /**
+     * 异步批量创建实例，通过SSE逐个推送实例结果，最后推送汇总
+     */
+    void executeCreateStreamAsync(CreateMultiInstanceRequest request, SseEmitter emitter);
+
+    /**
+     * 取消任务：未开始的实例操作直接跳过，执行中的操作放弃等待，均按失败记录
+     * @return 任务不存在或已结束时返回false
+     */
+    boolean cancelTask(String taskId);
+
+    /**
+     * 各实例上排队中的操作数（含正在执行的），只返回有操作的实例
+     */
+    Map<String, Integer> getOperationQueueDepths();
+}
@@ -0,0 +1,27 @@
+package com.jinyue.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+/**
+ * 容器日志服务接口
+ * 每个容器共享一个日志跟随器，向多个查看者广播，并在内存中保留最近的日志
+ */
+public interface IContainerLogService {
+
+    /**
+     * 打开实例日志流
+     * @param instanceId 实例ID
+     * @param follow 是否持续跟随新日志
+     * @param tail 先回放的历史行数
+     * @return SSE发射器
+     */
+    SseEmitter openLogStream(String instanceId, boolean follow, int tail);
+
+    /**
+     * 获取当前活跃的日志跟随器（容器ID -> 查看者数量）
+     * @return 跟随器统计
+     */
+    Map<String, Integer> getActiveFollowers();
+}
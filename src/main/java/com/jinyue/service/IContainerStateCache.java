@@ -0,0 +1,27 @@
+package com.jinyue.service;
+
+import com.jinyue.dto.ContainerStateSnapshot;
+
+/**
+ * 容器状态缓存接口
+ * 后台定时以一次容器列表调用刷新全部托管容器的状态，请求路径只读快照，不访问Docker
+ */
+public interface IContainerStateCache {
+
+    /**
+     * 获取最近一次刷新的快照
+     * @return 快照；从未刷新成功或已超过最大有效期时返回null
+     */
+    ContainerStateSnapshot snapshot();
+
+    /**
+     * 立即刷新一次
+     */
+    void refresh();
+
+    /**
+     * 以外部得到的快照（如重启后由本地快照文件和Docker事件恢复的状态）预置缓存，
+     * 只在比当前快照更新时替换
+     */
+    void seed(ContainerStateSnapshot snapshot);
+}
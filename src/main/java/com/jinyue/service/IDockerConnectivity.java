@@ -0,0 +1,33 @@
+package com.jinyue.service;
+
+/**
+ * Docker连通性接口
+ * Docker客户端按需连接，后台定时探测守护进程是否可达；不可达期间进入降级模式：
+ * 读操作使用数据库和容器状态缓存，写操作快速失败，恢复后自动退出降级
+ */
+public interface IDockerConnectivity {
+
+    /**
+     * Docker是否可用；首次探测完成前视为可用
+     */
+    boolean isAvailable();
+
+    /**
+     * 不可用时抛出DockerUnavailableException
+     */
+    void requireAvailable();
+
+    /**
+     * 立即探测一次
+     * @return 探测后是否可用
+     */
+    boolean check();
+
+    /**
+     * 连通性变化事件，首次探测成功和每次状态切换时发布
+     * @param available 是否可用
+     * @param error 不可用时的错误信息
+     */
+    record ConnectivityChanged(boolean available, String error) {
+    }
+}
@@ -1,8 +1,13 @@
 package com.jinyue.service;
 
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.command.InspectVolumeResponse;
 import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.api.model.Frame;
 
 import com.jinyue.dto.NapcatConfig;
+import com.jinyue.entity.NapcatInstance;
 
 import java.util.List;
 
@@ -55,6 +60,26 @@ public interface IDockerService {
      */
     List<Container> listNapcatContainers();
 
+    /**
+     * 读取时间区间内托管容器的事件，按发生顺序返回
+     * @param sinceEpochSeconds 起始时间（Unix秒）
+     * @param untilEpochSeconds 结束时间（Unix秒），读到该时间后结束
+     * @return 容器事件列表
+     */
+    List<Event> listContainerEvents(long sinceEpochSeconds, long untilEpochSeconds);
+
+    /**
+     * 列出所有Napcat数据卷（napcat-data-*）
+     * @return 数据卷列表
+     */
+    List<InspectVolumeResponse> listNapcatVolumes();
+
+    /**
+     * 删除数据卷
+     * @param volumeName 数据卷名称
+     */
+    void removeVolume(String volumeName);
+
     /**
      * 获取实例数据目录路径
      * @param instanceName 实例名称
@@ -78,6 +103,16 @@ public interface IDockerService {
      */
     void copyFileToContainer(String containerId, String fileContent, String containerPath);
 
+    /**
+     * 订阅容器日志（异步回调）
+     * @param containerId 容器ID
+     * @param tail 回放最近的日志行数
+     * @param follow 是否持续跟随新日志
+     * @param callback 日志帧回调
+     * @return 传入的回调，可用于关闭订阅
+     */
+    <T extends ResultCallback<Frame>> T logContainer(String containerId, int tail, boolean follow, T callback);
+
     enum ContainerStatus {
         RUNNING,
         STOPPED,
@@ -85,6 +120,38 @@ public interface IDockerService {
         PAUSED,
         DEAD,
         NOT_FOUND,
-        UNKNOWN
+        UNKNOWN;
+
+        /**
+         * 容器状态对应的实例状态
+         * 过渡状态只由本管理器发起的生命周期操作写入，观测到的状态不会映射为过渡状态；
+         * RESTARTING是Docker按重启策略拉起退出的容器，持续出现即重启循环，视为ERROR
+         */
+        public NapcatInstance.InstanceStatus toInstanceStatus() {
+            return switch (this) {
+                case RUNNING -> NapcatInstance.InstanceStatus.RUNNING;
+                case STOPPED -> NapcatInstance.InstanceStatus.STOPPED;
+                case RESTARTING -> NapcatInstance.InstanceStatus.ERROR;
+                case NOT_FOUND, DEAD -> NapcatInstance.InstanceStatus.ERROR;
+                default -> NapcatInstance.InstanceStatus.UNKNOWN;
+            };
+        }
+
+        /**
+         * 容器列表中的State字段：created/restarting/running/removing/paused/exited/dead
+         */
+        public static ContainerStatus fromState(String state) {
+            if (state == null) {
+                return UNKNOWN;
+            }
+            return switch (state) {
+                case "running" -> RUNNING;
+                case "restarting" -> RESTARTING;
+                case "paused" -> PAUSED;
+                case "dead" -> DEAD;
+                case "created", "exited" -> STOPPED;
+                default -> UNKNOWN;
+            };
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.jinyue.service;
+
+import com.jinyue.dto.ContainerStateSnapshot;
+
+/**
+ * 容器状态快照持久化接口
+ * 定时和停机时把容器状态写入本地文件；启动时读取文件并回放快照之后的Docker事件得到当前状态，
+ * 代替逐个容器inspect的全量扫描
+ */
+public interface IFleetSnapshotService {
+
+    /**
+     * 把当前容器状态写入快照文件，缓存中没有有效状态时跳过
+     */
+    void save();
+
+    /**
+     * 从快照文件恢复容器状态，并预置到容器状态缓存，只在首次调用时执行
+     * @return 恢复后的状态；没有文件、文件过期、读取或回放失败、或已执行过时返回null，调用方应回退到全量检查
+     */
+    ContainerStateSnapshot restore();
+}
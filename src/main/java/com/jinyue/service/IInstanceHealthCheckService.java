@@ -2,7 +2,7 @@ package com.jinyue.service;
 
 /**
  * 实例健康检查服务接口
- * 用于应用启动时检查实例状态并标记异常
+ * 用于应用启动时检查实例状态并标记异常，在Docker首次可达及每次恢复连通后执行
  */
 public interface IInstanceHealthCheckService {
 
@@ -12,6 +12,12 @@ public interface IInstanceHealthCheckService {
      */
     void performStartupHealthCheck();
 
+    /**
+     * 恢复滞留在过渡状态（STARTING/STOPPING/DELETING）超过期限的实例
+     * 进程在操作中途崩溃或收尾写入失败时，过渡状态不会再被持有者结束，按Docker报告的状态重置
+     */
+    void recoverStaleTransitions();
+
     /**
      * 修复单个实例的容器状态
      * @param instanceId 实例ID
@@ -0,0 +1,24 @@
+package com.jinyue.service;
+
+import com.jinyue.entity.NapcatInstance;
+
+/**
+ * 实例状态写入接口
+ * 观测性的状态同步（容器状态与数据库不一致时的修正）只更新status/updated_time列，
+ * 延迟合并写入，同一实例的连续变化折叠为一次更新，多个实例批量落库；
+ * 生命周期操作的状态转换不经过这里，由条件更新同步写入
+ */
+public interface IInstanceStatusWriter {
+
+    /**
+     * 延迟写入状态，同一实例在下次刷新前的多次变化只保留最后一次
+     * @param instanceId 实例ID
+     * @param status 新状态
+     */
+    void stage(String instanceId, NapcatInstance.InstanceStatus status);
+
+    /**
+     * 将所有延迟状态批量写入数据库
+     */
+    void flush();
+}
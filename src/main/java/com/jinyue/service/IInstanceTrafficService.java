@@ -0,0 +1,38 @@
+package com.jinyue.service;
+
+import com.jinyue.dto.FleetTrafficStats;
+import com.jinyue.dto.InstanceTrafficStats;
+
+/**
+ * 机器人消息流量统计服务接口
+ * 在Webhook路径上按self_id累计收消息数、群聊/私聊拆分、转发耗时和转发失败
+ */
+public interface IInstanceTrafficService {
+
+    /**
+     * 记录收到一条消息
+     * @param selfId 机器人QQ号
+     * @param messageType group/private
+     */
+    void recordReceived(String selfId, String messageType);
+
+    /**
+     * 记录一次转发结果
+     * @param selfId 机器人QQ号
+     * @param latencyNanos 转发耗时
+     * @param success 是否成功
+     */
+    void recordForward(String selfId, long latencyNanos, boolean success);
+
+    /**
+     * 获取单个机器人的统计
+     * @return 没有任何流量记录时返回全零统计
+     */
+    InstanceTrafficStats getStats(String selfId);
+
+    /**
+     * 获取全体汇总
+     * @param top 返回每秒消息数最高的前top个机器人
+     */
+    FleetTrafficStats getFleetStats(int top);
+}
@@ -66,6 +66,14 @@ public interface INapcatInstanceService extends IService<NapcatInstance> {
      */
     MultiInstanceResponse createMultipleInstances(CreateMultiInstanceRequest request);
 
+    /**
+     * 批量创建Napcat实例，每个实例完成时立即回调
+     * @param request 批量创建请求
+     * @param listener 单实例结果回调（在流水线线程中调用）
+     * @return 批量创建响应
+     */
+    MultiInstanceResponse createMultipleInstances(CreateMultiInstanceRequest request, ProvisioningListener listener);
+
     /**
      * 启动实例（支持单个或批量）
      * @param request 操作请求
@@ -100,4 +108,16 @@ public interface INapcatInstanceService extends IService<NapcatInstance> {
      * @return 二维码文件字节数组，如果文件不存在返回null
      */
     byte[] getInstanceQrCode(String instanceId);
-}
\ No newline at end of file
+
+    /**
+     * 批量创建的单实例结果回调
+     */
+    interface ProvisioningListener {
+
+        default void onCreated(InstanceResponse instance) {
+        }
+
+        default void onFailed(MultiInstanceResponse.FailedInstance failed) {
+        }
+    }
+}
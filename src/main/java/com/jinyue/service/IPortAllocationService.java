@@ -0,0 +1,40 @@
+package com.jinyue.service;
+
+import java.util.List;
+
+/**
+ * 端口分配服务接口
+ * 每个实例占用一个服务端口p以及HTTP端口p+stride、WebSocket端口p+2*stride（默认stride为1000）
+ */
+public interface IPortAllocationService {
+
+    /**
+     * 预留若干个服务端口（同时预留对应的HTTP/WebSocket端口）
+     * @param count 需要的数量
+     * @return 服务端口列表，可用端口不足时返回的数量少于count
+     */
+    List<Integer> reserve(int count);
+
+    /**
+     * 释放实例占用的端口
+     * @param servicePort 服务端口
+     * @param httpPort HTTP端口
+     * @param wsPort WebSocket端口
+     */
+    void release(Integer servicePort, Integer httpPort, Integer wsPort);
+
+    /**
+     * 丢弃内存状态，从数据库重新加载已占用的端口
+     */
+    void resync();
+
+    /**
+     * HTTP/WebSocket端口相对服务端口的间隔
+     */
+    int getPortStride();
+
+    /**
+     * 当前剩余可分配的服务端口数量
+     */
+    int availableCount();
+}
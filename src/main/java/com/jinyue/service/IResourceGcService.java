@@ -0,0 +1,17 @@
+package com.jinyue.service;
+
+import com.jinyue.dto.ResourceGcReport;
+
+/**
+ * 孤儿资源回收服务接口
+ * 比对Docker中由本管理器创建的容器/数据卷与数据库中的实例，回收不再被引用的资源
+ */
+public interface IResourceGcService {
+
+    /**
+     * 执行一次回收
+     * @param dryRun 为true时只生成报告，不删除任何资源
+     * @return 回收报告
+     */
+    ResourceGcReport runGc(boolean dryRun);
+}
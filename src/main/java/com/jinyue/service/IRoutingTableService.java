@@ -0,0 +1,28 @@
+package com.jinyue.service;
+
+import com.jinyue.dto.RoutingTable;
+
+/**
+ * 实例路由表接口
+ * 后台定时以一条只取路由字段的查询重建全部实例的访问信息，有变化时版本递增；
+ * 请求路径只读内存中的表，不访问数据库和Docker
+ */
+public interface IRoutingTableService {
+
+    /**
+     * 当前版本
+     */
+    long currentVersion();
+
+    /**
+     * 获取路由表
+     * @param since 调用方已有的版本，为null、早于增量保留范围或晚于当前版本时返回全量
+     * @return 全量表或since之后的增量
+     */
+    RoutingTable getTable(Long since);
+
+    /**
+     * 立即重建一次
+     */
+    void refresh();
+}
@@ -1,6 +1,9 @@
 package com.jinyue.service;
 
+import com.jinyue.dto.OperationResult;
 import com.jinyue.entity.TaskInfo;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
 import java.util.List;
 
 public interface ITaskManagerService {
@@ -37,12 +40,33 @@ public interface ITaskManagerService {
                      List<TaskInfo.FailedOperation> failedOperations);
 
     /**
-     * 标记任务失败
+     * 记录单个实例的操作结果，原子累加计数并向订阅者推送进度增量
+     */
+    void recordOperationResult(String taskId, OperationResult result);
+
+    /**
+     * 以已记录的实例结果标记任务完成
+     */
+    void completeTask(String taskId);
+
+    /**
+     * 订阅任务进度，先推送当前快照，之后推送每个实例的完成事件，任务结束时关闭
+     * @return 任务不存在时返回null
+     */
+    SseEmitter subscribeTaskProgress(String taskId);
+
+    /**
+     * 标记任务失败，保留已记录的实例结果
      */
     void failTask(String taskId, String errorMessage);
 
     /**
-     * 清理过期任务
+     * 标记任务已取消，保留已记录的实例结果
+     */
+    void cancelTask(String taskId);
+
+    /**
+     * 清理过期任务（定时执行）：淘汰内存中的过期任务并删除超过保留期的任务记录
      */
     void cleanupExpiredTasks();
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.jinyue.service;
+
+import com.jinyue.entity.TaskInfo;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * 任务持久化存储
+ * 任务管理器在内存中保留热数据，通过该接口写入和回读持久化的任务记录
+ */
+public interface ITaskStore {
+
+    /**
+     * 保存新建的任务
+     */
+    void save(TaskInfo task);
+
+    /**
+     * 暂存任务进度，由存储合并后批量写入
+     * @param progress 写入时调用，生成当时的进度（状态、计数和已有结果），暂存期间的多次进度只生成一次
+     */
+    void stageProgress(String taskId, Supplier<TaskInfo> progress);
+
+    /**
+     * 立即写入任务的完整状态（终态）
+     */
+    void update(TaskInfo task);
+
+    /**
+     * 读取任务，不存在时返回null
+     */
+    TaskInfo load(String taskId);
+
+    /**
+     * 删除创建时间早于指定时间的任务
+     * @return 删除的任务数
+     */
+    int deleteCreatedBefore(LocalDateTime before);
+}
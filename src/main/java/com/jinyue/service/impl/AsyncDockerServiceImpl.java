@@ -0,0 +1,118 @@
+package com.jinyue.service.impl;
+
+import com.jinyue.dto.NapcatConfig;
+import com.jinyue.service.IAsyncDockerService;
+import com.jinyue.service.IDockerService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 异步Docker服务实现
+ * docker-java的非流式命令（create/start/inspect等）只有阻塞API，这里统一提交到dockerIoExecutor执行；
+ * 就绪探测由调度线程定时触发一次inspect，探测间隔内不占用线程
+ */
+@Slf4j
+@Service
+public class AsyncDockerServiceImpl implements IAsyncDockerService {
+
+    private final IDockerService dockerService;
+    private final Executor dockerIoExecutor;
+
+    private final ScheduledExecutorService probeScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Docker-Probe");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${napcat.docker.readiness-interval-ms:1000}")
+    private long readinessIntervalMs;
+
+    public AsyncDockerServiceImpl(IDockerService dockerService,
+                                  @Qualifier("dockerIoExecutor") Executor dockerIoExecutor) {
+        this.dockerService = dockerService;
+        this.dockerIoExecutor = dockerIoExecutor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        probeScheduler.shutdownNow();
+    }
+
+    @Override
+    public CompletableFuture<String> createContainerAsync(String instanceName, NapcatConfig config, int port) {
+        return CompletableFuture.supplyAsync(() -> dockerService.createContainer(instanceName, config, port),
+                dockerIoExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> startContainerAsync(String containerId) {
+        return CompletableFuture.runAsync(() -> dockerService.startContainer(containerId), dockerIoExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> stopContainerAsync(String containerId) {
+        return CompletableFuture.runAsync(() -> dockerService.stopContainer(containerId), dockerIoExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeContainerAsync(String containerId) {
+        return CompletableFuture.runAsync(() -> dockerService.removeContainer(containerId), dockerIoExecutor);
+    }
+
+    @Override
+    public CompletableFuture<IDockerService.ContainerStatus> inspectAsync(String containerId) {
+        return CompletableFuture.supplyAsync(() -> dockerService.getContainerStatus(containerId), dockerIoExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> copyFileToContainerAsync(String containerId, String fileContent, String containerPath) {
+        return CompletableFuture.runAsync(() -> dockerService.copyFileToContainer(containerId, fileContent, containerPath),
+                dockerIoExecutor);
+    }
+
+    @Override
+    public CompletableFuture<IDockerService.ContainerStatus> awaitRunningAsync(String containerId, Duration timeout) {
+        CompletableFuture<IDockerService.ContainerStatus> result = new CompletableFuture<>();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        probe(containerId, deadline, result);
+        return result;
+    }
+
+    private void probe(String containerId, long deadline,
+                       CompletableFuture<IDockerService.ContainerStatus> result) {
+        inspectAsync(containerId).whenComplete((status, error) -> {
+            if (result.isDone()) {
+                return;
+            }
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            switch (status) {
+                case RUNNING -> result.complete(status);
+                case DEAD, NOT_FOUND -> result.completeExceptionally(
+                        new IllegalStateException("Container " + containerId + " is " + status));
+                default -> {
+                    if (System.nanoTime() >= deadline) {
+                        result.completeExceptionally(new TimeoutException(
+                                "Container " + containerId + " not running in time, last status " + status));
+                    } else {
+                        probeScheduler.schedule(() -> probe(containerId, deadline, result),
+                                readinessIntervalMs, TimeUnit.MILLISECONDS);
+                    }
+                }
+            }
+        });
+    }
+}
@@ -1,27 +1,97 @@
 package com.jinyue.service.impl;
 
+import com.jinyue.dto.CreateMultiInstanceRequest;
+import com.jinyue.dto.InstanceResponse;
+import com.jinyue.dto.MultiInstanceResponse;
 import com.jinyue.dto.OperationResult;
 import com.jinyue.entity.TaskInfo;
 import com.jinyue.service.IAsyncOperationService;
 import com.jinyue.service.ITaskManagerService;
 import com.jinyue.service.INapcatInstanceService;
-import lombok.RequiredArgsConstructor;
+import com.jinyue.exception.InstanceStateConflictException;
+import com.jinyue.metrics.OperationConcurrencyController;
+import com.jinyue.metrics.TaskExecutionEvent;
+import com.jinyue.utils.KeyedSerialExecutor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class AsyncOperationServiceImpl implements IAsyncOperationService {
 
-    private final ExecutorService operationExecutor = Executors.newFixedThreadPool(10);
+    // 实例操作期限的计时线程
+    private final ScheduledExecutorService deadlineScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Operation-Deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // 执行中的任务，用于取消
+    private final ConcurrentHashMap<String, TaskExecution> executions = new ConcurrentHashMap<>();
+    // 同一实例的操作按提交顺序串行，不同实例并发
+    private final KeyedSerialExecutor serialExecutor;
     private final INapcatInstanceService instanceService;
     private final ITaskManagerService taskManagerService;
+    private final MeterRegistry meterRegistry;
+    private final OperationConcurrencyController concurrencyController;
+
+    public AsyncOperationServiceImpl(
+            @Qualifier("operationExecutor") Executor operationExecutor,
+            INapcatInstanceService instanceService,
+            ITaskManagerService taskManagerService,
+            MeterRegistry meterRegistry,
+            OperationConcurrencyController concurrencyController) {
+        this.serialExecutor = new KeyedSerialExecutor(operationExecutor);
+        this.instanceService = instanceService;
+        this.taskManagerService = taskManagerService;
+        this.meterRegistry = meterRegistry;
+        this.concurrencyController = concurrencyController;
+    }
+
+    @Value("${async.operation.timeout-seconds:60}")
+    private long operationTimeoutSeconds;
+
+    @Value("${async.operation.interrupt-on-timeout:false}")
+    private boolean interruptOnTimeout;
+
+    @Value("${async.task.timeout-base-seconds:30}")
+    private long taskTimeoutBaseSeconds;
+
+    @PostConstruct
+    public void registerQueueMetrics() {
+        Gauge.builder("napcat.operation.queue.keys", serialExecutor, KeyedSerialExecutor::activeKeys)
+                .description("有排队操作的实例数")
+                .register(meterRegistry);
+        Gauge.builder("napcat.operation.queue.depth", serialExecutor, KeyedSerialExecutor::totalDepth)
+                .description("排队中和执行中的实例操作总数")
+                .register(meterRegistry);
+        Gauge.builder("napcat.operation.queue.max-depth", serialExecutor, KeyedSerialExecutor::maxDepth)
+                .description("单个实例上的最大排队深度")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deadlineScheduler.shutdownNow();
+    }
+
+    @Override
+    public Map<String, Integer> getOperationQueueDepths() {
+        return serialExecutor.queueDepths();
+    }
 
     @Async("taskExecutor")
     @Override
@@ -47,47 +117,287 @@ public class AsyncOperationServiceImpl implements IAsyncOperationService {
         executeOperations(taskId, instanceIds, "DELETE", instanceService::deleteInstance);
     }
 
+    @Async("taskExecutor")
+    @Override
+    public void executeCreateStreamAsync(CreateMultiInstanceRequest request, SseEmitter emitter) {
+        try {
+            MultiInstanceResponse response = instanceService.createMultipleInstances(request,
+                    new INapcatInstanceService.ProvisioningListener() {
+                        @Override
+                        public void onCreated(InstanceResponse instance) {
+                            sendEvent(emitter, "instance", instance);
+                        }
+
+                        @Override
+                        public void onFailed(MultiInstanceResponse.FailedInstance failed) {
+                            sendEvent(emitter, "failed", failed);
+                        }
+                    });
+            sendEvent(emitter, "summary", response);
+            emitter.complete();
+        } catch (Exception e) {
+            log.error("Streaming batch creation failed: {}", e.getMessage());
+            sendEvent(emitter, "error", Map.of("error", String.valueOf(e.getMessage())));
+            emitter.complete();
+        }
+    }
+
+    private void sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Failed to push {} event, client may have disconnected: {}", name, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean cancelTask(String taskId) {
+        if (isFinished(taskId)) {
+            return false;
+        }
+
+        TaskExecution execution = executions.get(taskId);
+        if (execution == null) {
+            // 尚未开始执行：直接结束任务，不留占位，执行开始时发现任务已结束即跳过
+            taskManagerService.cancelTask(taskId);
+            execution = executions.get(taskId);
+            if (execution == null) {
+                log.info("Task {} cancelled before it started", taskId);
+                return true;
+            }
+        }
+        execution.cancel("任务已取消");
+        if (execution.handles.isEmpty()) {
+            taskManagerService.cancelTask(taskId);
+        }
+        log.info("Cancel requested for task {}", taskId);
+        return true;
+    }
+
+    private boolean isFinished(String taskId) {
+        TaskInfo task = taskManagerService.getTask(taskId);
+        return task == null || task.getCompletedTime() != null;
+    }
+
     private void executeOperations(String taskId, List<String> instanceIds,
                                  String operation, OperationHandler handler) {
+        TaskExecution execution = new TaskExecution();
+        executions.put(taskId, execution);
+        // 先登记再检查：与取消并发时，要么取消看到登记的执行，要么这里看到已结束的任务
+        if (isFinished(taskId)) {
+            executions.remove(taskId, execution);
+            log.info("Task {} was cancelled before it started", taskId);
+            return;
+        }
+
+        TaskExecutionEvent event = new TaskExecutionEvent();
+        event.taskId = taskId;
+        event.operation = operation;
+        event.instanceCount = instanceIds.size();
+        event.begin();
+
+        long timeoutSeconds = taskTimeoutSeconds(instanceIds.size());
         try {
             taskManagerService.updateTaskStatus(taskId, TaskInfo.TaskStatus.RUNNING);
-            //创建并行任务
-            List<CompletableFuture<OperationResult>> futures = instanceIds.stream()
-                    .map(instanceId -> CompletableFuture.supplyAsync(() -> {
-                        try {
-                            handler.execute(instanceId);
-                            return new OperationResult(instanceId, true, null);
-                        } catch (Exception e) {
-                            return new OperationResult(instanceId, false, e.getMessage());
-                        }
-                    }, operationExecutor)).toList();
-            //等待所有任务完成
-            CompletableFuture<Void> allOf = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
-            //设置超时时间
-            allOf.get(60, TimeUnit.SECONDS);
-
-            //收集结果
-            List<String> successIds =new ArrayList<>();
-            List<TaskInfo.FailedOperation> failedOperations = new ArrayList<>();
-            for (CompletableFuture<OperationResult> future : futures) {
-                OperationResult result = future.get();
-                if (result.isSuccess()) {
-                    successIds.add(result.getInstanceId());
-                } else {
-                    TaskInfo.FailedOperation failed = new TaskInfo.FailedOperation();
-                    failed.setInstanceId(result.getInstanceId());
-                    failed.setReason(result.getErrorMessage());
-                    failedOperations.add(failed);
-                }
-                taskManagerService.completeTask(taskId, successIds, failedOperations);
-                log.info("Task {} completed: {} success, {} failed",
-                        taskId, successIds.size(), failedOperations.size());
-            }
+            // 创建并行任务，每个实例完成（包括超时和取消）时立即记录结果并推送进度
+            CompletableFuture<?>[] futures = instanceIds.stream()
+                    .map(instanceId -> execution.submit(instanceId, operation, handler)
+                            .thenAccept(result -> taskManagerService.recordOperationResult(taskId, result)))
+                    .toArray(CompletableFuture[]::new);
+            // 所有实例完成或整体超时后结束任务，超时随批量大小增长；编排线程不等待，立即返回
+            CompletableFuture.allOf(futures)
+                    .orTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                    .whenComplete((ignored, error) -> finishExecution(taskId, execution, event, timeoutSeconds, error));
         } catch (Exception e) {
+            executions.remove(taskId, execution);
             taskManagerService.failTask(taskId, e.getMessage());
+            commitEvent(event, taskId);
             log.error("Task {} failed: {}", taskId, e.getMessage());
         }
+    }
 
+    private void finishExecution(String taskId, TaskExecution execution, TaskExecutionEvent event,
+                                 long timeoutSeconds, Throwable error) {
+        try {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof TimeoutException) {
+                // 放弃未完成的实例操作，按失败记录后结束任务
+                execution.cancel("任务超时，操作已放弃");
+                taskManagerService.failTask(taskId, "任务超时(" + timeoutSeconds + "秒)");
+                log.error("Task {} timed out after {}s", taskId, timeoutSeconds);
+                return;
+            }
+            if (cause != null) {
+                taskManagerService.failTask(taskId, cause.getMessage());
+                log.error("Task {} failed: {}", taskId, cause.getMessage());
+                return;
+            }
+
+            if (execution.cancelled) {
+                taskManagerService.cancelTask(taskId);
+            } else {
+                taskManagerService.completeTask(taskId);
+            }
+            TaskInfo task = taskManagerService.getTask(taskId);
+            log.info("Task {} {}: {} success, {} failed",
+                    taskId, task.getStatus(), task.getSuccessCount(), task.getFailedCount());
+        } finally {
+            executions.remove(taskId, execution);
+            commitEvent(event, taskId);
+        }
+    }
+
+    /**
+     * 提交任务的JFR事件，结果计数取自任务最终状态；未在录制时不查询任务
+     */
+    private void commitEvent(TaskExecutionEvent event, String taskId) {
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        try {
+            TaskInfo task = taskManagerService.getTask(taskId);
+            if (task != null) {
+                event.status = String.valueOf(task.getStatus());
+                event.successCount = task.getSuccessCount();
+                event.failedCount = task.getFailedCount();
+            }
+        } catch (Exception e) {
+            log.debug("Failed to read task {} for JFR event: {}", taskId, e.getMessage());
+        }
+        event.commit();
+    }
+
+    /**
+     * 任务整体超时 = 基础时间 + 单实例期限 × 轮数（实例数 / 并发数，向上取整）
+     */
+    private long taskTimeoutSeconds(int instanceCount) {
+        int concurrency = Math.max(1, concurrencyController.currentLimit());
+        long rounds = (instanceCount + concurrency - 1) / concurrency;
+        return taskTimeoutBaseSeconds + operationTimeoutSeconds * Math.max(1, rounds);
+    }
+
+    /**
+     * 单个任务的执行上下文，持有所有实例操作以便取消
+     */
+    private class TaskExecution {
+
+        private final List<OperationHandle> handles = new CopyOnWriteArrayList<>();
+        private volatile boolean cancelled;
+        private volatile String cancelReason;
+
+        /**
+         * 按实例ID串行提交：同一实例上先提交的操作完成后才执行后提交的操作
+         */
+        CompletableFuture<OperationResult> submit(String instanceId, String operation, OperationHandler handler) {
+            OperationHandle handle = new OperationHandle(instanceId, operation);
+            handles.add(handle);
+            if (cancelled) {
+                handle.abort(cancelReason);
+                return handle.result;
+            }
+            try {
+                serialExecutor.execute(instanceId, () -> handle.run(handler), rejected -> handle.abort("操作队列已满"));
+            } catch (RejectedExecutionException e) {
+                handle.abort("操作队列已满");
+            }
+            return handle.result;
+        }
+
+        void cancel(String reason) {
+            cancelReason = reason;
+            cancelled = true;
+            handles.forEach(handle -> handle.abort(reason));
+        }
+    }
+
+    /**
+     * 单个实例操作
+     * 取消或超过期限时立即以失败结束结果，未开始的操作直接跳过；
+     * 已在执行的Docker调用默认放弃等待（由其自身完成补偿），开启interrupt-on-timeout时同时中断执行线程。
+     * 放弃等待的操作可能随后成功，结果记为“已放弃，实例状态未知”，实例状态由状态同步和过渡状态恢复校正，
+     * 迟到的实际结果只记录日志
+     */
+    private class OperationHandle {
+
+        private final String instanceId;
+        private final String operation;
+        private final CompletableFuture<OperationResult> result = new CompletableFuture<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private Thread worker;
+        private boolean aborted;
+
+        OperationHandle(String instanceId, String operation) {
+            this.instanceId = instanceId;
+            this.operation = operation;
+        }
+
+        void run(OperationHandler handler) {
+            lock.lock();
+            try {
+                if (aborted || result.isDone()) {
+                    return;
+                }
+                worker = Thread.currentThread();
+            } finally {
+                lock.unlock();
+            }
+
+            ScheduledFuture<?> deadline = deadlineScheduler.schedule(
+                    () -> abort("操作超时(" + operationTimeoutSeconds + "秒)"),
+                    operationTimeoutSeconds, TimeUnit.SECONDS);
+            long startNanos = System.nanoTime();
+            boolean success = false;
+            boolean executionError = false;
+            String errorMessage = null;
+            boolean recorded = false;
+            try {
+                handler.execute(instanceId);
+                success = true;
+                recorded = result.complete(new OperationResult(instanceId, true, null));
+            } catch (Exception e) {
+                // 状态冲突属于业务拒绝，不计入Docker错误率
+                executionError = !(e instanceof InstanceStateConflictException);
+                errorMessage = e.getMessage();
+                recorded = result.complete(new OperationResult(instanceId, false, errorMessage));
+            } finally {
+                deadline.cancel(false);
+                concurrencyController.record(operation, System.nanoTime() - startNanos, success, executionError);
+                lock.lock();
+                try {
+                    worker = null;
+                } finally {
+                    lock.unlock();
+                }
+                if (!recorded) {
+                    log.info("Abandoned {} on instance {} finished later: {}", operation, instanceId,
+                            success ? "succeeded" : "failed: " + errorMessage);
+                }
+                // 清除可能残留的中断标记，避免影响线程池中的下一个操作
+                Thread.interrupted();
+            }
+        }
+
+        void abort(String reason) {
+            boolean running;
+            lock.lock();
+            try {
+                // 与run()登记执行线程在同一把锁下判断：未开始的操作不会再执行，已开始的操作结果未知
+                if (aborted || result.isDone()) {
+                    return;
+                }
+                aborted = true;
+                running = worker != null;
+                if (running && interruptOnTimeout) {
+                    worker.interrupt();
+                }
+            } finally {
+                lock.unlock();
+            }
+            // 在锁外结束结果，结果回调（记录进度、推送事件）不占用锁
+            String message = running ? reason + "，已放弃等待，实例状态未知，以状态同步结果为准" : reason;
+            result.complete(new OperationResult(instanceId, false, message));
+        }
     }
 
     @FunctionalInterface
@@ -0,0 +1,424 @@
+package com.jinyue.service.impl;
+
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Frame;
+import com.jinyue.entity.NapcatInstance;
+import com.jinyue.exception.InstanceNotFoundException;
+import com.jinyue.service.IContainerLogService;
+import com.jinyue.service.IDockerService;
+import com.jinyue.service.INapcatInstanceService;
+import com.jinyue.utils.LogRingBuffer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * 容器日志服务实现
+ * 同一容器只向Docker发起一次logs follow请求，日志帧写入固定大小的环形缓冲区后广播给所有查看者；
+ * 后加入的查看者直接从缓冲区回放历史，最后一个查看者离开时关闭跟随器
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContainerLogServiceImpl implements IContainerLogService {
+
+    private static final String LOG_EVENT = "log";
+
+    private final INapcatInstanceService instanceService;
+    private final IDockerService dockerService;
+
+    private final ConcurrentHashMap<String, LogFollower> followers = new ConcurrentHashMap<>();
+
+    @Value("${napcat.logs.buffer-bytes:262144}")
+    private int bufferBytes;
+
+    @Value("${napcat.logs.initial-tail:500}")
+    private int initialTail;
+
+    @Value("${napcat.logs.max-tail:2000}")
+    private int maxTail;
+
+    @Value("${napcat.logs.max-viewers:20}")
+    private int maxViewers;
+
+    @Value("${napcat.logs.stream-timeout:1800000}")
+    private long streamTimeout;
+
+    @Override
+    public SseEmitter openLogStream(String instanceId, boolean follow, int tail) {
+        NapcatInstance instance = instanceService.getById(instanceId);
+        if (instance == null) {
+            throw new InstanceNotFoundException("Instance not found: " + instanceId);
+        }
+        if (instance.getContainerId() == null) {
+            throw new InstanceNotFoundException("Instance has no container: " + instanceId);
+        }
+
+        String containerId = instance.getContainerId();
+        int historyLines = Math.max(0, Math.min(tail, maxTail));
+
+        if (!follow) {
+            return openSnapshotStream(containerId, historyLines);
+        }
+
+        SseEmitter emitter = new SseEmitter(streamTimeout);
+        // 跟随器可能恰好在关闭中，此时重新创建一个；Docker请求在映射的compute之外发起
+        while (true) {
+            LogFollower follower = followers.computeIfAbsent(containerId,
+                    id -> new LogFollower(id, new LogRingBuffer(bufferBytes)));
+            follower.start();
+            if (follower.addViewer(emitter, historyLines)) {
+                break;
+            }
+            followers.remove(containerId, follower);
+        }
+
+        log.debug("Log viewer attached to container {}, follow mode", containerId);
+        return emitter;
+    }
+
+    @Override
+    public Map<String, Integer> getActiveFollowers() {
+        return followers.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().viewerCount()));
+    }
+
+    /**
+     * 非跟随模式：已有跟随器时直接回放缓冲区，否则向Docker请求一次tail
+     */
+    private SseEmitter openSnapshotStream(String containerId, int historyLines) {
+        SseEmitter emitter = new SseEmitter(30000L);
+
+        LogFollower follower = followers.get(containerId);
+        if (follower != null && follower.sendHistory(emitter, historyLines)) {
+            emitter.complete();
+            return emitter;
+        }
+
+        dockerService.logContainer(containerId, historyLines, false, new OneShotLogCallback(emitter));
+        return emitter;
+    }
+
+    private static boolean sendLine(SseEmitter emitter, String line) {
+        try {
+            emitter.send(SseEmitter.event().name(LOG_EVENT).data(line));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 单个查看者，发送锁保证历史回放先于实时日志，且同一查看者的发送不交错
+     */
+    private record Viewer(SseEmitter emitter, ReentrantLock sendLock) {
+
+        Viewer(SseEmitter emitter) {
+            this(emitter, new ReentrantLock());
+        }
+
+        /**
+         * @return 全部发送成功
+         */
+        boolean send(List<String> lines) {
+            sendLock.lock();
+            try {
+                for (String line : lines) {
+                    if (!sendLine(emitter, line)) {
+                        return false;
+                    }
+                }
+                return true;
+            } finally {
+                sendLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 单容器共享的日志跟随器
+     * 跟随器锁只保护缓冲区和查看者列表，向查看者发送都在锁外进行，慢的查看者不阻塞Docker日志回调的缓冲写入
+     */
+    private class LogFollower extends ResultCallback.Adapter<Frame> {
+
+        private final String containerId;
+        private final LogRingBuffer ringBuffer;
+        private final LineSplitter splitter = new LineSplitter();
+        private final List<Viewer> viewers = new ArrayList<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicBoolean started = new AtomicBoolean();
+        private boolean closed;
+
+        LogFollower(String containerId, LogRingBuffer ringBuffer) {
+            this.containerId = containerId;
+            this.ringBuffer = ringBuffer;
+        }
+
+        /**
+         * 首次调用时向Docker发起logs follow请求，请求失败时关闭跟随器
+         */
+        void start() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                dockerService.logContainer(containerId, initialTail, true, this);
+                log.info("Started log follower for container {}, buffer {} bytes", containerId, bufferBytes);
+            } catch (RuntimeException e) {
+                shutdown();
+                throw e;
+            }
+        }
+
+        boolean addViewer(SseEmitter emitter, int historyLines) {
+            Viewer viewer = new Viewer(emitter);
+            List<String> history;
+            lock.lock();
+            try {
+                if (closed) {
+                    return false;
+                }
+                if (viewers.size() >= maxViewers) {
+                    throw new IllegalStateException("Too many log viewers for container " + containerId);
+                }
+                // 在锁内取历史并占住查看者的发送锁：之后的实时日志要等历史发送完，且不会与历史重复
+                history = ringBuffer.lastLines(historyLines);
+                viewer.sendLock().lock();
+                viewers.add(viewer);
+            } finally {
+                lock.unlock();
+            }
+
+            boolean replayed;
+            try {
+                replayed = viewer.send(history);
+            } finally {
+                viewer.sendLock().unlock();
+            }
+
+            if (!replayed) {
+                // 查看者在回放历史时已断开，刚创建的跟随器可能因此没有任何查看者
+                removeViewer(viewer);
+                return true;
+            }
+
+            emitter.onCompletion(() -> removeViewer(viewer));
+            emitter.onTimeout(() -> removeViewer(viewer));
+            emitter.onError(e -> removeViewer(viewer));
+            return true;
+        }
+
+        boolean sendHistory(SseEmitter emitter, int historyLines) {
+            List<String> history;
+            lock.lock();
+            try {
+                if (closed) {
+                    return false;
+                }
+                history = ringBuffer.lastLines(historyLines);
+            } finally {
+                lock.unlock();
+            }
+            for (String line : history) {
+                if (!sendLine(emitter, line)) {
+                    break;
+                }
+            }
+            return true;
+        }
+
+        int viewerCount() {
+            lock.lock();
+            try {
+                return viewers.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void onNext(Frame frame) {
+            byte[] payload = frame.getPayload();
+            if (payload == null || payload.length == 0) {
+                return;
+            }
+
+            List<String> lines;
+            List<Viewer> targets;
+            lock.lock();
+            try {
+                ringBuffer.append(payload);
+                lines = splitter.feed(payload);
+                if (lines.isEmpty() || viewers.isEmpty()) {
+                    return;
+                }
+                targets = new ArrayList<>(viewers);
+            } finally {
+                lock.unlock();
+            }
+
+            for (Viewer viewer : targets) {
+                if (!viewer.send(lines)) {
+                    removeViewer(viewer);
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            log.warn("Log stream for container {} failed: {}", containerId, throwable.getMessage());
+            shutdown();
+        }
+
+        @Override
+        public void onComplete() {
+            log.info("Log stream for container {} ended", containerId);
+            shutdown();
+        }
+
+        private void removeViewer(Viewer viewer) {
+            lock.lock();
+            try {
+                viewers.remove(viewer);
+            } finally {
+                lock.unlock();
+            }
+            closeIfIdle();
+        }
+
+        /**
+         * 没有查看者时关闭跟随器，之后的查看者会重新创建
+         */
+        private void closeIfIdle() {
+            boolean idle;
+            lock.lock();
+            try {
+                idle = viewers.isEmpty() && !closed;
+                if (idle) {
+                    closed = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (idle) {
+                followers.remove(containerId, this);
+                closeQuietly();
+                log.info("Last log viewer left, stopped follower for container {}", containerId);
+            }
+        }
+
+        private void shutdown() {
+            List<Viewer> remaining;
+            lock.lock();
+            try {
+                closed = true;
+                remaining = new ArrayList<>(viewers);
+                viewers.clear();
+            } finally {
+                lock.unlock();
+            }
+
+            followers.remove(containerId, this);
+            remaining.forEach(viewer -> viewer.emitter().complete());
+        }
+
+        private void closeQuietly() {
+            try {
+                close();
+            } catch (IOException e) {
+                log.debug("Failed to close log stream for container {}: {}", containerId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 非跟随模式的一次性日志回调
+     */
+    private static class OneShotLogCallback extends ResultCallback.Adapter<Frame> {
+
+        private final SseEmitter emitter;
+        private final LineSplitter splitter = new LineSplitter();
+
+        OneShotLogCallback(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void onNext(Frame frame) {
+            for (String line : splitter.feed(frame.getPayload())) {
+                sendLine(emitter, line);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            emitter.completeWithError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            String rest = splitter.flush();
+            if (rest != null) {
+                sendLine(emitter, rest);
+            }
+            emitter.complete();
+        }
+    }
+
+    /**
+     * 将日志帧切分为完整的行，未结束的行暂存到下一帧
+     */
+    private static class LineSplitter {
+
+        private static final int MAX_PENDING_BYTES = 64 * 1024;
+
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+        List<String> feed(byte[] payload) {
+            List<String> lines = new ArrayList<>();
+            if (payload == null) {
+                return lines;
+            }
+
+            int start = 0;
+            for (int i = 0; i < payload.length; i++) {
+                if (payload[i] == '\n') {
+                    pending.write(payload, start, i - start);
+                    lines.add(drain());
+                    start = i + 1;
+                }
+            }
+            pending.write(payload, start, payload.length - start);
+
+            // 超长的单行直接输出，避免暂存区无限增长
+            if (pending.size() > MAX_PENDING_BYTES) {
+                lines.add(drain());
+            }
+            return lines;
+        }
+
+        String flush() {
+            return pending.size() > 0 ? drain() : null;
+        }
+
+        private String drain() {
+            String line = pending.toString(StandardCharsets.UTF_8);
+            pending.reset();
+            return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.jinyue.service.impl;
+
+import com.github.dockerjava.api.model.Container;
+import com.jinyue.dto.ContainerStateSnapshot;
+import com.jinyue.service.IContainerStateCache;
+import com.jinyue.service.IDockerConnectivity;
+import com.jinyue.service.IDockerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 容器状态缓存实现
+ * 快照整体替换，读写均无锁；刷新失败时保留旧快照，超过最大有效期后不再提供
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContainerStateCacheImpl implements IContainerStateCache {
+
+    private final IDockerService dockerService;
+    private final IDockerConnectivity dockerConnectivity;
+
+    private final AtomicReference<ContainerStateSnapshot> current = new AtomicReference<>();
+
+    @Value("${napcat.docker.state-cache.max-age-ms:15000}")
+    private long maxAgeMs;
+
+    @Override
+    public ContainerStateSnapshot snapshot() {
+        ContainerStateSnapshot snapshot = current.get();
+        if (snapshot == null || snapshot.getRefreshedTime().plusNanos(maxAgeMs * 1_000_000L).isBefore(LocalDateTime.now())) {
+            return null;
+        }
+        return snapshot;
+    }
+
+    @Override
+    @Scheduled(initialDelay = 0, fixedDelayString = "${napcat.docker.state-cache.refresh-interval:5000}")
+    public void refresh() {
+        // Docker不可达时不等待连接超时，保留旧快照直到过期
+        if (!dockerConnectivity.isAvailable()) {
+            return;
+        }
+        // 先记录时间再列容器，保证快照时间不晚于实际观测时间
+        LocalDateTime refreshedTime = LocalDateTime.now();
+        List<Container> containers;
+        try {
+            containers = dockerService.listNapcatContainers();
+        } catch (Exception e) {
+            ContainerStateSnapshot existing = current.get();
+            log.warn("Failed to refresh container state cache, keeping snapshot from {}: {}",
+                    existing != null ? existing.getRefreshedTime() : "never", e.getMessage());
+            return;
+        }
+
+        Map<String, IDockerService.ContainerStatus> statuses = new HashMap<>(containers.size() * 2);
+        for (Container container : containers) {
+            statuses.put(container.getId(), IDockerService.ContainerStatus.fromState(container.getState()));
+        }
+        current.set(new ContainerStateSnapshot(statuses, refreshedTime));
+        log.debug("Container state cache refreshed, {} containers", statuses.size());
+    }
+
+    @Override
+    public void seed(ContainerStateSnapshot snapshot) {
+        current.accumulateAndGet(snapshot, (existing, seeded) ->
+                existing == null || existing.getRefreshedTime().isBefore(seeded.getRefreshedTime()) ? seeded : existing);
+    }
+}
@@ -0,0 +1,196 @@
+package com.jinyue.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jinyue.entity.TaskInfo;
+import com.jinyue.entity.TaskRecord;
+import com.jinyue.mapper.TaskRecordMapper;
+import com.jinyue.service.ITaskStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 基于PostgreSQL的任务存储
+ * 新建和终态同步写入；执行中的进度（计数和已有结果）按任务合并，定时以一条语句批量写入
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "napcat.task.store", havingValue = "database", matchIfMissing = true)
+public class DatabaseTaskStore implements ITaskStore {
+
+    private static final TypeReference<List<String>> STRING_LIST = new TypeReference<>() {};
+    private static final TypeReference<List<TaskInfo.FailedOperation>> FAILED_LIST = new TypeReference<>() {};
+
+    private final TaskRecordMapper taskRecordMapper;
+    private final ObjectMapper objectMapper;
+
+    @Value("${napcat.task.node-id:default}")
+    private String nodeId;
+
+    // 只暂存进度的生成方式，写入时才生成结果列表并序列化，合并期间的多次进度不重复生成
+    private final ConcurrentHashMap<String, Supplier<TaskInfo>> pendingProgress = new ConcurrentHashMap<>();
+
+    /**
+     * 启动时结束本节点上次运行遗留的任务，此时还没有新任务创建；其他节点的任务不受影响
+     */
+    @PostConstruct
+    public void failInterruptedTasks() {
+        try {
+            int failed = taskRecordMapper.failUnfinished(nodeId, "服务重启，任务中断", LocalDateTime.now());
+            if (failed > 0) {
+                log.warn("Marked {} tasks of node {} interrupted by the previous shutdown as FAILED", failed, nodeId);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to reconcile unfinished tasks: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void save(TaskInfo task) {
+        taskRecordMapper.insert(toRecord(task));
+    }
+
+    @Override
+    public void stageProgress(String taskId, Supplier<TaskInfo> progress) {
+        pendingProgress.put(taskId, progress);
+    }
+
+    @Override
+    public void update(TaskInfo task) {
+        pendingProgress.remove(task.getTaskId());
+        taskRecordMapper.updateById(toRecord(task));
+    }
+
+    @Override
+    public TaskInfo load(String taskId) {
+        TaskRecord record = taskRecordMapper.selectById(taskId);
+        return record != null ? toTaskInfo(record) : null;
+    }
+
+    @Override
+    public int deleteCreatedBefore(LocalDateTime before) {
+        return taskRecordMapper.deleteCreatedBefore(before);
+    }
+
+    /**
+     * 批量写入暂存的进度
+     */
+    @Scheduled(fixedDelayString = "${napcat.task.flush-interval:1000}")
+    public void flushProgress() {
+        if (pendingProgress.isEmpty()) {
+            return;
+        }
+
+        Map<String, Supplier<TaskInfo>> batch = new HashMap<>();
+        for (Map.Entry<String, Supplier<TaskInfo>> entry : pendingProgress.entrySet()) {
+            if (pendingProgress.remove(entry.getKey(), entry.getValue())) {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            taskRecordMapper.batchUpdateProgress(batch.values().stream()
+                    .map(progress -> toProgressRecord(progress.get()))
+                    .toList());
+            log.debug("Flushed progress of {} tasks", batch.size());
+        } catch (Exception e) {
+            batch.forEach(pendingProgress::putIfAbsent);
+            log.warn("Failed to flush progress of {} tasks, will retry: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushProgress();
+    }
+
+    private TaskRecord toRecord(TaskInfo task) {
+        return new TaskRecord()
+                .setTaskId(task.getTaskId())
+                .setOperation(task.getOperation())
+                .setStatus(task.getStatus())
+                .setInstanceIds(writeJson(task.getInstanceIds()))
+                .setTotalCount(task.getTotalCount())
+                .setSuccessCount(task.getSuccessCount())
+                .setFailedCount(task.getFailedCount())
+                .setSuccessIds(writeJson(task.getSuccessIds()))
+                .setFailedOperations(writeJson(task.getFailedOperations()))
+                .setErrorMessage(task.getErrorMessage())
+                .setNodeId(nodeId)
+                .setCreatedTime(task.getCreatedTime())
+                .setCompletedTime(task.getCompletedTime())
+                .setUpdatedTime(LocalDateTime.now());
+    }
+
+    /**
+     * 进度记录，结果列表与计数一起写入，执行中回读的任务与计数一致
+     */
+    private TaskRecord toProgressRecord(TaskInfo task) {
+        return new TaskRecord()
+                .setTaskId(task.getTaskId())
+                .setStatus(task.getStatus())
+                .setSuccessCount(task.getSuccessCount())
+                .setFailedCount(task.getFailedCount())
+                .setSuccessIds(writeJson(task.getSuccessIds()))
+                .setFailedOperations(writeJson(task.getFailedOperations()))
+                .setUpdatedTime(LocalDateTime.now());
+    }
+
+    private TaskInfo toTaskInfo(TaskRecord record) {
+        return new TaskInfo()
+                .setTaskId(record.getTaskId())
+                .setOperation(record.getOperation())
+                .setStatus(record.getStatus())
+                .setInstanceIds(readJson(record.getInstanceIds(), STRING_LIST))
+                .setTotalCount(record.getTotalCount())
+                .setSuccessCount(record.getSuccessCount())
+                .setFailedCount(record.getFailedCount())
+                .setSuccessIds(readJson(record.getSuccessIds(), STRING_LIST))
+                .setFailedOperations(readJson(record.getFailedOperations(), FAILED_LIST))
+                .setErrorMessage(record.getErrorMessage())
+                .setCreatedTime(record.getCreatedTime())
+                .setCompletedTime(record.getCompletedTime());
+    }
+
+    private String writeJson(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize task field", e);
+        }
+    }
+
+    private <T> List<T> readJson(String json, TypeReference<List<T>> type) {
+        if (json == null || json.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to parse task field: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+}
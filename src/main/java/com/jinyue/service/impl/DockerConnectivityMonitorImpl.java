@@ -0,0 +1,96 @@
+package com.jinyue.service.impl;
+
+import com.github.dockerjava.api.DockerClient;
+import com.jinyue.exception.DockerUnavailableException;
+import com.jinyue.service.IDockerConnectivity;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Docker连通性监控实现
+ * 定时ping守护进程，状态切换时记录日志并发布ConnectivityChanged事件；
+ * 指标 napcat.docker.available（1可用，0不可用）
+ */
+@Slf4j
+@Service
+public class DockerConnectivityMonitorImpl implements IDockerConnectivity {
+
+    private final DockerClient dockerClient;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * null表示尚未完成首次探测
+     */
+    private volatile Boolean lastState;
+    private volatile String lastError;
+    // 只保护状态比较和切换，事件在释放锁之后发布，监听器中的慢操作不会阻塞其他探测
+    private final ReentrantLock stateLock = new ReentrantLock();
+
+    /**
+     * 使用短超时的探测客户端，Docker不可达时探测不会阻塞共享的定时任务线程
+     */
+    public DockerConnectivityMonitorImpl(@Qualifier("dockerPingClient") DockerClient dockerClient,
+                                         ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.dockerClient = dockerClient;
+        this.eventPublisher = eventPublisher;
+        Gauge.builder("napcat.docker.available", this, monitor -> monitor.isAvailable() ? 1 : 0)
+                .description("Docker守护进程是否可达")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return !Boolean.FALSE.equals(lastState);
+    }
+
+    @Override
+    public void requireAvailable() {
+        if (!isAvailable()) {
+            throw new DockerUnavailableException("Docker不可用: " + lastError);
+        }
+    }
+
+    @Override
+    @Scheduled(initialDelay = 0, fixedDelayString = "${napcat.docker.connectivity.check-interval:5000}")
+    public boolean check() {
+        boolean available;
+        String error = null;
+        try {
+            dockerClient.pingCmd().exec();
+            available = true;
+        } catch (Exception e) {
+            available = false;
+            error = e.getMessage();
+        }
+        update(available, error);
+        return available;
+    }
+
+    private void update(boolean available, String error) {
+        Boolean previous;
+        stateLock.lock();
+        try {
+            lastError = error;
+            if (Boolean.valueOf(available).equals(lastState)) {
+                return;
+            }
+            previous = lastState;
+            lastState = available;
+        } finally {
+            stateLock.unlock();
+        }
+        if (available) {
+            log.info(previous == null ? "Docker daemon reachable" : "Docker daemon reachable again, leaving degraded mode");
+        } else {
+            log.warn("Docker daemon unreachable, entering degraded mode: {}", error);
+        }
+        eventPublisher.publishEvent(new ConnectivityChanged(available, error));
+    }
+}
@@ -1,26 +1,35 @@
 package com.jinyue.service.impl;
 
 import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
 import com.github.dockerjava.api.command.CreateContainerResponse;
 import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.command.InspectVolumeResponse;
 import com.github.dockerjava.api.exception.NotFoundException;
 import com.github.dockerjava.api.model.*;
 import com.jinyue.dto.NapcatConfig;
+import com.jinyue.metrics.TarCopyEvent;
 import com.jinyue.service.IDockerService;
+import com.jinyue.utils.TarArchives;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.utils.CountingInputStream;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class DockerServiceImpl implements IDockerService {
 
+    private static final String VOLUME_PREFIX = "napcat-data-";
+
     private final DockerClient dockerClient;
 
     @Value("${napcat.docker.image}")
@@ -32,6 +41,9 @@ public class DockerServiceImpl implements IDockerService {
     @Value("${napcat.docker.container-prefix}")
     private String containerPrefix;
 
+    @Value("${napcat.docker.events-timeout-seconds:30}")
+    private long eventsTimeoutSeconds;
+
 
     @Override
     public String createContainer(String instanceName, NapcatConfig config, int port) {
@@ -175,6 +187,68 @@ public class DockerServiceImpl implements IDockerService {
         }
     }
 
+    @Override
+    public List<Event> listContainerEvents(long sinceEpochSeconds, long untilEpochSeconds) {
+        List<Event> events = new ArrayList<>();
+        try {
+            boolean completed = dockerClient.eventsCmd()
+                    .withSince(String.valueOf(sinceEpochSeconds))
+                    .withUntil(String.valueOf(untilEpochSeconds))
+                    .withEventTypeFilter(EventType.CONTAINER)
+                    .withLabelFilter(Map.of("napcat.manager", "xxf-instance-manager"))
+                    .exec(new ResultCallback.Adapter<Event>() {
+                        @Override
+                        public void onNext(Event event) {
+                            events.add(event);
+                        }
+                    })
+                    .awaitCompletion(eventsTimeoutSeconds, TimeUnit.SECONDS);
+            if (!completed) {
+                throw new IllegalStateException("Timed out reading events after " + eventsTimeoutSeconds + "s");
+            }
+            return events;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while reading container events", e);
+        } catch (Exception e) {
+            log.error("Failed to read container events: {}", e.getMessage());
+            throw new RuntimeException("Failed to read container events", e);
+        }
+    }
+
+    @Override
+    public List<InspectVolumeResponse> listNapcatVolumes() {
+        try {
+            List<InspectVolumeResponse> volumes = dockerClient.listVolumesCmd()
+                    .withFilter("name", List.of(VOLUME_PREFIX))
+                    .exec()
+                    .getVolumes();
+            if (volumes == null) {
+                return Collections.emptyList();
+            }
+            // name过滤是子串匹配，这里再按前缀精确筛选
+            return volumes.stream()
+                    .filter(volume -> volume.getName() != null && volume.getName().startsWith(VOLUME_PREFIX))
+                    .toList();
+        } catch (Exception e) {
+            log.error("Failed to list napcat volumes: {}", e.getMessage());
+            throw new RuntimeException("Failed to list volumes", e);
+        }
+    }
+
+    @Override
+    public void removeVolume(String volumeName) {
+        try {
+            dockerClient.removeVolumeCmd(volumeName).exec();
+            log.info("Removed volume: {}", volumeName);
+        } catch (NotFoundException e) {
+            log.info("Volume {} not found, may already be removed", volumeName);
+        } catch (Exception e) {
+            log.error("Failed to remove volume {}: {}", volumeName, e.getMessage());
+            throw new RuntimeException("Failed to remove volume", e);
+        }
+    }
+
     private void pullImageIfNotExists() throws InterruptedException {
         try {
             dockerClient.inspectImageCmd(napcatImage).exec();
@@ -280,7 +354,7 @@ public class DockerServiceImpl implements IDockerService {
         List<Bind> binds = new ArrayList<>();
 
         // 使用命名Volume替代Bind挂载
-        String volumeName = "napcat-data-" + instanceName;
+        String volumeName = getInstanceDataPath(instanceName);
         String containerDataPath = "/app/napcat";
 
         // 创建Volume挂载绑定
@@ -295,7 +369,7 @@ public class DockerServiceImpl implements IDockerService {
      */
     public String getInstanceDataPath(String instanceName) {
         // 对于Volume挂载，返回Volume名称
-        return "napcat-data-" + instanceName;
+        return VOLUME_PREFIX + instanceName;
     }
 
     /**
@@ -303,6 +377,7 @@ public class DockerServiceImpl implements IDockerService {
      */
     @Override
     public byte[] copyFileFromContainer(String containerId, String containerPath) {
+        TarCopyEvent event = tarCopyEvent(TarCopyEvent.FROM_CONTAINER, containerId, containerPath);
         try {
             // 检查容器是否存在且运行中
             if (!containerExists(containerId)) {
@@ -317,61 +392,32 @@ public class DockerServiceImpl implements IDockerService {
             }
 
             // 使用Docker API复制文件
-            try (var inputStream = dockerClient.copyArchiveFromContainerCmd(containerId, containerPath).exec()) {
-                // 读取tar格式的输入流
-                return extractFileFromTarStream(inputStream);
+            try (var inputStream = new CountingInputStream(
+                    dockerClient.copyArchiveFromContainerCmd(containerId, containerPath).exec())) {
+                // 读取tar格式的输入流，archiveBytes记录实际从归档流读取的字节数（含tar头），而非文件内容长度
+                try {
+                    byte[] content = TarArchives.extractFirstFile(inputStream);
+                    event.success = content != null;
+                    return content;
+                } finally {
+                    event.archiveBytes = inputStream.getBytesRead();
+                }
             }
 
         } catch (Exception e) {
             log.error("Failed to copy file {} from container {}: {}", containerPath, containerId, e.getMessage());
             return null;
+        } finally {
+            event.commit();
         }
     }
 
-    /**
-     * 从tar流中提取文件内容
-     */
-    private byte[] extractFileFromTarStream(java.io.InputStream tarStream) throws java.io.IOException {
-        try (var bufferedStream = new java.io.BufferedInputStream(tarStream);
-             var byteOutput = new java.io.ByteArrayOutputStream()) {
-
-            // 简单的tar文件头解析
-            byte[] header = new byte[512];
-
-            while (bufferedStream.read(header) == 512) {
-                // 获取文件大小（tar头部的124-135字节，8进制表示）
-                String sizeStr = new String(header, 124, 11).trim();
-                if (sizeStr.isEmpty()) continue;
-
-                long size;
-                try {
-                    size = Long.parseLong(sizeStr, 8);
-                } catch (NumberFormatException e) {
-                    continue;
-                }
-
-                if (size > 0) {
-                    // 读取文件内容
-                    byte[] fileContent = new byte[(int) size];
-                    int bytesRead = bufferedStream.read(fileContent);
-                    if (bytesRead > 0) {
-                        return java.util.Arrays.copyOf(fileContent, bytesRead);
-                    }
-                }
-
-                // 跳过padding到512字节边界
-                long padding = (512 - (size % 512)) % 512;
-                bufferedStream.skip(padding);
-            }
-        }
-        return null;
-    }
-
     /**
      * 复制文件到容器中
      */
     @Override
     public void copyFileToContainer(String containerId, String fileContent, String containerPath) {
+        TarCopyEvent event = tarCopyEvent(TarCopyEvent.TO_CONTAINER, containerId, containerPath);
         try {
             // 检查容器是否存在
             if (!containerExists(containerId)) {
@@ -379,7 +425,8 @@ public class DockerServiceImpl implements IDockerService {
             }
 
             // 创建临时tar包含文件内容
-            byte[] tarData = createTarArchive(fileContent, getFileNameFromPath(containerPath));
+            byte[] tarData = TarArchives.createSingleFile(getFileNameFromPath(containerPath), fileContent);
+            event.archiveBytes = tarData.length;
 
             // 获取目标目录路径（去掉文件名）
             String targetDir = getDirectoryFromPath(containerPath);
@@ -392,36 +439,24 @@ public class DockerServiceImpl implements IDockerService {
                         .exec();
             }
 
+            event.success = true;
             log.info("Successfully copied file to container {}: {}", containerId, containerPath);
 
         } catch (Exception e) {
             log.error("Failed to copy file to container {}: {}", containerId, e.getMessage());
             throw new RuntimeException("Failed to copy file to container", e);
+        } finally {
+            event.commit();
         }
     }
 
-    /**
-     * 创建包含单个文件的tar归档
-     */
-    private byte[] createTarArchive(String fileContent, String fileName) throws java.io.IOException {
-        try (var byteOutput = new java.io.ByteArrayOutputStream();
-             var tarOutput = new org.apache.commons.compress.archivers.tar.TarArchiveOutputStream(byteOutput)) {
-
-            byte[] contentBytes = fileContent.getBytes(java.nio.charset.StandardCharsets.UTF_8);
-
-            // 创建tar条目
-            org.apache.commons.compress.archivers.tar.TarArchiveEntry entry =
-                new org.apache.commons.compress.archivers.tar.TarArchiveEntry(fileName);
-            entry.setSize(contentBytes.length);
-            entry.setMode(0644); // 设置文件权限
-
-            tarOutput.putArchiveEntry(entry);
-            tarOutput.write(contentBytes);
-            tarOutput.closeArchiveEntry();
-            tarOutput.finish();
-
-            return byteOutput.toByteArray();
-        }
+    private TarCopyEvent tarCopyEvent(String direction, String containerId, String containerPath) {
+        TarCopyEvent event = new TarCopyEvent();
+        event.direction = direction;
+        event.containerId = containerId;
+        event.path = containerPath;
+        event.begin();
+        return event;
     }
 
     /**
@@ -439,6 +474,22 @@ public class DockerServiceImpl implements IDockerService {
         return lastSlash > 0 ? path.substring(0, lastSlash) : "/";
     }
 
+    @Override
+    public <T extends com.github.dockerjava.api.async.ResultCallback<Frame>> T logContainer(
+            String containerId, int tail, boolean follow, T callback) {
+        try {
+            return dockerClient.logContainerCmd(containerId)
+                    .withStdOut(true)
+                    .withStdErr(true)
+                    .withFollowStream(follow)
+                    .withTail(tail)
+                    .exec(callback);
+        } catch (Exception e) {
+            log.error("Failed to attach logs for container {}: {}", containerId, e.getMessage());
+            throw new RuntimeException("Failed to attach container logs", e);
+        }
+    }
+
     private static class PullImageResultCallback extends com.github.dockerjava.api.async.ResultCallback.Adapter<PullResponseItem> {
         @Override
         public void onNext(PullResponseItem item) {
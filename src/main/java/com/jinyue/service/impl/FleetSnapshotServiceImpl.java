@@ -0,0 +1,178 @@
+package com.jinyue.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.model.Event;
+import com.jinyue.dto.ContainerStateSnapshot;
+import com.jinyue.dto.FleetSnapshot;
+import com.jinyue.mapper.NapcatInstanceMapper;
+import com.jinyue.service.IContainerStateCache;
+import com.jinyue.service.IDockerService;
+import com.jinyue.service.IFleetSnapshotService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 容器状态快照持久化实现
+ * 快照内容取自容器状态缓存（状态）和数据库（实例ID、端口），先写临时文件再原子替换；
+ * 恢复时从快照的观测时间（减去重叠窗口）回放容器事件到当前时间，事件按顺序覆盖状态，重复回放不影响结果；
+ * 守护进程只保留最近的事件，回放读满事件缓冲时视为可能有缺口，改为全量检查
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FleetSnapshotServiceImpl implements IFleetSnapshotService {
+
+    /**
+     * 守护进程内存中保留的历史事件条数，回放读到这么多事件时更早的事件可能已被丢弃
+     */
+    private static final int DAEMON_EVENT_BUFFER = 256;
+
+    private final IContainerStateCache containerStateCache;
+    private final IDockerService dockerService;
+    private final NapcatInstanceMapper instanceMapper;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicBoolean restoreAttempted = new AtomicBoolean();
+
+    @Value("${napcat.fleet-snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${napcat.fleet-snapshot.path:data/fleet-snapshot.json}")
+    private String path;
+
+    @Value("${napcat.fleet-snapshot.max-age-minutes:60}")
+    private long maxAgeMinutes;
+
+    @Value("${napcat.fleet-snapshot.event-overlap-seconds:30}")
+    private long eventOverlapSeconds;
+
+    @Override
+    @Scheduled(initialDelayString = "${napcat.fleet-snapshot.interval:60000}",
+               fixedDelayString = "${napcat.fleet-snapshot.interval:60000}")
+    public void save() {
+        if (!enabled) {
+            return;
+        }
+        ContainerStateSnapshot snapshot = containerStateCache.snapshot();
+        if (snapshot == null) {
+            log.debug("No fresh container state, skipping fleet snapshot");
+            return;
+        }
+
+        try {
+            List<FleetSnapshot.Entry> entries = instanceMapper.selectFleetEntries();
+            entries.forEach(entry -> entry.setContainerStatus(snapshot.statusOf(entry.getContainerId())));
+            FleetSnapshot fleetSnapshot = new FleetSnapshot()
+                    .setSavedTime(System.currentTimeMillis())
+                    .setEventOffset(snapshot.getRefreshedTime().atZone(ZoneId.systemDefault()).toEpochSecond())
+                    .setContainers(entries);
+
+            Path target = Path.of(path);
+            Path parent = target.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            objectMapper.writeValue(temp.toFile(), fleetSnapshot);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Fleet snapshot saved: {} containers to {}", entries.size(), target);
+        } catch (Exception e) {
+            log.warn("Failed to save fleet snapshot to {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * 停机时写入最新状态，下次启动的回放区间最短
+     */
+    @PreDestroy
+    public void saveOnShutdown() {
+        save();
+    }
+
+    @Override
+    public ContainerStateSnapshot restore() {
+        if (!enabled || !restoreAttempted.compareAndSet(false, true)) {
+            return null;
+        }
+        Path source = Path.of(path);
+        if (!Files.exists(source)) {
+            log.info("No fleet snapshot at {}, falling back to full container check", source);
+            return null;
+        }
+
+        try {
+            FleetSnapshot fleetSnapshot = objectMapper.readValue(source.toFile(), FleetSnapshot.class);
+            long ageMillis = System.currentTimeMillis() - fleetSnapshot.getSavedTime();
+            if (ageMillis > TimeUnit.MINUTES.toMillis(maxAgeMinutes)) {
+                log.info("Fleet snapshot is {} minutes old, falling back to full container check",
+                        TimeUnit.MILLISECONDS.toMinutes(ageMillis));
+                return null;
+            }
+
+            Map<String, IDockerService.ContainerStatus> statuses = new HashMap<>();
+            for (FleetSnapshot.Entry entry : fleetSnapshot.getContainers()) {
+                if (entry.getContainerStatus() != null
+                        && entry.getContainerStatus() != IDockerService.ContainerStatus.NOT_FOUND) {
+                    statuses.put(entry.getContainerId(), entry.getContainerStatus());
+                }
+            }
+
+            Instant until = Instant.now();
+            List<Event> events = dockerService.listContainerEvents(
+                    fleetSnapshot.getEventOffset() - eventOverlapSeconds, until.getEpochSecond());
+            if (events.size() >= DAEMON_EVENT_BUFFER) {
+                log.info("Replayed {} events, older events may have been dropped by the daemon, "
+                        + "falling back to full container check", events.size());
+                return null;
+            }
+            events.forEach(event -> apply(statuses, event));
+
+            ContainerStateSnapshot restored = new ContainerStateSnapshot(statuses,
+                    LocalDateTime.ofInstant(until, ZoneId.systemDefault()));
+            containerStateCache.seed(restored);
+            log.info("Fleet state restored from snapshot ({} containers, {}s old), replayed {} events",
+                    statuses.size(), TimeUnit.MILLISECONDS.toSeconds(ageMillis), events.size());
+            return restored;
+        } catch (Exception e) {
+            log.warn("Failed to restore fleet snapshot from {}, falling back to full container check: {}",
+                    source, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 按容器事件更新状态，不影响状态的事件（exec、attach、kill等）忽略
+     */
+    private static void apply(Map<String, IDockerService.ContainerStatus> statuses, Event event) {
+        String containerId = event.getActor() != null && event.getActor().getId() != null
+                ? event.getActor().getId() : event.getId();
+        String action = event.getAction() != null ? event.getAction() : event.getStatus();
+        if (containerId == null || action == null) {
+            return;
+        }
+        switch (action) {
+            case "create", "die", "stop" -> statuses.put(containerId, IDockerService.ContainerStatus.STOPPED);
+            case "start", "restart", "unpause" -> statuses.put(containerId, IDockerService.ContainerStatus.RUNNING);
+            case "pause" -> statuses.put(containerId, IDockerService.ContainerStatus.PAUSED);
+            case "destroy" -> statuses.remove(containerId);
+            default -> {
+            }
+        }
+    }
+}
@@ -1,22 +1,29 @@
 package com.jinyue.service.impl;
 
+import com.jinyue.dto.ContainerStateSnapshot;
 import com.jinyue.dto.CreateInstanceRequest;
 import com.jinyue.dto.NapcatConfig;
+import com.jinyue.entity.LifecycleOperation;
 import com.jinyue.entity.NapcatInstance;
+import com.jinyue.mapper.NapcatInstanceMapper;
+import com.jinyue.service.IContainerStateCache;
+import com.jinyue.service.IDockerConnectivity;
 import com.jinyue.service.IDockerService;
+import com.jinyue.service.IFleetSnapshotService;
 import com.jinyue.service.IInstanceHealthCheckService;
+import com.jinyue.service.IInstanceStatusWriter;
 import com.jinyue.service.INapcatInstanceService;
 import com.jinyue.utils.NapcatConfigFileGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 /**
  * 实例健康检查服务实现
@@ -27,38 +34,83 @@ import java.util.concurrent.TimeUnit;
 public class InstanceHealthCheckServiceImpl implements IInstanceHealthCheckService {
 
     private final INapcatInstanceService instanceService;
+    private final NapcatInstanceMapper instanceMapper;
     private final IDockerService dockerService;
     private final NapcatConfigFileGenerator configFileGenerator;
+    private final IInstanceStatusWriter statusWriter;
+    private final IFleetSnapshotService fleetSnapshotService;
+    private final IContainerStateCache containerStateCache;
+    private final IDockerConnectivity dockerConnectivity;
 
     @Value("${server.port}")
     private int serverPort;
 
+    @Value("${napcat.instance.transition-timeout-minutes:10}")
+    private long transitionTimeoutMinutes;
+
     /**
-     * 应用启动完成后自动执行健康检查
+     * Docker首次可达及每次恢复连通后执行健康检查，不再在启动后固定等待
      */
-    @EventListener(ApplicationReadyEvent.class)
+    @EventListener
     @Async
+    public void onDockerConnectivityChanged(IDockerConnectivity.ConnectivityChanged event) {
+        if (event.available()) {
+            performStartupHealthCheck();
+        }
+    }
+
     @Override
     public void performStartupHealthCheck() {
         try {
-            // 延迟10秒执行，确保所有服务（包括Docker）都已初始化
-            log.info("健康检查将在10秒后执行...");
-            TimeUnit.SECONDS.sleep(10);
-
             log.info("=== 开始执行实例健康检查 ===");
-            doHealthCheck();
-        } catch (InterruptedException e) {
-            log.error("健康检查延迟执行被中断", e);
-            Thread.currentThread().interrupt();
+            // 首次检查优先使用本地快照+事件回放恢复的状态，其次是容器状态缓存，都没有时逐个检查容器
+            ContainerStateSnapshot known = fleetSnapshotService.restore();
+            if (known == null) {
+                known = containerStateCache.snapshot();
+            }
+            doHealthCheck(known);
+            recoverStaleTransitions();
         } catch (Exception e) {
             log.error("健康检查执行失败", e);
         }
     }
 
+    @Override
+    @Scheduled(fixedDelayString = "${napcat.instance.health-check-interval:30000}")
+    public void recoverStaleTransitions() {
+        if (!dockerConnectivity.isAvailable()) {
+            return;
+        }
+
+        LocalDateTime staleBefore = LocalDateTime.now().minusMinutes(transitionTimeoutMinutes);
+        for (NapcatInstance instance : instanceMapper.selectStaleTransitions(staleBefore)) {
+            try {
+                IDockerService.ContainerStatus containerStatus = instance.getContainerId() != null
+                        ? dockerService.getContainerStatus(instance.getContainerId())
+                        : IDockerService.ContainerStatus.NOT_FOUND;
+                NapcatInstance.InstanceStatus target = LifecycleOperation.recoveryTarget(
+                        instance, containerStatus.toInstanceStatus(), staleBefore);
+                if (target == null) {
+                    continue;
+                }
+                // 条件更新：期间重新开始的操作会刷新updated_time，不会被覆盖
+                int updated = instanceMapper.resetStaleTransition(
+                        instance.getId(), instance.getStatus(), target, staleBefore, LocalDateTime.now());
+                if (updated > 0) {
+                    log.warn("实例 {} 在 {} 状态滞留超过 {} 分钟，已按容器状态 {} 恢复为 {}",
+                            instance.getName(), instance.getStatus(), transitionTimeoutMinutes, containerStatus, target);
+                }
+            } catch (Exception e) {
+                log.warn("恢复实例 {} 的过渡状态失败: {}", instance.getName(), e.getMessage());
+            }
+        }
+    }
+
     /**
      * 执行健康检查逻辑
+     * @param known 已知的容器状态，为null时逐个向Docker查询容器是否存在
      */
-    private void doHealthCheck() {
+    private void doHealthCheck(ContainerStateSnapshot known) {
         List<NapcatInstance> allInstances = instanceService.list();
         if (allInstances.isEmpty()) {
             log.info("没有实例需要检查");
@@ -80,7 +132,10 @@ public class InstanceHealthCheckServiceImpl implements IInstanceHealthCheckServi
                     continue;
                 }
 
-                if (!dockerService.containerExists(instance.getContainerId())) {
+                boolean exists = known != null
+                        ? known.statusOf(instance.getContainerId()) != IDockerService.ContainerStatus.NOT_FOUND
+                        : dockerService.containerExists(instance.getContainerId());
+                if (!exists) {
                     log.warn("实例 {} (QQ: {}) 的容器 {} 不存在，标记为需要修复",
                             instance.getName(), instance.getQqAccount(), instance.getContainerId());
                     markInstanceAsNeedRepair(instance);
@@ -109,7 +164,7 @@ public class InstanceHealthCheckServiceImpl implements IInstanceHealthCheckServi
         // 如果实例状态是RUNNING，改为STOPPED（因为容器不存在了）
         if (instance.getStatus() == NapcatInstance.InstanceStatus.RUNNING) {
             instance.setStatus(NapcatInstance.InstanceStatus.STOPPED);
-            instanceService.updateById(instance);
+            statusWriter.stage(instance.getId(), NapcatInstance.InstanceStatus.STOPPED);
             log.info("已将实例 {} 状态从 RUNNING 修改为 STOPPED", instance.getName());
         }
     }
@@ -145,10 +200,9 @@ public class InstanceHealthCheckServiceImpl implements IInstanceHealthCheckServi
             String newContainerId = createContainerForInstance(instance);
 
             if (newContainerId != null) {
-                // 更新实例的容器ID
+                // 只更新容器ID列，状态由调用方的生命周期操作通过条件更新维护
                 instance.setContainerId(newContainerId);
-                instance.setStatus(NapcatInstance.InstanceStatus.STOPPED);
-                instanceService.updateById(instance);
+                instanceMapper.updateContainerId(instanceId, newContainerId, LocalDateTime.now());
 
                 log.info("实例 {} 容器重建成功，新容器ID: {}", instance.getName(), newContainerId);
                 return true;
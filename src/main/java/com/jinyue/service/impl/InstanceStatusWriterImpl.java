@@ -0,0 +1,79 @@
+package com.jinyue.service.impl;
+
+import com.jinyue.dto.InstanceStatusUpdate;
+import com.jinyue.entity.NapcatInstance;
+import com.jinyue.mapper.NapcatInstanceMapper;
+import com.jinyue.service.IInstanceStatusWriter;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 实例状态写入实现（write-behind）
+ * 延迟状态按实例ID合并在内存中，定时以一条UPDATE ... FROM (VALUES ...)语句批量落库
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InstanceStatusWriterImpl implements IInstanceStatusWriter {
+
+    private final NapcatInstanceMapper instanceMapper;
+
+    private final ConcurrentHashMap<String, InstanceStatusUpdate> pending = new ConcurrentHashMap<>();
+
+    @Value("${napcat.status.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public void stage(String instanceId, NapcatInstance.InstanceStatus status) {
+        pending.put(instanceId, new InstanceStatusUpdate(instanceId, status, LocalDateTime.now()));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${napcat.status.flush-interval:500}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<InstanceStatusUpdate> batch = new ArrayList<>();
+        for (Map.Entry<String, InstanceStatusUpdate> entry : pending.entrySet()) {
+            // 只移除快照中的这一版，期间被覆盖的新状态留到下次刷新
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.add(entry.getValue());
+            }
+            if (batch.size() >= batchSize) {
+                write(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void write(List<InstanceStatusUpdate> batch) {
+        try {
+            int updated = instanceMapper.batchUpdateStatus(batch);
+            log.debug("Flushed {} coalesced status updates, {} rows changed", batch.size(), updated);
+        } catch (Exception e) {
+            // 写失败时放回队列，除非期间已有更新的状态
+            batch.forEach(update -> pending.putIfAbsent(update.getId(), update));
+            log.warn("Failed to flush {} status updates, will retry: {}", batch.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.jinyue.service.impl;
+
+import com.jinyue.dto.FleetTrafficStats;
+import com.jinyue.dto.InstanceTrafficStats;
+import com.jinyue.service.IInstanceTrafficService;
+import com.jinyue.utils.StripedLatencyHistogram;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 机器人消息流量统计实现
+ * 热路径只做LongAdder累加，不加锁；每秒消息数由后台按固定窗口对累计值求差得到，
+ * 长时间没有消息的self_id在采样时淘汰
+ */
+@Slf4j
+@Service
+public class InstanceTrafficServiceImpl implements IInstanceTrafficService {
+
+    private final ConcurrentHashMap<String, TrafficCounters> counters = new ConcurrentHashMap<>();
+
+    @Value("${napcat.traffic.idle-eviction-minutes:1440}")
+    private long idleEvictionMinutes;
+
+    private long lastSampleNanos = System.nanoTime();
+
+    @Override
+    public void recordReceived(String selfId, String messageType) {
+        TrafficCounters traffic = countersFor(selfId);
+        traffic.received.increment();
+        if ("group".equals(messageType)) {
+            traffic.groupMessages.increment();
+        } else {
+            traffic.privateMessages.increment();
+        }
+        traffic.lastMessageMillis = System.currentTimeMillis();
+    }
+
+    @Override
+    public void recordForward(String selfId, long latencyNanos, boolean success) {
+        TrafficCounters traffic = countersFor(selfId);
+        if (success) {
+            traffic.forwarded.increment();
+        } else {
+            traffic.forwardFailures.increment();
+        }
+        traffic.forwardLatency.record(latencyNanos);
+    }
+
+    @Override
+    public InstanceTrafficStats getStats(String selfId) {
+        TrafficCounters traffic = counters.get(selfId);
+        if (traffic == null) {
+            return new InstanceTrafficStats().setSelfId(selfId);
+        }
+        return toStats(selfId, traffic);
+    }
+
+    @Override
+    public FleetTrafficStats getFleetStats(int top) {
+        FleetTrafficStats fleet = new FleetTrafficStats();
+        long[] latencyBuckets = null;
+        long latencyTotalNanos = 0;
+
+        for (var entry : counters.entrySet()) {
+            TrafficCounters traffic = entry.getValue();
+            fleet.setReceived(fleet.getReceived() + traffic.received.sum());
+            fleet.setGroupMessages(fleet.getGroupMessages() + traffic.groupMessages.sum());
+            fleet.setPrivateMessages(fleet.getPrivateMessages() + traffic.privateMessages.sum());
+            fleet.setForwarded(fleet.getForwarded() + traffic.forwarded.sum());
+            fleet.setForwardFailures(fleet.getForwardFailures() + traffic.forwardFailures.sum());
+            fleet.setMessagesPerSecond(fleet.getMessagesPerSecond() + traffic.messagesPerSecond);
+
+            long[] buckets = traffic.forwardLatency.snapshot();
+            if (latencyBuckets == null) {
+                latencyBuckets = buckets;
+            } else {
+                for (int i = 0; i < buckets.length; i++) {
+                    latencyBuckets[i] += buckets[i];
+                }
+            }
+            latencyTotalNanos += traffic.forwardLatency.totalNanos();
+        }
+
+        fleet.setActiveSelfIds(counters.size());
+        long forwardAttempts = fleet.getForwarded() + fleet.getForwardFailures();
+        if (latencyBuckets != null && forwardAttempts > 0) {
+            fleet.setForwardLatencyAvgMs(latencyTotalNanos / 1e6 / forwardAttempts);
+            fleet.setForwardLatencyP50Ms(StripedLatencyHistogram.percentileMillis(latencyBuckets, 50));
+            fleet.setForwardLatencyP99Ms(StripedLatencyHistogram.percentileMillis(latencyBuckets, 99));
+        }
+
+        List<InstanceTrafficStats> busiest = counters.entrySet().stream()
+                .sorted(Comparator.comparingDouble(
+                        (Map.Entry<String, TrafficCounters> entry) -> entry.getValue().messagesPerSecond).reversed())
+                .limit(Math.max(0, top))
+                .map(entry -> toStats(entry.getKey(), entry.getValue()))
+                .toList();
+        fleet.setTopSelfIds(busiest);
+        return fleet;
+    }
+
+    /**
+     * 按固定窗口采样每秒消息数，并淘汰长时间无消息的self_id
+     */
+    @Scheduled(fixedRateString = "${napcat.traffic.rate-window-ms:10000}")
+    public void sampleRates() {
+        long now = System.nanoTime();
+        double elapsedSeconds = (now - lastSampleNanos) / 1e9;
+        lastSampleNanos = now;
+        long idleBefore = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(idleEvictionMinutes);
+
+        counters.forEach((selfId, traffic) -> {
+            long received = traffic.received.sum();
+            traffic.messagesPerSecond = elapsedSeconds > 0 ? (received - traffic.lastSampledReceived) / elapsedSeconds : 0;
+            traffic.lastSampledReceived = received;
+
+            if (traffic.lastMessageMillis < idleBefore && counters.remove(selfId, traffic)) {
+                log.debug("Evicted idle traffic counters for selfId {}", selfId);
+            }
+        });
+    }
+
+    private TrafficCounters countersFor(String selfId) {
+        TrafficCounters traffic = counters.get(selfId);
+        return traffic != null ? traffic : counters.computeIfAbsent(selfId, id -> new TrafficCounters());
+    }
+
+    private InstanceTrafficStats toStats(String selfId, TrafficCounters traffic) {
+        long forwarded = traffic.forwarded.sum();
+        long failures = traffic.forwardFailures.sum();
+        long[] buckets = traffic.forwardLatency.snapshot();
+
+        InstanceTrafficStats stats = new InstanceTrafficStats()
+                .setSelfId(selfId)
+                .setReceived(traffic.received.sum())
+                .setGroupMessages(traffic.groupMessages.sum())
+                .setPrivateMessages(traffic.privateMessages.sum())
+                .setMessagesPerSecond(traffic.messagesPerSecond)
+                .setForwarded(forwarded)
+                .setForwardFailures(failures)
+                .setForwardLatencyP50Ms(StripedLatencyHistogram.percentileMillis(buckets, 50))
+                .setForwardLatencyP99Ms(StripedLatencyHistogram.percentileMillis(buckets, 99))
+                .setLastMessageTime(LocalDateTime.ofInstant(
+                        Instant.ofEpochMilli(traffic.lastMessageMillis), ZoneId.systemDefault()));
+        if (forwarded + failures > 0) {
+            stats.setForwardLatencyAvgMs(traffic.forwardLatency.totalNanos() / 1e6 / (forwarded + failures));
+        }
+        return stats;
+    }
+
+    /**
+     * 单个self_id的累计计数
+     */
+    private static class TrafficCounters {
+
+        private final LongAdder received = new LongAdder();
+        private final LongAdder groupMessages = new LongAdder();
+        private final LongAdder privateMessages = new LongAdder();
+        private final LongAdder forwarded = new LongAdder();
+        private final LongAdder forwardFailures = new LongAdder();
+        private final StripedLatencyHistogram forwardLatency = new StripedLatencyHistogram();
+        private volatile long lastMessageMillis = System.currentTimeMillis();
+        private volatile double messagesPerSecond;
+        // 只由采样线程读写
+        private long lastSampledReceived;
+    }
+}
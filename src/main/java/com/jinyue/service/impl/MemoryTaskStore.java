@@ -0,0 +1,40 @@
+package com.jinyue.service.impl;
+
+import com.jinyue.entity.TaskInfo;
+import com.jinyue.service.ITaskStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * 不持久化的任务存储
+ * 任务只保存在任务管理器的内存热数据中，重启后丢失；用于没有数据库表的开发环境
+ */
+@Service
+@ConditionalOnProperty(name = "napcat.task.store", havingValue = "memory")
+public class MemoryTaskStore implements ITaskStore {
+
+    @Override
+    public void save(TaskInfo task) {
+    }
+
+    @Override
+    public void stageProgress(String taskId, Supplier<TaskInfo> progress) {
+    }
+
+    @Override
+    public void update(TaskInfo task) {
+    }
+
+    @Override
+    public TaskInfo load(String taskId) {
+        return null;
+    }
+
+    @Override
+    public int deleteCreatedBefore(LocalDateTime before) {
+        return 0;
+    }
+}
@@ -6,29 +6,46 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.jinyue.dto.InstanceOperationRequest;
 import com.jinyue.dto.InstanceOperationResponse;
-import com.jinyue.dto.CreateInstanceRequest;
+import com.jinyue.dto.ContainerStateSnapshot;
 import com.jinyue.dto.CreateMultiInstanceRequest;
 import com.jinyue.dto.InstanceResponse;
 import com.jinyue.dto.MultiInstanceResponse;
 import com.jinyue.dto.NapcatConfig;
+import com.jinyue.entity.LifecycleOperation;
 import com.jinyue.entity.NapcatInstance;
+import com.jinyue.exception.InstanceStateConflictException;
 import com.jinyue.mapper.NapcatInstanceMapper;
+import com.jinyue.metrics.LifecycleMetrics;
+import com.jinyue.metrics.LifecycleOperationEvent;
+import com.jinyue.service.IAsyncDockerService;
 import com.jinyue.service.IDockerService;
+import com.jinyue.service.IContainerStateCache;
+import com.jinyue.service.IDockerConnectivity;
 import com.jinyue.service.IInstanceHealthCheckService;
+import com.jinyue.service.IInstanceStatusWriter;
 import com.jinyue.service.INapcatInstanceService;
+import com.jinyue.service.IPortAllocationService;
 import com.jinyue.utils.NapcatConfigFileGenerator;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -39,119 +56,106 @@ public class NapcatInstanceServiceImpl extends ServiceImpl<NapcatInstanceMapper,
     private final IDockerService dockerService;
     private final NapcatConfigFileGenerator configFileGenerator;
     private final IInstanceHealthCheckService healthCheckService;
+    private final LifecycleMetrics lifecycleMetrics;
+    private final Executor provisioningExecutor;
+    private final IPortAllocationService portAllocationService;
+    private final IInstanceStatusWriter statusWriter;
+    private final IAsyncDockerService asyncDockerService;
+    private final IDockerConnectivity dockerConnectivity;
+    private final IContainerStateCache containerStateCache;
+
+    // 预留阶段（上限校验+端口分配+批量插入）串行化
+    private final ReentrantLock provisioningLock = new ReentrantLock();
+
+    private static final String OP_CREATE = "create";
+    private static final String OP_START = "start";
+    private static final String OP_STOP = "stop";
+    private static final String OP_RESTART = "restart";
+    private static final String OP_DELETE = "delete";
+    private static final String OP_ERROR = "mark-error";
+
+    // 服务端口的部分唯一索引名，用于区分端口冲突和名称冲突
+    private static final String PORT_UNIQUE_INDEX = "uk_napcat_instance_port";
 
     // 使用构造函数注入，@Lazy 打破循环依赖
     public NapcatInstanceServiceImpl(
             IDockerService dockerService,
             NapcatConfigFileGenerator configFileGenerator,
-            @Lazy IInstanceHealthCheckService healthCheckService) {
+            @Lazy IInstanceHealthCheckService healthCheckService,
+            LifecycleMetrics lifecycleMetrics,
+            @Qualifier("provisioningExecutor") Executor provisioningExecutor,
+            IPortAllocationService portAllocationService,
+            IInstanceStatusWriter statusWriter,
+            IAsyncDockerService asyncDockerService,
+            IDockerConnectivity dockerConnectivity,
+            IContainerStateCache containerStateCache) {
         this.dockerService = dockerService;
         this.configFileGenerator = configFileGenerator;
         this.healthCheckService = healthCheckService;
+        this.lifecycleMetrics = lifecycleMetrics;
+        this.provisioningExecutor = provisioningExecutor;
+        this.portAllocationService = portAllocationService;
+        this.statusWriter = statusWriter;
+        this.asyncDockerService = asyncDockerService;
+        this.dockerConnectivity = dockerConnectivity;
+        this.containerStateCache = containerStateCache;
     }
 
-    @Value("${napcat.docker.base-port}")
-    private int basePort;
-
     @Value("${napcat.instance.max-instances}")
     private int maxInstances;
 
     @Value("${server.port}")
     private int serverPort;
 
-    private InstanceResponse createInstance(CreateInstanceRequest request) {
-        validateCreateRequest(request);
-
-        checkInstanceLimit();
-
-        if (existsByName(request.getName())) {
-            throw new RuntimeException("Instance name already exists: " + request.getName());
-        }
-
-        // 处理配置，如果为空则使用默认配置
-        NapcatConfig config = request.getConfig();
-        if (config == null) {
-            config = new NapcatConfig();
-        }
+    @Value("${napcat.docker.readiness-timeout-seconds:30}")
+    private long readinessTimeoutSeconds;
 
-        // 端口逻辑：优先使用config中的端口，然后是request的port，最后是自动分配
-        int port = config.getServicePort();
-        if (port == 6099 && request.getPort() != null) {
-            // 如果config使用的是默认端口，但request指定了端口，则使用request的端口
-            port = request.getPort();
-            config.setServicePort(port);
-        }
-        if (port == 6099) {
-            // 如果仍然是默认端口，则自动分配
-            port = findAvailablePort();
-            config.setServicePort(port);
-        }
-
-        // 确保HTTP和WebSocket端口也是唯一的，避免与其他实例冲突
-        if (config.getHttpPort() == 3000) {
-            config.setHttpPort(port + 1000);
-        }
-        if (config.getWsPort() == 3001) {
-            config.setWsPort(port + 2000);
-        }
-
-        NapcatInstance instance = new NapcatInstance()
-                .setName(request.getName())
-                .setQqAccount(request.getQqAccount())
-                .setConfig(config)
-                .setPort(port)
-                .setStatus(NapcatInstance.InstanceStatus.STOPPED)
-                .setCreatedTime(LocalDateTime.now())
-                .setUpdatedTime(LocalDateTime.now());
-
-        if (!save(instance)) {
-            throw new RuntimeException("Failed to save instance to database");
+    /**
+     * 创建失败的补偿：删除已创建的容器，再物理删除实例记录
+     */
+    private void compensateCreate(NapcatInstance instance, String containerId) {
+        if (containerId != null) {
+            try {
+                dockerService.removeContainer(containerId);
+                lifecycleMetrics.compensated(OP_CREATE, "remove-container");
+            } catch (Exception e) {
+                log.warn("Compensation failed to remove container {} of instance {}, left to GC: {}",
+                        containerId, instance.getName(), e.getMessage());
+            }
         }
-
         try {
-            String containerId = dockerService.createContainer(
-                    instance.getName(),
-                    instance.getConfig(),
-                    instance.getPort()
-            );
-
-            instance.setContainerId(containerId);
-            updateById(instance);
-
-            // 生成并复制OneBot配置文件到容器
-            if (instance.getQqAccount() != null && !instance.getQqAccount().isEmpty()) {
-                generateAndCopyConfigFile(containerId, instance.getQqAccount());
-            }
-
-            log.info("Created instance: {} with container: {}", instance.getName(), containerId);
-            return InstanceResponse.from(instance);
-
+            getBaseMapper().deletePhysically(instance.getId());
+            releasePorts(instance);
+            lifecycleMetrics.compensated(OP_CREATE, "delete-row");
         } catch (Exception e) {
-            removeById(instance.getId());
-            throw new RuntimeException("Failed to create Docker container: " + e.getMessage());
+            log.error("Compensation failed to delete row of instance {}: {}", instance.getName(), e.getMessage());
         }
     }
 
     @Override
-    @Transactional
     public void startInstance(String instanceId) {
-        NapcatInstance instance = getInstanceById(instanceId);
+        lifecycleMetrics.trace(instanceId, OP_START, () -> doStartInstance(instanceId));
+    }
 
-        if (instance.getStatus() == NapcatInstance.InstanceStatus.RUNNING) {
-            log.warn("Instance {} is already running", instance.getName());
-            return;
-        }
+    /**
+     * @return 启动的容器ID（容器缺失时为修复后的新容器）
+     */
+    private String doStartInstance(String instanceId) {
+        dockerConnectivity.requireAvailable();
+        NapcatInstance instance = lifecycleMetrics.recordDb(OP_START, () -> getInstanceById(instanceId));
 
-        try {
-            instance.setStatus(NapcatInstance.InstanceStatus.STARTING);
-            updateById(instance);
+        // 步骤1：条件更新为启动中，状态冲突时快速失败
+        beginTransition(instance, LifecycleOperation.START);
 
+        boolean containerStarted = false;
+        NapcatInstance current = instance;
+        try {
             // 检查容器是否存在，不存在则自动修复
-            if (instance.getContainerId() == null ||
-                !dockerService.containerExists(instance.getContainerId())) {
+            if (current.getContainerId() == null ||
+                !lifecycleMetrics.recordDocker(OP_START, () -> dockerService.containerExists(instance.getContainerId()))) {
 
                 log.warn("Instance {} container missing (ID: {}), attempting repair",
-                        instance.getName(), instance.getContainerId());
+                        current.getName(), current.getContainerId());
 
                 boolean repaired = healthCheckService.repairInstanceContainer(instanceId);
                 if (!repaired) {
@@ -159,91 +163,206 @@ public class NapcatInstanceServiceImpl extends ServiceImpl<NapcatInstanceMapper,
                 }
 
                 // 重新获取实例（容器ID已更新）
-                instance = getInstanceById(instanceId);
+                current = lifecycleMetrics.recordDb(OP_START, () -> getInstanceById(instanceId));
                 log.info("Instance {} container repaired successfully, new container ID: {}",
-                        instance.getName(), instance.getContainerId());
+                        current.getName(), current.getContainerId());
             }
 
-            // 启动容器
-            dockerService.startContainer(instance.getContainerId());
+            // 步骤2：启动容器
+            String containerId = current.getContainerId();
+            lifecycleMetrics.recordDocker(OP_START, () -> dockerService.startContainer(containerId));
+            containerStarted = true;
 
-            instance.setStatus(NapcatInstance.InstanceStatus.RUNNING);
-            instance.setUpdatedTime(LocalDateTime.now());
-            updateById(instance);
+            // 步骤3：从启动中转换为运行中
+            NapcatInstance started = current;
+            lifecycleMetrics.recordDb(OP_START, () -> completeTransition(started, LifecycleOperation.START,
+                    NapcatInstance.InstanceStatus.RUNNING));
 
-            log.info("Started instance: {}", instance.getName());
+            log.info("Started instance: {}", current.getName());
+            return containerId;
 
         } catch (Exception e) {
-            instance.setStatus(NapcatInstance.InstanceStatus.ERROR);
-            updateById(instance);
+            compensateStart(current, containerStarted);
             throw new RuntimeException("Failed to start instance: " + e.getMessage());
         }
     }
 
+    /**
+     * 启动失败的补偿：容器已启动但状态未能落库时停止容器，最后标记为ERROR
+     */
+    private void compensateStart(NapcatInstance instance, boolean containerStarted) {
+        if (containerStarted) {
+            try {
+                dockerService.stopContainer(instance.getContainerId());
+                lifecycleMetrics.compensated(OP_START, "stop-container");
+            } catch (Exception e) {
+                log.warn("Compensation failed to stop container of instance {}: {}", instance.getName(), e.getMessage());
+            }
+        }
+        failTransition(instance, LifecycleOperation.START);
+    }
+
     @Override
-    @Transactional
     public void stopInstance(String instanceId) {
-        NapcatInstance instance = getInstanceById(instanceId);
+        lifecycleMetrics.trace(instanceId, OP_STOP, () -> doStopInstance(instanceId));
+    }
 
-        if (instance.getStatus() == NapcatInstance.InstanceStatus.STOPPED) {
-            log.warn("Instance {} is already stopped", instance.getName());
-            return;
-        }
+    private void doStopInstance(String instanceId) {
+        dockerConnectivity.requireAvailable();
+        NapcatInstance instance = lifecycleMetrics.recordDb(OP_STOP, () -> getInstanceById(instanceId));
 
-        try {
-            instance.setStatus(NapcatInstance.InstanceStatus.STOPPING);
-            updateById(instance);
+        // 步骤1：条件更新为停止中，状态冲突时快速失败
+        beginTransition(instance, LifecycleOperation.STOP);
 
-            dockerService.stopContainer(instance.getContainerId());
+        try {
+            // 步骤2：停止容器（最长30秒，不占用数据库连接）
+            if (instance.getContainerId() != null) {
+                lifecycleMetrics.recordDocker(OP_STOP, () -> dockerService.stopContainer(instance.getContainerId()));
+            }
 
-            instance.setStatus(NapcatInstance.InstanceStatus.STOPPED);
-            instance.setUpdatedTime(LocalDateTime.now());
-            updateById(instance);
+            // 步骤3：从停止中转换为已停止
+            lifecycleMetrics.recordDb(OP_STOP, () -> completeTransition(instance, LifecycleOperation.STOP,
+                    NapcatInstance.InstanceStatus.STOPPED));
 
             log.info("Stopped instance: {}", instance.getName());
 
         } catch (Exception e) {
-            instance.setStatus(NapcatInstance.InstanceStatus.ERROR);
-            updateById(instance);
+            failTransition(instance, LifecycleOperation.STOP);
+            lifecycleMetrics.compensated(OP_STOP, "mark-error");
             throw new RuntimeException("Failed to stop instance: " + e.getMessage());
         }
     }
 
     @Override
-    @Transactional
     public void restartInstance(String instanceId) {
-        stopInstance(instanceId);
+        lifecycleMetrics.trace(instanceId, OP_RESTART, () -> doRestartInstance(instanceId));
+    }
+
+    private void doRestartInstance(String instanceId) {
+        dockerConnectivity.requireAvailable();
+        NapcatInstance instance = lifecycleMetrics.recordDb(OP_RESTART, () -> getInstanceById(instanceId));
+        String reason = LifecycleOperation.RESTART.check(instance.getStatus());
+        if (reason != null) {
+            throw new InstanceStateConflictException(instanceId, "restart", String.valueOf(instance.getStatus()), reason);
+        }
+
+        // docker stop在容器退出后才返回，停止后可以直接启动
+        if (instance.getStatus() != NapcatInstance.InstanceStatus.STOPPED) {
+            stopInstance(instanceId);
+        }
+        String containerId = lifecycleMetrics.trace(instanceId, OP_START, () -> doStartInstance(instanceId));
+
+        // 轮询容器状态确认保持运行，代替固定等待；探测失败只记录日志，与自动启动一致
         try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            lifecycleMetrics.recordDocker(OP_RESTART, () -> asyncDockerService.awaitRunningAsync(
+                    containerId, Duration.ofSeconds(readinessTimeoutSeconds)).join());
+        } catch (CompletionException e) {
+            log.warn("Instance {} did not become ready after restart: {}", instance.getName(),
+                    e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
         }
-        startInstance(instanceId);
     }
 
     @Override
-    @Transactional
     public void deleteInstance(String instanceId) {
-        NapcatInstance instance = getInstanceById(instanceId);
+        lifecycleMetrics.trace(instanceId, OP_DELETE, () -> doDeleteInstance(instanceId));
+    }
 
-        if (instance.getStatus() == NapcatInstance.InstanceStatus.RUNNING) {
-            stopInstance(instanceId);
-        }
+    private void doDeleteInstance(String instanceId) {
+        dockerConnectivity.requireAvailable();
+        NapcatInstance instance = lifecycleMetrics.recordDb(OP_DELETE, () -> getInstanceById(instanceId));
+        boolean wasRunning = instance.getStatus() == NapcatInstance.InstanceStatus.RUNNING;
+
+        // 标记为删除中，之后的启停请求都会被拒绝
+        beginTransition(instance, LifecycleOperation.DELETE);
 
         try {
-            if (instance.getContainerId() != null &&
-                dockerService.containerExists(instance.getContainerId())) {
-                dockerService.removeContainer(instance.getContainerId());
+            if (instance.getContainerId() != null) {
+                if (wasRunning) {
+                    lifecycleMetrics.recordDocker(OP_DELETE, () -> dockerService.stopContainer(instance.getContainerId()));
+                }
+                lifecycleMetrics.recordDocker(OP_DELETE, () -> dockerService.removeContainer(instance.getContainerId()));
             }
 
-            removeById(instanceId);
+            lifecycleMetrics.recordDb(OP_DELETE, () -> removeById(instanceId));
+            releasePorts(instance);
+            removeInstanceVolume(instance);
             log.info("Deleted instance: {}", instance.getName());
 
         } catch (Exception e) {
+            failTransition(instance, LifecycleOperation.DELETE);
             throw new RuntimeException("Failed to delete instance: " + e.getMessage());
         }
     }
 
+    /**
+     * 进入操作的过渡状态
+     * 以读到的状态为期望值做条件更新，未命中说明有并发操作抢先修改了状态，直接抛出冲突
+     */
+    private void beginTransition(NapcatInstance instance, LifecycleOperation operation) {
+        String op = operation.name().toLowerCase();
+        NapcatInstance.InstanceStatus observed = instance.getStatus();
+        String reason = operation.check(observed);
+        if (reason != null) {
+            throw new InstanceStateConflictException(instance.getId(), op, String.valueOf(observed), reason);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int updated = lifecycleMetrics.recordDb(op, () -> getBaseMapper().compareAndSetStatus(
+                instance.getId(), List.of(observed), operation.getTransitional(), now));
+        if (updated == 0) {
+            NapcatInstance latest = getById(instance.getId());
+            String current = latest != null ? String.valueOf(latest.getStatus()) : "DELETED";
+            throw new InstanceStateConflictException(instance.getId(), op, current, "实例状态已被并发操作修改");
+        }
+
+        instance.setStatus(operation.getTransitional());
+        instance.setUpdatedTime(now);
+    }
+
+    /**
+     * 从过渡状态转换为目标状态，未命中时只记录日志（状态已被其他路径接管）
+     */
+    private void completeTransition(NapcatInstance instance, LifecycleOperation operation,
+                                    NapcatInstance.InstanceStatus target) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = getBaseMapper().compareAndSetStatus(
+                instance.getId(), List.of(operation.getTransitional()), target, now);
+        if (updated == 0) {
+            log.warn("Instance {} left {} before {} completed, skipping transition to {}",
+                    instance.getName(), operation.getTransitional(), operation, target);
+            return;
+        }
+        instance.setStatus(target);
+        instance.setUpdatedTime(now);
+    }
+
+    private void failTransition(NapcatInstance instance, LifecycleOperation operation) {
+        try {
+            lifecycleMetrics.recordDb(OP_ERROR, () -> completeTransition(instance, operation,
+                    NapcatInstance.InstanceStatus.ERROR));
+        } catch (Exception e) {
+            log.error("Failed to mark instance {} as ERROR: {}", instance.getName(), e.getMessage());
+        }
+    }
+
+    private void stageStatus(NapcatInstance instance, NapcatInstance.InstanceStatus status) {
+        instance.setStatus(status);
+        instance.setUpdatedTime(LocalDateTime.now());
+        statusWriter.stage(instance.getId(), status);
+    }
+
+    /**
+     * 删除实例数据卷，失败时留给资源回收任务处理
+     */
+    private void removeInstanceVolume(NapcatInstance instance) {
+        try {
+            dockerService.removeVolume(dockerService.getInstanceDataPath(instance.getName()));
+        } catch (Exception e) {
+            log.warn("Failed to remove volume for instance {}, will be reclaimed by GC: {}",
+                    instance.getName(), e.getMessage());
+        }
+    }
+
     @Override
     public InstanceResponse getInstance(String instanceId) {
         NapcatInstance instance = getInstanceById(instanceId);
@@ -278,71 +397,39 @@ public class NapcatInstanceServiceImpl extends ServiceImpl<NapcatInstanceMapper,
         return instance;
     }
 
-    private boolean existsByName(String name) {
-        return count(new LambdaQueryWrapper<NapcatInstance>()
-                .eq(NapcatInstance::getName, name)) > 0;
-    }
-
-    private void validateCreateRequest(CreateInstanceRequest request) {
-        if (request.getName() == null || request.getName().trim().isEmpty()) {
+    private void validateInstanceName(String name) {
+        if (name == null || name.trim().isEmpty()) {
             throw new IllegalArgumentException("Instance name is required");
         }
-        if (request.getName().length() > 100) {
+        if (name.length() > 100) {
             throw new IllegalArgumentException("Instance name too long");
         }
-        if (!request.getName().matches("^[a-zA-Z0-9][a-zA-Z0-9_-]*$")) {
+        if (!name.matches("^[a-zA-Z0-9][a-zA-Z0-9_-]*$")) {
             throw new IllegalArgumentException("Instance name contains invalid characters");
         }
     }
 
-    private void checkInstanceLimit() {
-        long currentCount = count();
-        if (currentCount >= maxInstances) {
-            throw new RuntimeException("Maximum instance limit reached: " + maxInstances);
-        }
-    }
-
-    private int findAvailablePort() {
-        // 收集所有已使用的端口（服务端口、HTTP端口、WebSocket端口）
-        List<Integer> usedPorts = new ArrayList<>();
-
-        list().forEach(instance -> {
-            if (instance.getPort() != null) {
-                usedPorts.add(instance.getPort());
-            }
-            if (instance.getConfig() != null) {
-                if (instance.getConfig().getHttpPort() != null) {
-                    usedPorts.add(instance.getConfig().getHttpPort());
-                }
-                if (instance.getConfig().getWsPort() != null) {
-                    usedPorts.add(instance.getConfig().getWsPort());
-                }
-            }
-        });
-
-        for (int port = basePort; port < basePort + 1000; port++) {
-            // 检查服务端口、HTTP端口(+1000)、WebSocket端口(+2000)都不冲突
-            if (!usedPorts.contains(port) &&
-                !usedPorts.contains(port + 1000) &&
-                !usedPorts.contains(port + 2000)) {
-                return port;
-            }
-        }
-        throw new RuntimeException("No available ports");
-    }
-
     private void updateInstanceStatus(NapcatInstance instance) {
         if (instance.getContainerId() != null) {
             try {
-                IDockerService.ContainerStatus containerStatus =
-                        dockerService.getContainerStatus(instance.getContainerId());
+                IDockerService.ContainerStatus containerStatus;
+                if (dockerConnectivity.isAvailable()) {
+                    containerStatus = dockerService.getContainerStatus(instance.getContainerId());
+                } else {
+                    // 降级模式：使用未过期的缓存快照，没有快照时保持数据库中的状态
+                    ContainerStateSnapshot snapshot = containerStateCache.snapshot();
+                    if (snapshot == null) {
+                        return;
+                    }
+                    containerStatus = snapshot.statusOf(instance.getContainerId());
+                }
 
-                NapcatInstance.InstanceStatus newStatus = mapContainerStatusToInstanceStatus(containerStatus);
+                NapcatInstance.InstanceStatus newStatus = containerStatus.toInstanceStatus();
 
-                if (newStatus != instance.getStatus()) {
-                    instance.setStatus(newStatus);
-                    instance.setUpdatedTime(LocalDateTime.now());
-                    updateById(instance);
+                // 过渡状态由生命周期操作独占，观测性同步不覆盖
+                if (newStatus != instance.getStatus() && !LifecycleOperation.isTransitional(instance.getStatus())) {
+                    // 列表查询中的状态同步合并后批量写入
+                    stageStatus(instance, newStatus);
                 }
             } catch (Exception e) {
                 log.warn("Failed to update status for instance {}: {}",
@@ -351,68 +438,59 @@ public class NapcatInstanceServiceImpl extends ServiceImpl<NapcatInstanceMapper,
         }
     }
 
-    private NapcatInstance.InstanceStatus mapContainerStatusToInstanceStatus(
-            IDockerService.ContainerStatus containerStatus) {
-        return switch (containerStatus) {
-            case RUNNING -> NapcatInstance.InstanceStatus.RUNNING;
-            case STOPPED -> NapcatInstance.InstanceStatus.STOPPED;
-            case RESTARTING -> NapcatInstance.InstanceStatus.STARTING;
-            case NOT_FOUND, DEAD -> NapcatInstance.InstanceStatus.ERROR;
-            default -> NapcatInstance.InstanceStatus.UNKNOWN;
-        };
+    @Override
+    public MultiInstanceResponse createMultipleInstances(CreateMultiInstanceRequest request) {
+        return createMultipleInstances(request, new ProvisioningListener() {
+        });
     }
 
     @Override
-    @Transactional
-    public MultiInstanceResponse createMultipleInstances(CreateMultiInstanceRequest request) {
-        validateMultiCreateRequest(request);
+    public MultiInstanceResponse createMultipleInstances(CreateMultiInstanceRequest request,
+                                                         ProvisioningListener listener) {
+        // Docker不可达时不写入任何实例记录
+        dockerConnectivity.requireAvailable();
+
+        // 阶段1：预留（加锁）——校验数量上限、逐个校验名称、一次性分配端口、批量写入实例记录
+        Reservation reservation = reserveInstances(request);
+        List<NapcatInstance> instances = reservation.instances();
+
+        // 阶段2~4：创建容器、注入配置、自动启动，按实例并行流水线执行
+        List<CompletableFuture<InstanceResponse>> futures = instances.stream()
+                .map(instance -> provisionAsync(instance, Boolean.TRUE.equals(request.getAutoStart())))
+                .toList();
 
         MultiInstanceResponse response = new MultiInstanceResponse();
         response.setTotalRequested(request.getCount());
         response.setInstances(new ArrayList<>());
         response.setErrors(new ArrayList<>());
 
-        List<Integer> availablePorts = findAvailablePorts(request.getCount());
-        if (availablePorts.size() < request.getCount()) {
-            throw new RuntimeException("Not enough available ports for " + request.getCount() + " instances");
+        // 名称无效或已被占用的实例不写入数据库，单独计为失败
+        for (MultiInstanceResponse.FailedInstance rejected : reservation.rejected()) {
+            response.getErrors().add(rejected);
+            listener.onFailed(rejected);
+            log.error("Failed to create instance {}: {}", rejected.getName(), rejected.getReason());
         }
 
-        for (int i = 0; i < request.getCount(); i++) {
-            try {
-                String instanceName = generateInstanceName(request.getNamePrefix(), i);
-                String qqAccount = getQqAccountForIndex(request.getQqAccounts(), i);
-
-                NapcatConfig config = createConfigFromTemplate(request.getConfigTemplate());
-                int basePort = availablePorts.get(i);
-                config.setServicePort(basePort);
-                // 为每个实例分配不同的HTTP和WebSocket端口，避免冲突
-                config.setHttpPort(basePort + 1000);  // 如6099 -> 7099
-                config.setWsPort(basePort + 2000);    // 如6099 -> 8099
-
-                CreateInstanceRequest singleRequest = new CreateInstanceRequest();
-                singleRequest.setName(instanceName);
-                singleRequest.setQqAccount(qqAccount);
-                singleRequest.setConfig(config);
-
-                InstanceResponse instanceResponse = createInstance(singleRequest);
-                response.getInstances().add(instanceResponse);
-
-                if (request.getAutoStart()) {
-                    try {
-                        startInstance(instanceResponse.getId());
-                    } catch (Exception e) {
-                        log.warn("Failed to auto-start instance {}: {}", instanceName, e.getMessage());
-                    }
+        for (int i = 0; i < futures.size(); i++) {
+            NapcatInstance instance = instances.get(i);
+            futures.set(i, futures.get(i).whenComplete((created, error) -> {
+                if (error == null) {
+                    listener.onCreated(created);
+                } else {
+                    listener.onFailed(toFailedInstance(instance, error));
                 }
+            }));
+        }
 
-            } catch (Exception e) {
-                MultiInstanceResponse.FailedInstance failed = new MultiInstanceResponse.FailedInstance();
-                failed.setName(generateInstanceName(request.getNamePrefix(), i));
-                failed.setQqAccount(getQqAccountForIndex(request.getQqAccounts(), i));
-                failed.setReason(e.getMessage());
+        // 按请求顺序汇总结果，保持原有响应结构
+        for (int i = 0; i < futures.size(); i++) {
+            NapcatInstance instance = instances.get(i);
+            try {
+                response.getInstances().add(futures.get(i).join());
+            } catch (CompletionException e) {
+                MultiInstanceResponse.FailedInstance failed = toFailedInstance(instance, e);
                 response.getErrors().add(failed);
-
-                log.error("Failed to create instance {}: {}", failed.getName(), e.getMessage());
+                log.error("Failed to create instance {}: {}", failed.getName(), failed.getReason());
             }
         }
 
@@ -425,6 +503,267 @@ public class NapcatInstanceServiceImpl extends ServiceImpl<NapcatInstanceMapper,
         return response;
     }
 
+    /**
+     * 在锁内完成上限校验、端口预留和批量插入，避免并发创建超出max-instances
+     * 名称逐个校验，无效或已被占用的实例计入rejected，不影响同批其他实例；
+     * 唯一约束冲突时按约束区分：端口冲突（位图与数据库不一致，如多实例部署）重新加载位图，
+     * 名称冲突（并发插入了同名实例）剔除被占用的名称，然后重试一次
+     */
+    private Reservation reserveInstances(CreateMultiInstanceRequest request) {
+        provisioningLock.lock();
+        try {
+            validateMultiCreateRequest(request);
+
+            List<MultiInstanceResponse.FailedInstance> rejected = new ArrayList<>();
+            List<NapcatInstance> candidates = new ArrayList<>(request.getCount());
+            for (int i = 0; i < request.getCount(); i++) {
+                NapcatInstance candidate = new NapcatInstance()
+                        .setName(generateInstanceName(request.getNamePrefix(), i))
+                        .setQqAccount(getQqAccountForIndex(request.getQqAccounts(), i));
+                try {
+                    validateInstanceName(candidate.getName());
+                    candidates.add(candidate);
+                } catch (IllegalArgumentException e) {
+                    rejected.add(toFailedInstance(candidate, e));
+                }
+            }
+            candidates = rejectTakenNames(candidates, rejected);
+
+            try {
+                return new Reservation(reserveAndInsert(candidates, request.getConfigTemplate()), rejected);
+            } catch (DuplicateKeyException e) {
+                if (isPortConflict(e)) {
+                    log.warn("Port reservation conflicted with database, resyncing allocator: {}", e.getMessage());
+                    portAllocationService.resync();
+                } else {
+                    int before = rejected.size();
+                    candidates = rejectTakenNames(candidates, rejected);
+                    if (rejected.size() == before) {
+                        throw e;
+                    }
+                    log.warn("Instance names were taken concurrently, retrying without them: {}", e.getMessage());
+                }
+                return new Reservation(reserveAndInsert(candidates, request.getConfigTemplate()), rejected);
+            }
+        } finally {
+            provisioningLock.unlock();
+        }
+    }
+
+    /**
+     * 剔除数据库中已存在的名称（name唯一约束覆盖逻辑删除的行，查询不经过逻辑删除过滤）
+     */
+    private List<NapcatInstance> rejectTakenNames(List<NapcatInstance> candidates,
+                                                  List<MultiInstanceResponse.FailedInstance> rejected) {
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        Set<String> taken = new HashSet<>(lifecycleMetrics.recordDb(OP_CREATE, () -> getBaseMapper().selectExistingNames(
+                candidates.stream().map(NapcatInstance::getName).toList())));
+        if (taken.isEmpty()) {
+            return candidates;
+        }
+        List<NapcatInstance> available = new ArrayList<>(candidates.size());
+        for (NapcatInstance candidate : candidates) {
+            if (taken.contains(candidate.getName())) {
+                rejected.add(toFailedInstance(candidate,
+                        new IllegalArgumentException("Instance name already exists: " + candidate.getName())));
+            } else {
+                available.add(candidate);
+            }
+        }
+        return available;
+    }
+
+    private static boolean isPortConflict(DuplicateKeyException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.contains(PORT_UNIQUE_INDEX);
+    }
+
+    private List<NapcatInstance> reserveAndInsert(List<NapcatInstance> candidates, NapcatConfig template) {
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        List<Integer> availablePorts = portAllocationService.reserve(candidates.size());
+        if (availablePorts.size() < candidates.size()) {
+            releasePorts(availablePorts);
+            throw new RuntimeException("Not enough available ports for " + candidates.size() + " instances");
+        }
+
+        int stride = portAllocationService.getPortStride();
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            for (int i = 0; i < candidates.size(); i++) {
+                NapcatConfig config = createConfigFromTemplate(template);
+                int basePort = availablePorts.get(i);
+                config.setServicePort(basePort);
+                // 为每个实例分配不同的HTTP和WebSocket端口，避免冲突
+                config.setHttpPort(basePort + stride);      // 如6099 -> 7099
+                config.setWsPort(basePort + 2 * stride);    // 如6099 -> 8099
+
+                candidates.get(i)
+                        .setConfig(config)
+                        .setPort(basePort)
+                        .setStatus(NapcatInstance.InstanceStatus.STOPPED)
+                        .setCreatedTime(now)
+                        .setUpdatedTime(now);
+            }
+
+            boolean saved = lifecycleMetrics.recordDb(OP_CREATE, () -> saveBatch(candidates));
+            if (!saved) {
+                throw new RuntimeException("Failed to save instances to database");
+            }
+            return candidates;
+        } catch (RuntimeException e) {
+            releasePorts(availablePorts);
+            throw e;
+        }
+    }
+
+    private void releasePorts(List<Integer> servicePorts) {
+        int stride = portAllocationService.getPortStride();
+        servicePorts.forEach(port -> portAllocationService.release(port, port + stride, port + 2 * stride));
+    }
+
+    private void releasePorts(NapcatInstance instance) {
+        NapcatConfig config = instance.getConfig();
+        portAllocationService.release(instance.getPort(),
+                config != null ? config.getHttpPort() : null,
+                config != null ? config.getWsPort() : null);
+    }
+
+    /**
+     * 单个实例的创建流水线
+     * Docker步骤通过异步Docker服务执行并以future组合，数据库和配置生成步骤在有界的provisioningExecutor上执行，
+     * 等待Docker响应期间不占用流水线线程，不同实例的不同阶段可以重叠执行
+     */
+    private CompletableFuture<InstanceResponse> provisionAsync(NapcatInstance instance, boolean autoStart) {
+        // 各阶段在不同线程上执行，JFR事件显式绑定到每个阶段
+        LifecycleOperationEvent event = lifecycleMetrics.begin(instance.getId(), OP_CREATE);
+        return lifecycleMetrics.within(event, () -> lifecycleMetrics.recordDockerAsync(OP_CREATE,
+                        () -> asyncDockerService.createContainerAsync(
+                                instance.getName(), instance.getConfig(), instance.getPort())))
+                .handleAsync((containerId, error) -> lifecycleMetrics.within(event,
+                        () -> containerCreatedStage(instance, containerId, error)), provisioningExecutor)
+                .thenComposeAsync(created -> lifecycleMetrics.within(event,
+                        () -> injectConfigStage(created)), provisioningExecutor)
+                .thenComposeAsync(created -> lifecycleMetrics.within(event,
+                        () -> autoStartStage(created, autoStart, event)), provisioningExecutor)
+                .whenComplete((response, error) -> lifecycleMetrics.finish(event, error == null));
+    }
+
+    private NapcatInstance containerCreatedStage(NapcatInstance instance, String containerId, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            compensateCreate(instance, null);
+            throw new RuntimeException("Failed to create Docker container: " + cause.getMessage(), cause);
+        }
+        try {
+            instance.setContainerId(containerId);
+            instance.setUpdatedTime(LocalDateTime.now());
+            lifecycleMetrics.recordDb(OP_CREATE,
+                    () -> getBaseMapper().updateContainerId(instance.getId(), instance.getContainerId(), instance.getUpdatedTime()));
+            log.info("Created instance: {} with container: {}", instance.getName(), containerId);
+            return instance;
+        } catch (Exception e) {
+            compensateCreate(instance, containerId);
+            throw new RuntimeException("Failed to create Docker container: " + e.getMessage(), e);
+        }
+    }
+
+    private CompletableFuture<NapcatInstance> injectConfigStage(NapcatInstance instance) {
+        if (instance.getQqAccount() == null || instance.getQqAccount().isEmpty()) {
+            return CompletableFuture.completedFuture(instance);
+        }
+
+        // 生成OneBot配置文件并异步复制到容器，失败只记录日志，不影响创建流程
+        String qqAccount = instance.getQqAccount();
+        String webhookUrl = "http://host.docker.internal:" + serverPort + "/api/webhook/message";
+        String configContent = configFileGenerator.generateOneBotConfig(qqAccount, webhookUrl);
+        String configPath = configFileGenerator.getConfigFilePath(qqAccount);
+
+        return lifecycleMetrics.recordDockerAsync(OP_CREATE, () -> asyncDockerService.copyFileToContainerAsync(
+                        instance.getContainerId(), configContent, configPath))
+                .handle((ignored, error) -> {
+                    if (error != null) {
+                        log.error("Failed to copy config file for QQ account: {} to container: {}: {}",
+                                qqAccount, instance.getContainerId(), error.getMessage());
+                    } else {
+                        log.info("Successfully generated and copied OneBot config file for QQ account: {} to container: {}",
+                                qqAccount, instance.getContainerId());
+                    }
+                    return instance;
+                });
+    }
+
+    /**
+     * 自动启动：容器刚由创建阶段生成，沿用创建阶段得到的容器ID，不再查询实例或修复容器；
+     * 启动调用异步执行，等待Docker响应期间不占用流水线线程。启动后通过就绪探测确认容器保持运行，
+     * 启动或探测失败只记录日志，响应中的状态以数据库为准
+     */
+    private CompletableFuture<InstanceResponse> autoStartStage(NapcatInstance instance, boolean autoStart,
+                                                               LifecycleOperationEvent event) {
+        if (!autoStart) {
+            return CompletableFuture.completedFuture(InstanceResponse.from(instance));
+        }
+        String containerId = instance.getContainerId();
+        try {
+            beginTransition(instance, LifecycleOperation.START);
+        } catch (Exception e) {
+            log.warn("Failed to auto-start instance {}: {}", instance.getName(), e.getMessage());
+            return CompletableFuture.completedFuture(InstanceResponse.from(instance));
+        }
+
+        return lifecycleMetrics.recordDockerAsync(OP_START, () -> asyncDockerService.startContainerAsync(containerId))
+                .handleAsync((ignored, error) -> lifecycleMetrics.within(event,
+                        () -> completeAutoStart(instance, error)), provisioningExecutor)
+                .thenCompose(started -> {
+                    if (!started) {
+                        return CompletableFuture.completedFuture(InstanceResponse.from(instance));
+                    }
+                    return asyncDockerService.awaitRunningAsync(containerId, Duration.ofSeconds(readinessTimeoutSeconds))
+                            .handle((status, readinessError) -> {
+                                if (readinessError != null) {
+                                    log.warn("Instance {} did not become ready after auto-start: {}",
+                                            instance.getName(), readinessError.getMessage());
+                                }
+                                return InstanceResponse.from(instance);
+                            });
+                });
+    }
+
+    /**
+     * 自动启动的容器启动完成后，从启动中转换为运行中；启动失败或状态未能落库时按启动失败补偿
+     * @return 是否已进入运行中
+     */
+    private boolean completeAutoStart(NapcatInstance instance, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            compensateStart(instance, false);
+            log.warn("Failed to auto-start instance {}: {}", instance.getName(), cause.getMessage());
+            return false;
+        }
+        try {
+            lifecycleMetrics.recordDb(OP_START, () -> completeTransition(instance, LifecycleOperation.START,
+                    NapcatInstance.InstanceStatus.RUNNING));
+            log.info("Started instance: {}", instance.getName());
+            return true;
+        } catch (Exception e) {
+            compensateStart(instance, true);
+            log.warn("Failed to auto-start instance {}: {}", instance.getName(), e.getMessage());
+            return false;
+        }
+    }
+
+    private MultiInstanceResponse.FailedInstance toFailedInstance(NapcatInstance instance, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        MultiInstanceResponse.FailedInstance failed = new MultiInstanceResponse.FailedInstance();
+        failed.setName(instance.getName());
+        failed.setQqAccount(instance.getQqAccount());
+        failed.setReason(cause.getMessage());
+        return failed;
+    }
+
     private void validateMultiCreateRequest(CreateMultiInstanceRequest request) {
         if (request.getCount() == null || request.getCount() <= 0) {
             throw new IllegalArgumentException("Instance count must be greater than 0");
@@ -442,37 +781,6 @@ public class NapcatInstanceServiceImpl extends ServiceImpl<NapcatInstanceMapper,
         }
     }
 
-    private List<Integer> findAvailablePorts(int count) {
-        // 收集所有已使用的端口（服务端口、HTTP端口、WebSocket端口）
-        List<Integer> usedPorts = new ArrayList<>();
-
-        list().forEach(instance -> {
-            if (instance.getPort() != null) {
-                usedPorts.add(instance.getPort());
-            }
-            if (instance.getConfig() != null) {
-                if (instance.getConfig().getHttpPort() != null) {
-                    usedPorts.add(instance.getConfig().getHttpPort());
-                }
-                if (instance.getConfig().getWsPort() != null) {
-                    usedPorts.add(instance.getConfig().getWsPort());
-                }
-            }
-        });
-
-        List<Integer> availablePorts = new ArrayList<>();
-        for (int port = basePort; port < basePort + 1000 && availablePorts.size() < count; port++) {
-            // 检查服务端口、HTTP端口(+1000)、WebSocket端口(+2000)都不冲突
-            if (!usedPorts.contains(port) &&
-                !usedPorts.contains(port + 1000) &&
-                !usedPorts.contains(port + 2000)) {
-                availablePorts.add(port);
-            }
-        }
-
-        return availablePorts;
-    }
-
     private String generateInstanceName(String prefix, int index) {
         String timestamp = String.valueOf(System.currentTimeMillis()).substring(8);
         return String.format("%s-%s-%d", prefix, timestamp, index + 1);
@@ -596,30 +904,9 @@ public class NapcatInstanceServiceImpl extends ServiceImpl<NapcatInstanceMapper,
     }
 
     /**
-     * 生成并复制OneBot配置文件到容器
+     * 预留阶段的结果：已写入数据库的实例，以及因名称无效或被占用而未写入的实例
      */
-    private void generateAndCopyConfigFile(String containerId, String qqAccount) {
-        try {
-            // 构建webhook URL - 使用host.docker.internal访问宿主机服务
-            String webhookUrl = "http://host.docker.internal:" + serverPort + "/api/webhook/message";
-
-            // 生成配置文件内容
-            String configContent = configFileGenerator.generateOneBotConfig(qqAccount, webhookUrl);
-
-            // 获取配置文件在容器中的路径
-            String configPath = configFileGenerator.getConfigFilePath(qqAccount);
-
-            // 复制配置文件到容器
-            dockerService.copyFileToContainer(containerId, configContent, configPath);
-
-            log.info("Successfully generated and copied OneBot config file for QQ account: {} to container: {}",
-                    qqAccount, containerId);
-
-        } catch (Exception e) {
-            log.error("Failed to generate and copy config file for QQ account: {} to container: {}: {}",
-                    qqAccount, containerId, e.getMessage());
-            // 不抛出异常，避免影响容器创建流程，但记录错误日志
-        }
+    private record Reservation(List<NapcatInstance> instances, List<MultiInstanceResponse.FailedInstance> rejected) {
     }
 
     @FunctionalInterface
@@ -0,0 +1,196 @@
+package com.jinyue.service.impl;
+
+import com.jinyue.dto.InstancePortUsage;
+import com.jinyue.mapper.NapcatInstanceMapper;
+import com.jinyue.service.IPortAllocationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 基于位图的端口分配器
+ * 位图覆盖[basePort, basePort + 3 * rangeSize)，每一位对应一个端口；
+ * 服务端口p可用当且仅当p、p+rangeSize、p+2*rangeSize三位都未被占用。
+ * 位图在启动时从数据库加载，之后由预留/释放维护；数据库上的端口唯一索引兜底多实例部署时的冲突
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PortAllocationServiceImpl implements IPortAllocationService {
+
+    private final NapcatInstanceMapper instanceMapper;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private BitSet usedPorts;
+
+    @Value("${napcat.docker.base-port}")
+    private int basePort;
+
+    @Value("${napcat.ports.range-size:1000}")
+    private int rangeSize;
+
+    @Value("${napcat.ports.probe-host:false}")
+    private boolean probeHost;
+
+    /**
+     * 启动完成后预热位图
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            resync();
+        } catch (Exception e) {
+            log.warn("Failed to seed port allocator at startup, will retry on first use: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public List<Integer> reserve(int count) {
+        lock.lock();
+        try {
+            BitSet used = ensureSeeded();
+            List<Integer> reserved = new ArrayList<>(count);
+
+            int offset = 0;
+            while (reserved.size() < count && offset < rangeSize) {
+                offset = used.nextClearBit(offset);
+                if (offset >= rangeSize) {
+                    break;
+                }
+                // 检查服务端口、HTTP端口(+1000)、WebSocket端口(+2000)都不冲突
+                if (!used.get(offset + rangeSize) && !used.get(offset + 2 * rangeSize)) {
+                    int port = basePort + offset;
+                    if (!probeHost || isHostPortFree(port)) {
+                        used.set(offset);
+                        used.set(offset + rangeSize);
+                        used.set(offset + 2 * rangeSize);
+                        reserved.add(port);
+                    }
+                }
+                offset++;
+            }
+
+            log.debug("Reserved {} service ports: {}", reserved.size(), reserved);
+            return reserved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void release(Integer servicePort, Integer httpPort, Integer wsPort) {
+        lock.lock();
+        try {
+            if (usedPorts == null) {
+                return;
+            }
+            clear(usedPorts, servicePort);
+            clear(usedPorts, httpPort);
+            clear(usedPorts, wsPort);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void resync() {
+        List<InstancePortUsage> usages = instanceMapper.selectPortUsages();
+
+        BitSet used = new BitSet(3 * rangeSize);
+        for (InstancePortUsage usage : usages) {
+            mark(used, usage.getPort());
+            mark(used, usage.getHttpPort());
+            mark(used, usage.getWsPort());
+        }
+
+        lock.lock();
+        try {
+            usedPorts = used;
+        } finally {
+            lock.unlock();
+        }
+        log.info("Port allocator seeded from {} instances, {} service ports available", usages.size(), availableCount());
+    }
+
+    @Override
+    public int getPortStride() {
+        return rangeSize;
+    }
+
+    @Override
+    public int availableCount() {
+        lock.lock();
+        try {
+            BitSet used = ensureSeeded();
+            int available = 0;
+            for (int offset = used.nextClearBit(0); offset < rangeSize; offset = used.nextClearBit(offset + 1)) {
+                if (!used.get(offset + rangeSize) && !used.get(offset + 2 * rangeSize)) {
+                    available++;
+                }
+            }
+            return available;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 调用方已持有锁（可重入），首次使用时同步加载
+     */
+    private BitSet ensureSeeded() {
+        if (usedPorts == null) {
+            resync();
+        }
+        return usedPorts;
+    }
+
+    private void mark(BitSet used, Integer port) {
+        int offset = toOffset(port);
+        if (offset >= 0) {
+            used.set(offset);
+        }
+    }
+
+    private void clear(BitSet used, Integer port) {
+        int offset = toOffset(port);
+        if (offset >= 0) {
+            used.clear(offset);
+        }
+    }
+
+    private int toOffset(Integer port) {
+        if (port == null) {
+            return -1;
+        }
+        int offset = port - basePort;
+        return offset >= 0 && offset < 3 * rangeSize ? offset : -1;
+    }
+
+    /**
+     * 探测宿主机上三个端口是否都能绑定，跳过被非托管进程占用的端口
+     * 仅当Docker与管理器运行在同一主机时有意义
+     */
+    private boolean isHostPortFree(int servicePort) {
+        for (int port : new int[]{servicePort, servicePort + rangeSize, servicePort + 2 * rangeSize}) {
+            try (ServerSocket socket = new ServerSocket()) {
+                socket.setReuseAddress(false);
+                socket.bind(new InetSocketAddress(port));
+            } catch (IOException e) {
+                log.debug("Host port {} is in use, skipping service port {}", port, servicePort);
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,253 @@
+package com.jinyue.service.impl;
+
+import com.github.dockerjava.api.command.InspectVolumeResponse;
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.ContainerMount;
+import com.jinyue.dto.ResourceGcReport;
+import com.jinyue.entity.NapcatInstance;
+import com.jinyue.mapper.NapcatInstanceMapper;
+import com.jinyue.service.IDockerService;
+import com.jinyue.service.INapcatInstanceService;
+import com.jinyue.service.IResourceGcService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 孤儿资源回收服务实现
+ * 以napcat.manager标签和napcat-data-前缀识别本管理器创建的资源，
+ * 与数据库中未删除的实例比对后按限速删除孤儿资源，并彻底清理已逻辑删除实例残留的容器、数据卷和数据行
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ResourceGcServiceImpl implements IResourceGcService {
+
+    private static final String INSTANCE_LABEL = "napcat.instance";
+
+    private final INapcatInstanceService instanceService;
+    private final NapcatInstanceMapper instanceMapper;
+    private final IDockerService dockerService;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${napcat.gc.enabled:false}")
+    private boolean scheduledEnabled;
+
+    @Value("${napcat.gc.dry-run:true}")
+    private boolean scheduledDryRun;
+
+    @Value("${napcat.gc.max-removals-per-run:20}")
+    private int maxRemovalsPerRun;
+
+    @Value("${napcat.gc.removal-interval-ms:500}")
+    private long removalIntervalMs;
+
+    @Value("${napcat.gc.min-container-age-minutes:10}")
+    private long minContainerAgeMinutes;
+
+    /**
+     * 定时回收，默认关闭
+     */
+    @Scheduled(initialDelayString = "${napcat.gc.initial-delay:600000}",
+            fixedDelayString = "${napcat.gc.interval:3600000}")
+    public void scheduledGc() {
+        if (!scheduledEnabled) {
+            return;
+        }
+        try {
+            ResourceGcReport report = runGc(scheduledDryRun);
+            log.info("Scheduled GC finished: orphanContainers={}, orphanVolumes={}, deletedInstances={}, dryRun={}",
+                    report.getOrphanContainers().size(), report.getOrphanVolumes().size(),
+                    report.getDeletedInstances().size(), report.isDryRun());
+        } catch (Exception e) {
+            log.error("Scheduled GC failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public ResourceGcReport runGc(boolean dryRun) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("GC is already running");
+        }
+
+        try {
+            ResourceGcReport report = new ResourceGcReport();
+            report.setDryRun(dryRun);
+            report.setStartedTime(LocalDateTime.now());
+
+            // 只取比对需要的列，不加载config
+            List<NapcatInstance> liveInstances = instanceService.lambdaQuery()
+                    .select(NapcatInstance::getId, NapcatInstance::getName, NapcatInstance::getContainerId)
+                    .list();
+            report.setLiveInstanceCount(liveInstances.size());
+
+            Set<String> liveContainerIds = new HashSet<>();
+            Set<String> liveNames = new HashSet<>();
+            for (NapcatInstance instance : liveInstances) {
+                if (instance.getContainerId() != null) {
+                    liveContainerIds.add(instance.getContainerId());
+                }
+                liveNames.add(instance.getName());
+            }
+
+            RemovalBudget budget = new RemovalBudget(dryRun);
+
+            List<Container> containers = dockerService.listNapcatContainers();
+            collectOrphanContainers(containers, liveContainerIds, liveNames, report, budget);
+            reclaimDeletedInstances(report, budget);
+
+            // 容器删除后再列一次，被孤儿容器占用的数据卷此时才可回收
+            Set<String> volumesInUse = dryRun ? volumesInUse(containers) : volumesInUse(dockerService.listNapcatContainers());
+            collectOrphanVolumes(liveNames, volumesInUse, report, budget);
+
+            report.setDeferred(budget.deferred);
+            report.setFinishedTime(LocalDateTime.now());
+
+            log.info("GC completed (dryRun={}): removed {} containers, {} volumes, purged {} rows, deferred {}, failures {}",
+                    dryRun, report.getRemovedContainers(), report.getRemovedVolumes(),
+                    report.getPurgedInstances(), report.getDeferred(), report.getFailures().size());
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void collectOrphanContainers(List<Container> containers, Set<String> liveContainerIds,
+                                         Set<String> liveNames, ResourceGcReport report, RemovalBudget budget) {
+        long minCreatedEpoch = System.currentTimeMillis() / 1000 - TimeUnit.MINUTES.toSeconds(minContainerAgeMinutes);
+
+        for (Container container : containers) {
+            String instanceName = container.getLabels() != null ? container.getLabels().get(INSTANCE_LABEL) : null;
+            if (liveContainerIds.contains(container.getId()) || (instanceName != null && liveNames.contains(instanceName))) {
+                continue;
+            }
+            // 新建中的实例可能尚未写入容器ID，跳过宽限期内的容器
+            if (container.getCreated() != null && container.getCreated() > minCreatedEpoch) {
+                log.debug("Skipping young container {} during GC", container.getId());
+                continue;
+            }
+
+            report.getOrphanContainers().add(describe(container, instanceName));
+            if (budget.acquire()) {
+                try {
+                    dockerService.removeContainer(container.getId());
+                    report.setRemovedContainers(report.getRemovedContainers() + 1);
+                } catch (Exception e) {
+                    report.getFailures().add("container " + container.getId() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 彻底清理已逻辑删除的实例：删除残留容器和数据卷后物理删除数据行
+     */
+    private void reclaimDeletedInstances(ResourceGcReport report, RemovalBudget budget) {
+        // name列对包括逻辑删除行在内的全部记录唯一，逻辑删除行未清理前不会有同名的新实例，数据卷只属于该行
+        for (NapcatInstance deleted : instanceMapper.selectLogicallyDeleted()) {
+            report.getDeletedInstances().add(deleted.getName());
+
+            if (!budget.acquire()) {
+                continue;
+            }
+            try {
+                if (deleted.getContainerId() != null) {
+                    dockerService.removeContainer(deleted.getContainerId());
+                }
+                dockerService.removeVolume(dockerService.getInstanceDataPath(deleted.getName()));
+                report.setPurgedInstances(report.getPurgedInstances() + instanceMapper.purgeDeleted(deleted.getId()));
+            } catch (Exception e) {
+                report.getFailures().add("instance " + deleted.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void collectOrphanVolumes(Set<String> liveNames, Set<String> volumesInUse,
+                                      ResourceGcReport report, RemovalBudget budget) {
+        Set<String> liveVolumes = new HashSet<>();
+        liveNames.forEach(name -> liveVolumes.add(dockerService.getInstanceDataPath(name)));
+
+        for (InspectVolumeResponse volume : dockerService.listNapcatVolumes()) {
+            String volumeName = volume.getName();
+            if (liveVolumes.contains(volumeName) || volumesInUse.contains(volumeName)) {
+                continue;
+            }
+
+            report.getOrphanVolumes().add(volumeName);
+            if (budget.acquire()) {
+                try {
+                    dockerService.removeVolume(volumeName);
+                    report.setRemovedVolumes(report.getRemovedVolumes() + 1);
+                } catch (Exception e) {
+                    report.getFailures().add("volume " + volumeName + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private Set<String> volumesInUse(List<Container> containers) {
+        Set<String> inUse = new HashSet<>();
+        for (Container container : containers) {
+            if (container.getMounts() == null) {
+                continue;
+            }
+            container.getMounts().stream()
+                    .map(ContainerMount::getName)
+                    .filter(Objects::nonNull)
+                    .forEach(inUse::add);
+        }
+        return inUse;
+    }
+
+    private String describe(Container container, String instanceName) {
+        String name = container.getNames() != null && container.getNames().length > 0
+                ? container.getNames()[0] : instanceName;
+        return name + " (" + container.getId() + ")";
+    }
+
+    /**
+     * 单次回收的删除配额与节流
+     */
+    private class RemovalBudget {
+
+        private final boolean dryRun;
+        private int used;
+        private int deferred;
+
+        RemovalBudget(boolean dryRun) {
+            this.dryRun = dryRun;
+        }
+
+        boolean acquire() {
+            if (dryRun) {
+                return false;
+            }
+            if (used >= maxRemovalsPerRun) {
+                deferred++;
+                return false;
+            }
+            if (used > 0 && removalIntervalMs > 0) {
+                try {
+                    Thread.sleep(removalIntervalMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    deferred++;
+                    return false;
+                }
+            }
+            used++;
+            return true;
+        }
+    }
+}
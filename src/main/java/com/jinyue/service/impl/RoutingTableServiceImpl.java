@@ -0,0 +1,181 @@
+package com.jinyue.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.jinyue.dto.ContainerStateSnapshot;
+import com.jinyue.dto.InstanceAccessInfo;
+import com.jinyue.dto.RoutingTable;
+import com.jinyue.entity.NapcatInstance;
+import com.jinyue.mapper.NapcatInstanceMapper;
+import com.jinyue.service.IContainerStateCache;
+import com.jinyue.service.IRoutingTableService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 实例路由表实现
+ * 每次重建生成不可变的表整体替换，读取无锁。每个条目记录最后一次变化时的版本，删除的实例保留墓碑，
+ * 增量即版本大于since的条目和墓碑。版本取max(上一版本+1, 当前毫秒时间)，重启后不回退；
+ * 重启前的删除无从得知，首次加载和墓碑过期都会抬高增量下限，早于下限的since返回全量
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RoutingTableServiceImpl implements IRoutingTableService {
+
+    private final NapcatInstanceMapper instanceMapper;
+    private final IContainerStateCache containerStateCache;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Table table;
+
+    @Value("${napcat.routing.tombstone-retention-ms:600000}")
+    private long tombstoneRetentionMs;
+
+    @Override
+    public long currentVersion() {
+        return loadedTable().version;
+    }
+
+    @Override
+    public RoutingTable getTable(Long since) {
+        Table current = loadedTable();
+        if (since == null || since < current.deltaFloor || since > current.version) {
+            return new RoutingTable()
+                    .setVersion(current.version)
+                    .setFull(true)
+                    .setInstances(current.all)
+                    .setRemoved(List.of());
+        }
+
+        List<InstanceAccessInfo> changed = new ArrayList<>();
+        current.entries.values().forEach(entry -> {
+            if (entry.version > since) {
+                changed.add(entry.info);
+            }
+        });
+        List<String> removed = new ArrayList<>();
+        current.tombstones.forEach((uuid, tombstone) -> {
+            if (tombstone.version > since) {
+                removed.add(uuid);
+            }
+        });
+        return new RoutingTable()
+                .setVersion(current.version)
+                .setFull(false)
+                .setInstances(changed)
+                .setRemoved(removed);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${napcat.routing.refresh-interval:2000}")
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            List<NapcatInstance> rows = instanceMapper.selectList(new LambdaQueryWrapper<NapcatInstance>()
+                    .select(NapcatInstance::getId, NapcatInstance::getQqAccount, NapcatInstance::getPort,
+                            NapcatInstance::getContainerId, NapcatInstance::getStatus, NapcatInstance::getUpdatedTime));
+            ContainerStateSnapshot snapshot = containerStateCache.snapshot();
+
+            Table current = table;
+            long now = System.currentTimeMillis();
+            long next = current != null ? Math.max(current.version + 1, now) : now;
+            Map<String, Entry> previousEntries = current != null ? current.entries : Map.of();
+            boolean changed = current == null;
+
+            Map<String, Entry> entries = new HashMap<>(rows.size() * 2);
+            for (NapcatInstance row : rows) {
+                InstanceAccessInfo info = toAccessInfo(row, snapshot);
+                Entry previous = previousEntries.get(row.getId());
+                if (previous != null && previous.info.equals(info)) {
+                    entries.put(row.getId(), previous);
+                } else {
+                    entries.put(row.getId(), new Entry(info, next));
+                    changed = true;
+                }
+            }
+
+            // 过期的墓碑丢弃，早于其版本的since无法再得到这次删除，增量下限随之抬高
+            long deltaFloor = current != null ? current.deltaFloor : next;
+            Map<String, Tombstone> tombstones = new HashMap<>();
+            if (current != null) {
+                for (Map.Entry<String, Tombstone> tombstone : current.tombstones.entrySet()) {
+                    if (entries.containsKey(tombstone.getKey())) {
+                        continue;
+                    }
+                    if (now - tombstone.getValue().removedTime > tombstoneRetentionMs) {
+                        deltaFloor = Math.max(deltaFloor, tombstone.getValue().version);
+                    } else {
+                        tombstones.put(tombstone.getKey(), tombstone.getValue());
+                    }
+                }
+            }
+            for (String uuid : previousEntries.keySet()) {
+                if (!entries.containsKey(uuid)) {
+                    tombstones.put(uuid, new Tombstone(next, now));
+                    changed = true;
+                }
+            }
+
+            if (!changed && current.tombstones.size() == tombstones.size()) {
+                return;
+            }
+            long version = changed ? next : current.version;
+            List<InstanceAccessInfo> all = entries.values().stream().map(entry -> entry.info).toList();
+            table = new Table(version, deltaFloor, entries, tombstones, all);
+            if (changed) {
+                log.debug("Routing table rebuilt: version {}, {} instances, {} tombstones",
+                        version, entries.size(), tombstones.size());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to refresh routing table, keeping version {}: {}",
+                    table != null ? table.version : "none", e.getMessage());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * 首次读取早于定时重建时同步加载
+     */
+    private Table loadedTable() {
+        Table current = table;
+        if (current == null) {
+            refresh();
+            current = table;
+            if (current == null) {
+                throw new IllegalStateException("Routing table is not loaded yet");
+            }
+        }
+        return current;
+    }
+
+    private static InstanceAccessInfo toAccessInfo(NapcatInstance instance, ContainerStateSnapshot snapshot) {
+        NapcatInstance.InstanceStatus status = snapshot != null ? snapshot.observedStatus(instance) : instance.getStatus();
+        return InstanceAccessInfo.builder()
+                .uuid(instance.getId())
+                .qqAccount(instance.getQqAccount())
+                .napcatUrl(InstanceAccessInfo.napcatUrlOf(instance.getPort()))
+                .status(String.valueOf(status))
+                .port(instance.getPort())
+                .build();
+    }
+
+    private record Entry(InstanceAccessInfo info, long version) {
+    }
+
+    private record Tombstone(long version, long removedTime) {
+    }
+
+    private record Table(long version, long deltaFloor, Map<String, Entry> entries,
+                         Map<String, Tombstone> tombstones, List<InstanceAccessInfo> all) {
+    }
+}
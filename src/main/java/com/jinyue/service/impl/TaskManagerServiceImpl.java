@@ -1,29 +1,71 @@
 package com.jinyue.service.impl;
 
+import com.jinyue.dto.ContainerStateSnapshot;
+import com.jinyue.dto.OperationResult;
+import com.jinyue.dto.TaskProgressEvent;
+import com.jinyue.entity.LifecycleOperation;
 import com.jinyue.entity.NapcatInstance;
 import com.jinyue.entity.TaskInfo;
 import com.jinyue.exception.InvalidInstanceStateException;
+import com.jinyue.service.IContainerStateCache;
 import com.jinyue.service.INapcatInstanceService;
 import com.jinyue.service.ITaskManagerService;
+import com.jinyue.service.ITaskStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * 任务管理服务实现
+ * 内存中只保留有界的热数据（执行中和最近完成的任务），按TTL和容量定时淘汰；
+ * 任务记录写入任务存储，热数据淘汰或重启后查询时从存储回读
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TaskManagerServiceImpl implements ITaskManagerService {
 
-    // 内存存储，后续可改为Redis
+    private static final String EVENT_SNAPSHOT = "snapshot";
+    private static final String EVENT_PROGRESS = "progress";
+    private static final String EVENT_FINISHED = "finished";
+
+    // 热数据，执行中的任务常驻，已结束的任务按TTL和容量淘汰
     private final ConcurrentHashMap<String, TaskInfo> tasks = new ConcurrentHashMap<>();
+    // 执行中任务的累计结果和进度订阅者
+    private final ConcurrentHashMap<String, TaskProgress> progresses = new ConcurrentHashMap<>();
 
     private final INapcatInstanceService instanceService;
+    private final ITaskStore taskStore;
+    private final IContainerStateCache containerStateCache;
+
+    @Value("${napcat.task.hot-capacity:1000}")
+    private int hotCapacity;
+
+    @Value("${napcat.task.hot-ttl-minutes:10}")
+    private long hotTtlMinutes;
+
+    @Value("${napcat.task.retention-hours:24}")
+    private long retentionHours;
+
+    @Value("${napcat.task.stream-timeout:600000}")
+    private long streamTimeout;
 
     @Override
     public TaskInfo createTask(String operation, List<String> instanceIds) {
@@ -42,41 +84,84 @@ public class TaskManagerServiceImpl implements ITaskManagerService {
                 .setCreatedTime(LocalDateTime.now());
 
         tasks.put(taskId, task);
+        try {
+            taskStore.save(task);
+        } catch (Exception e) {
+            log.warn("Failed to persist task {}, kept in memory only: {}", taskId, e.getMessage());
+        }
+        enforceCapacity();
+
         log.info("Created task: {} for operation: {} on {} instances",
                 taskId, operation, instanceIds.size());
 
         return task;
     }
 
+    /**
+     * 执行中的任务返回计数快照的副本，工作线程不写共享的任务对象；结果列表在任务结束时才生成
+     */
     @Override
     public TaskInfo getTask(String taskId) {
-        return tasks.get(taskId);
+        TaskInfo task = findTask(taskId);
+        if (task == null || isFinished(task)) {
+            return task;
+        }
+        TaskProgress progress = progresses.get(taskId);
+        return progress != null ? progress.view(task) : task;
+    }
+
+    /**
+     * 取共享的任务对象，热数据未命中时从存储回读
+     */
+    private TaskInfo findTask(String taskId) {
+        TaskInfo task = tasks.get(taskId);
+        if (task != null) {
+            return task;
+        }
+
+        try {
+            TaskInfo loaded = taskStore.load(taskId);
+            if (loaded == null) {
+                return null;
+            }
+            task = tasks.putIfAbsent(taskId, loaded);
+            enforceCapacity();
+            return task != null ? task : loaded;
+        } catch (Exception e) {
+            log.warn("Failed to load task {} from store: {}", taskId, e.getMessage());
+            return null;
+        }
     }
 
     @Override
     public void updateTaskStatus(String taskId, TaskInfo.TaskStatus status) {
-        TaskInfo task = tasks.get(taskId);
+        TaskInfo task = findTask(taskId);
         if (task != null) {
             task.setStatus(status);
-            if (status == TaskInfo.TaskStatus.COMPLETED || status == TaskInfo.TaskStatus.FAILED) {
+            if (status == TaskInfo.TaskStatus.COMPLETED || status == TaskInfo.TaskStatus.FAILED
+                    || status == TaskInfo.TaskStatus.CANCELLED) {
                 task.setCompletedTime(LocalDateTime.now());
+                persist(task);
+            } else {
+                stageProgress(task);
             }
         }
     }
 
     @Override
     public void updateTaskProgress(String taskId, int successCount, int failedCount) {
-        TaskInfo task = tasks.get(taskId);
+        TaskInfo task = findTask(taskId);
         if (task != null) {
             task.setSuccessCount(successCount);
             task.setFailedCount(failedCount);
+            stageProgress(task);
         }
     }
 
     @Override
     public void completeTask(String taskId, List<String> successIds,
                            List<TaskInfo.FailedOperation> failedOperations) {
-        TaskInfo task = tasks.get(taskId);
+        TaskInfo task = findTask(taskId);
         if (task != null) {
             task.setStatus(TaskInfo.TaskStatus.COMPLETED)
                 .setSuccessIds(new ArrayList<>(successIds))
@@ -84,24 +169,190 @@ public class TaskManagerServiceImpl implements ITaskManagerService {
                 .setSuccessCount(successIds.size())
                 .setFailedCount(failedOperations.size())
                 .setCompletedTime(LocalDateTime.now());
+            persist(task);
+            finishProgress(task);
         }
     }
 
     @Override
-    public void failTask(String taskId, String errorMessage) {
-        TaskInfo task = tasks.get(taskId);
-        if (task != null) {
-            task.setStatus(TaskInfo.TaskStatus.FAILED)
-                .setErrorMessage(errorMessage)
-                .setCompletedTime(LocalDateTime.now());
+    public void recordOperationResult(String taskId, OperationResult result) {
+        TaskInfo task = findTask(taskId);
+        // 任务已超时结束时忽略迟到的结果
+        if (task == null || isFinished(task)) {
+            return;
         }
+
+        TaskProgress progress = progresses.computeIfAbsent(taskId, id -> new TaskProgress());
+        TaskProgress.Counts counts = progress.record(result);
+        stageProgress(task);
+
+        TaskProgressEvent event = new TaskProgressEvent()
+                .setTaskId(taskId)
+                .setInstanceId(result.getInstanceId())
+                .setSuccess(result.isSuccess())
+                .setErrorMessage(result.getErrorMessage())
+                .setSuccessCount(counts.success())
+                .setFailedCount(counts.failed())
+                .setTotalCount(task.getTotalCount());
+        progress.subscribers.forEach(emitter -> send(emitter, EVENT_PROGRESS, event));
+    }
+
+    @Override
+    public void completeTask(String taskId) {
+        finishWithRecordedResults(taskId, TaskInfo.TaskStatus.COMPLETED, null);
+    }
+
+    @Override
+    public SseEmitter subscribeTaskProgress(String taskId) {
+        TaskInfo task = findTask(taskId);
+        if (task == null) {
+            return null;
+        }
+
+        SseEmitter emitter = new SseEmitter(streamTimeout);
+        send(emitter, EVENT_SNAPSHOT, getTask(taskId));
+        if (isFinished(task)) {
+            send(emitter, EVENT_FINISHED, task);
+            emitter.complete();
+            return emitter;
+        }
+
+        TaskProgress progress = progresses.computeIfAbsent(taskId, id -> new TaskProgress());
+        progress.subscribers.add(emitter);
+        emitter.onCompletion(() -> progress.subscribers.remove(emitter));
+        emitter.onTimeout(() -> progress.subscribers.remove(emitter));
+        emitter.onError(e -> progress.subscribers.remove(emitter));
+
+        // 订阅期间任务恰好结束时，结束事件可能已经发出，这里补发
+        if (isFinished(task) && progress.subscribers.remove(emitter)) {
+            progresses.remove(taskId, progress);
+            send(emitter, EVENT_FINISHED, task);
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    @Override
+    public void failTask(String taskId, String errorMessage) {
+        finishWithRecordedResults(taskId, TaskInfo.TaskStatus.FAILED, errorMessage);
+    }
+
+    @Override
+    public void cancelTask(String taskId) {
+        finishWithRecordedResults(taskId, TaskInfo.TaskStatus.CANCELLED, "任务已取消");
     }
 
+    /**
+     * 定时淘汰：已结束超过TTL的任务移出热数据，超过保留期的任务从存储中删除
+     */
     @Override
+    @Scheduled(fixedDelayString = "${napcat.task.eviction-interval:60000}")
     public void cleanupExpiredTasks() {
-        LocalDateTime expireTime = LocalDateTime.now().minusHours(24);
-        tasks.entrySet().removeIf(entry ->
-            entry.getValue().getCreatedTime().isBefore(expireTime));
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime hotExpireTime = now.minusMinutes(hotTtlMinutes);
+        LocalDateTime retentionExpireTime = now.minusHours(retentionHours);
+
+        int before = tasks.size();
+        tasks.values().removeIf(task ->
+            (isFinished(task) && task.getCompletedTime().isBefore(hotExpireTime))
+                || task.getCreatedTime().isBefore(retentionExpireTime));
+        int evicted = before - tasks.size();
+        progresses.keySet().removeIf(taskId -> !tasks.containsKey(taskId));
+
+        int purged = 0;
+        try {
+            purged = taskStore.deleteCreatedBefore(retentionExpireTime);
+        } catch (Exception e) {
+            log.warn("Failed to purge expired tasks from store: {}", e.getMessage());
+        }
+
+        if (evicted > 0 || purged > 0) {
+            log.info("Task cleanup: evicted {} from memory, purged {} from store, {} hot tasks remain",
+                    evicted, purged, tasks.size());
+        }
+    }
+
+    /**
+     * 以已记录的实例结果结束任务，已结束的任务不再修改
+     * 失败和取消的任务同样保留已完成部分的结果
+     */
+    private void finishWithRecordedResults(String taskId, TaskInfo.TaskStatus status, String errorMessage) {
+        TaskInfo task = findTask(taskId);
+        if (task == null || isFinished(task)) {
+            return;
+        }
+
+        TaskProgress progress = progresses.get(taskId);
+        if (progress != null) {
+            progress.fill(task);
+        }
+        task.setStatus(status)
+            .setErrorMessage(errorMessage)
+            .setCompletedTime(LocalDateTime.now());
+        persist(task);
+        finishProgress(task);
+    }
+
+    /**
+     * 任务结束：推送结束事件并关闭所有订阅
+     */
+    private void finishProgress(TaskInfo task) {
+        TaskProgress progress = progresses.remove(task.getTaskId());
+        if (progress == null) {
+            return;
+        }
+        for (SseEmitter emitter : progress.subscribers) {
+            send(emitter, EVENT_FINISHED, task);
+            emitter.complete();
+        }
+        progress.subscribers.clear();
+    }
+
+    private void send(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Failed to push task {} event, subscriber may have disconnected: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * 暂存进度，结果列表由存储在写入时才生成
+     */
+    private void stageProgress(TaskInfo task) {
+        taskStore.stageProgress(task.getTaskId(), () -> {
+            TaskProgress progress = progresses.get(task.getTaskId());
+            return progress != null ? progress.snapshot(task) : task;
+        });
+    }
+
+    private void persist(TaskInfo task) {
+        try {
+            taskStore.update(task);
+        } catch (Exception e) {
+            log.warn("Failed to persist task {}: {}", task.getTaskId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 热数据超出容量时按完成时间淘汰最早结束的任务，执行中的任务不淘汰
+     */
+    private void enforceCapacity() {
+        int overflow = tasks.size() - hotCapacity;
+        if (overflow <= 0) {
+            return;
+        }
+        tasks.values().stream()
+                .filter(this::isFinished)
+                .sorted(Comparator.comparing(TaskInfo::getCompletedTime))
+                .limit(overflow)
+                .map(TaskInfo::getTaskId)
+                .toList()
+                .forEach(tasks::remove);
+    }
+
+    private boolean isFinished(TaskInfo task) {
+        return task.getCompletedTime() != null;
     }
 
     @Override
@@ -113,34 +364,47 @@ public class TaskManagerServiceImpl implements ITaskManagerService {
         return createTask(operation, instanceIds);
     }
 
+    /**
+     * 一次查询取出全部实例，一次读取容器状态快照，整个校验不访问Docker
+     */
     private void validateInstanceStatesForOperation(String operation, List<String> instanceIds) {
+        LifecycleOperation lifecycleOperation = LifecycleOperation.of(operation);
         List<InvalidInstanceStateException.InvalidStateInfo> invalidStates = new ArrayList<>();
 
+        Map<String, NapcatInstance> instances = new HashMap<>();
+        if (!instanceIds.isEmpty()) {
+            instanceService.lambdaQuery()
+                    .select(NapcatInstance::getId, NapcatInstance::getContainerId,
+                            NapcatInstance::getStatus, NapcatInstance::getUpdatedTime)
+                    .in(NapcatInstance::getId, new HashSet<>(instanceIds))
+                    .list()
+                    .forEach(instance -> instances.put(instance.getId(), instance));
+        }
+        ContainerStateSnapshot snapshot = containerStateCache.snapshot();
+
         for (String instanceId : instanceIds) {
-            try {
-                // 获取实例当前状态
-                var instanceResponse = instanceService.getInstance(instanceId);
-                NapcatInstance.InstanceStatus currentStatus =
-                    NapcatInstance.InstanceStatus.valueOf(String.valueOf(instanceResponse.getStatus()));
-
-                // 根据操作类型检查状态是否合适
-                String validationResult = validateStateForOperation(operation, currentStatus);
-
-                if (validationResult != null) {
-                    invalidStates.add(new InvalidInstanceStateException.InvalidStateInfo(
-                        instanceId,
-                        currentStatus.toString(),
-                        getRequiredStateForOperation(operation),
-                        validationResult
-                    ));
-                }
-            } catch (RuntimeException e) {
-                // 实例不存在或获取失败
+            NapcatInstance instance = instances.get(instanceId);
+            if (instance == null) {
                 invalidStates.add(new InvalidInstanceStateException.InvalidStateInfo(
                     instanceId,
                     "UNKNOWN",
-                    getRequiredStateForOperation(operation),
-                    "实例不存在或无法获取状态: " + e.getMessage()
+                    lifecycleOperation.getRequiredState(),
+                    "实例不存在"
+                ));
+                continue;
+            }
+
+            NapcatInstance.InstanceStatus currentStatus = observedStatus(instance, snapshot);
+
+            // 按状态转换表检查状态是否合适
+            String validationResult = lifecycleOperation.check(currentStatus);
+
+            if (validationResult != null) {
+                invalidStates.add(new InvalidInstanceStateException.InvalidStateInfo(
+                    instanceId,
+                    String.valueOf(currentStatus),
+                    lifecycleOperation.getRequiredState(),
+                    validationResult
                 ));
             }
         }
@@ -154,49 +418,91 @@ public class TaskManagerServiceImpl implements ITaskManagerService {
         }
     }
 
-    private String validateStateForOperation(String operation, NapcatInstance.InstanceStatus currentStatus) {
-        switch (operation.toUpperCase()) {
-            case "START":
-                if (currentStatus == NapcatInstance.InstanceStatus.RUNNING) {
-                    return "实例已经在运行中";
-                }
-                if (currentStatus == NapcatInstance.InstanceStatus.STARTING) {
-                    return "实例正在启动中";
-                }
-                break;
-            case "STOP":
-                if (currentStatus == NapcatInstance.InstanceStatus.STOPPED) {
-                    return "实例已经停止";
-                }
-                if (currentStatus == NapcatInstance.InstanceStatus.STOPPING) {
-                    return "实例正在停止中";
-                }
-                break;
-            case "RESTART":
-                if (currentStatus == NapcatInstance.InstanceStatus.STARTING ||
-                    currentStatus == NapcatInstance.InstanceStatus.STOPPING) {
-                    return "实例正在进行状态转换，无法重启";
-                }
-                break;
-            case "DELETE":
-                if (currentStatus == NapcatInstance.InstanceStatus.STARTING ||
-                    currentStatus == NapcatInstance.InstanceStatus.STOPPING) {
-                    return "实例正在进行状态转换，无法删除";
-                }
-                break;
-            default:
-                return "不支持的操作类型: " + operation;
-        }
-        return null; // 状态检查通过
-    }
-
-    private String getRequiredStateForOperation(String operation) {
-        return switch (operation.toUpperCase()) {
-            case "START" -> "STOPPED";
-            case "STOP" -> "RUNNING";
-            case "RESTART" -> "RUNNING or STOPPED";
-            case "DELETE" -> "STOPPED or RUNNING";
-            default -> "UNKNOWN";
-        };
-    }
-}
\ No newline at end of file
+    /**
+     * 数据库状态由生命周期操作维护；只有快照晚于实例最后一次状态写入时，才以容器实际状态为准，
+     * 过渡状态始终以数据库为准
+     */
+    private NapcatInstance.InstanceStatus observedStatus(NapcatInstance instance, ContainerStateSnapshot snapshot) {
+        return snapshot != null ? snapshot.observedStatus(instance) : instance.getStatus();
+    }
+
+    /**
+     * 执行中任务的累计结果，计数原子更新，结果追加到无锁队列；
+     * 列表只在任务结束或进度写入存储时生成，单个结果的记录不拷贝已有结果
+     */
+    private static class TaskProgress {
+
+        private final AtomicReference<Counts> counts = new AtomicReference<>(new Counts(0, 0));
+        private final ConcurrentLinkedQueue<String> successIds = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<TaskInfo.FailedOperation> failures = new ConcurrentLinkedQueue<>();
+        private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+
+        /**
+         * 成功数和失败数作为一个整体更新，每个快照都是某一时刻的完整计数，不会回退
+         */
+        private record Counts(int success, int failed) {
+        }
+
+        /**
+         * @return 记录该结果之后的计数快照
+         */
+        Counts record(OperationResult result) {
+            if (result.isSuccess()) {
+                successIds.add(result.getInstanceId());
+                return counts.updateAndGet(c -> new Counts(c.success() + 1, c.failed()));
+            }
+            TaskInfo.FailedOperation failed = new TaskInfo.FailedOperation();
+            failed.setInstanceId(result.getInstanceId());
+            failed.setReason(result.getErrorMessage());
+            failures.add(failed);
+            return counts.updateAndGet(c -> new Counts(c.success(), c.failed() + 1));
+        }
+
+        /**
+         * 查询用的副本，只带计数
+         */
+        TaskInfo view(TaskInfo task) {
+            Counts current = counts.get();
+            return copyOf(task)
+                    .setSuccessCount(current.success())
+                    .setFailedCount(current.failed());
+        }
+
+        /**
+         * 写入存储用的副本，计数取自列表长度，与列表一致
+         */
+        TaskInfo snapshot(TaskInfo task) {
+            TaskInfo copy = copyOf(task);
+            fill(copy);
+            return copy;
+        }
+
+        /**
+         * 将累计结果拷贝为列表写入任务
+         */
+        void fill(TaskInfo task) {
+            List<String> successList = new ArrayList<>(successIds);
+            List<TaskInfo.FailedOperation> failureList = new ArrayList<>(failures);
+            task.setSuccessIds(successList)
+                .setFailedOperations(failureList)
+                .setSuccessCount(successList.size())
+                .setFailedCount(failureList.size());
+        }
+
+        private static TaskInfo copyOf(TaskInfo task) {
+            return new TaskInfo()
+                    .setTaskId(task.getTaskId())
+                    .setOperation(task.getOperation())
+                    .setStatus(task.getStatus())
+                    .setInstanceIds(task.getInstanceIds())
+                    .setTotalCount(task.getTotalCount())
+                    .setSuccessCount(task.getSuccessCount())
+                    .setFailedCount(task.getFailedCount())
+                    .setSuccessIds(task.getSuccessIds())
+                    .setFailedOperations(task.getFailedOperations())
+                    .setCreatedTime(task.getCreatedTime())
+                    .setCompletedTime(task.getCompletedTime())
+                    .setErrorMessage(task.getErrorMessage());
+        }
+    }
+}
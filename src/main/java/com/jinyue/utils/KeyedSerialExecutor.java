@@ -0,0 +1,180 @@
+package com.jinyue.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 按键串行的执行器
+ * 同一个键的任务按提交顺序依次执行，不同键的任务在委托线程池上并发执行；
+ * 每个键同一时刻最多占用一个委托线程，键的队列排空后即被移除，不会随实例数增长
+ */
+@Slf4j
+public class KeyedSerialExecutor {
+
+    private final Executor delegate;
+    private final ConcurrentHashMap<String, SerialQueue> queues = new ConcurrentHashMap<>();
+
+    public KeyedSerialExecutor(Executor delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * 提交任务，排在同键已提交的任务之后执行
+     * @throws RejectedExecutionException 委托线程池拒绝时抛出，任务不会被保留
+     */
+    public void execute(String key, Runnable task) {
+        execute(key, task, null);
+    }
+
+    /**
+     * 提交任务，排在同键已提交的任务之后执行
+     * 启动排空时委托线程池拒绝，本任务抛出异常；期间并发加入同一队列的任务不会再被执行，
+     * 随队列一起移除并回调各自的onRejected
+     * @param onRejected 任务因其他提交者的排空被拒绝而丢弃时回调，为null时只记录日志
+     * @throws RejectedExecutionException 委托线程池拒绝时抛出，任务不会被保留
+     */
+    public void execute(String key, Runnable task, Consumer<RejectedExecutionException> onRejected) {
+        QueuedTask queued = new QueuedTask(task, onRejected);
+        boolean[] startDrain = {false};
+        queues.compute(key, (k, queue) -> {
+            if (queue == null) {
+                queue = new SerialQueue();
+            }
+            queue.tasks.add(queued);
+            queue.depth = queue.tasks.size();
+            if (!queue.draining) {
+                queue.draining = true;
+                startDrain[0] = true;
+            }
+            return queue;
+        });
+
+        if (startDrain[0]) {
+            try {
+                delegate.execute(() -> drain(key));
+            } catch (RejectedExecutionException e) {
+                // 排空未启动，队列中其余任务是看到draining后并发加入的，不会再有线程执行它们；
+                // 整个队列移除，之后的提交重新创建队列
+                SerialQueue stranded = queues.remove(key);
+                if (stranded != null) {
+                    stranded.tasks.stream()
+                            .filter(other -> other != queued)
+                            .forEach(other -> other.reject(key, e));
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 提交有返回值的任务
+     */
+    public <T> CompletableFuture<T> submit(String key, Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        execute(key, () -> {
+            try {
+                future.complete(task.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }, future::completeExceptionally);
+        return future;
+    }
+
+    /**
+     * 各键当前排队深度（含正在执行的任务），只包含有任务的键
+     */
+    public Map<String, Integer> queueDepths() {
+        return queues.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().depth()));
+    }
+
+    /**
+     * 有任务的键数量
+     */
+    public int activeKeys() {
+        return queues.size();
+    }
+
+    /**
+     * 所有键的任务总数
+     */
+    public int totalDepth() {
+        return queues.values().stream().mapToInt(SerialQueue::depth).sum();
+    }
+
+    /**
+     * 单个键的最大排队深度，大于1说明同一实例上有操作在等待
+     */
+    public int maxDepth() {
+        return queues.values().stream().mapToInt(SerialQueue::depth).max().orElse(0);
+    }
+
+    /**
+     * 在一个委托线程内依次执行同键任务，直到队列排空
+     */
+    private void drain(String key) {
+        while (true) {
+            QueuedTask[] next = {null};
+            queues.computeIfPresent(key, (k, queue) -> {
+                next[0] = queue.tasks.peek();
+                if (next[0] == null) {
+                    // 队列已空，移除键；之后的提交会重新创建队列并启动新的排空
+                    return null;
+                }
+                return queue;
+            });
+            if (next[0] == null) {
+                return;
+            }
+
+            try {
+                next[0].task().run();
+            } catch (Throwable e) {
+                log.error("Serial task for key {} failed: {}", key, e.getMessage(), e);
+            } finally {
+                // 执行完成后才出队，使深度统计包含正在执行的任务
+                queues.computeIfPresent(key, (k, queue) -> {
+                    queue.tasks.poll();
+                    queue.depth = queue.tasks.size();
+                    return queue;
+                });
+            }
+        }
+    }
+
+    private record QueuedTask(Runnable task, Consumer<RejectedExecutionException> onRejected) {
+
+        void reject(String key, RejectedExecutionException e) {
+            if (onRejected == null) {
+                log.error("Serial task for key {} dropped, delegate executor rejected the drain: {}", key, e.getMessage());
+                return;
+            }
+            try {
+                onRejected.accept(e);
+            } catch (Throwable callbackError) {
+                log.error("Rejection callback for key {} failed: {}", key, callbackError.getMessage(), callbackError);
+            }
+        }
+    }
+
+    private static class SerialQueue {
+        private final ArrayDeque<QueuedTask> tasks = new ArrayDeque<>();
+        private boolean draining;
+        // 队列只在compute内修改，深度单独发布供无锁读取
+        private volatile int depth;
+
+        int depth() {
+            return depth;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.jinyue.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 固定容量的字节环形缓冲区
+ * 用于保存容器最近的日志输出，写满后覆盖最旧的数据，内存占用恒定为capacity字节
+ * 非线程安全，由调用方加锁
+ */
+public class LogRingBuffer {
+
+    private final byte[] buffer;
+    private int writePos;
+    private long totalWritten;
+
+    public LogRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ring buffer capacity must be greater than 0");
+        }
+        this.buffer = new byte[capacity];
+    }
+
+    /**
+     * 追加数据，超出容量时只保留最新的capacity字节
+     */
+    public void append(byte[] data) {
+        if (data == null || data.length == 0) {
+            return;
+        }
+
+        int offset = 0;
+        int length = data.length;
+        if (length > buffer.length) {
+            offset = length - buffer.length;
+            length = buffer.length;
+        }
+
+        int firstPart = Math.min(length, buffer.length - writePos);
+        System.arraycopy(data, offset, buffer, writePos, firstPart);
+        if (firstPart < length) {
+            System.arraycopy(data, offset + firstPart, buffer, 0, length - firstPart);
+        }
+
+        writePos = (writePos + length) % buffer.length;
+        totalWritten += data.length;
+    }
+
+    /**
+     * 按写入顺序返回当前缓冲区中的全部字节
+     */
+    public byte[] snapshot() {
+        int size = size();
+        byte[] result = new byte[size];
+        if (totalWritten <= buffer.length) {
+            System.arraycopy(buffer, 0, result, 0, size);
+        } else {
+            int tailLength = buffer.length - writePos;
+            System.arraycopy(buffer, writePos, result, 0, tailLength);
+            System.arraycopy(buffer, 0, result, tailLength, writePos);
+        }
+        return result;
+    }
+
+    /**
+     * 返回最近的若干行完整日志
+     * 缓冲区发生过覆盖时，第一行可能被截断，直接丢弃
+     * @param maxLines 最多返回的行数
+     */
+    public List<String> lastLines(int maxLines) {
+        if (maxLines <= 0 || totalWritten == 0) {
+            return Collections.emptyList();
+        }
+
+        byte[] data = snapshot();
+        int start = 0;
+        if (isWrapped()) {
+            while (start < data.length && data[start] != '\n') {
+                start++;
+            }
+            start++;
+        }
+        if (start >= data.length) {
+            return Collections.emptyList();
+        }
+
+        String text = new String(data, start, data.length - start, StandardCharsets.UTF_8);
+        String[] lines = text.split("\n");
+        int from = Math.max(0, lines.length - maxLines);
+
+        List<String> result = new ArrayList<>(lines.length - from);
+        for (int i = from; i < lines.length; i++) {
+            if (!lines[i].isEmpty()) {
+                result.add(lines[i]);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return (int) Math.min(totalWritten, buffer.length);
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    public boolean isWrapped() {
+        return totalWritten > buffer.length;
+    }
+}
@@ -0,0 +1,72 @@
+package com.jinyue.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁的固定桶延迟直方图
+ * 每个桶是一个LongAdder，高并发记录时各线程写入不同的cell，不争用同一缓存行；
+ * 百分位按桶上界估算，精度由桶边界（1-2-5序列，毫秒）决定
+ */
+public class StripedLatencyHistogram {
+
+    private static final long[] BOUNDS_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000};
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_MILLIS.length + 1];
+    private final LongAdder totalNanos = new LongAdder();
+
+    public StripedLatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int index = 0;
+        while (index < BOUNDS_MILLIS.length && millis >= BOUNDS_MILLIS[index]) {
+            index++;
+        }
+        buckets[index].increment();
+        totalNanos.add(nanos);
+    }
+
+    /**
+     * 当前各桶计数的快照，最后一个桶为超过最大边界的溢出桶
+     */
+    public long[] snapshot() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    public long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * 按桶计数估算百分位（毫秒），落在溢出桶时返回最大边界
+     * @param counts snapshot()的结果，可以是多个直方图按桶相加后的计数
+     * @param percentile 0~100
+     */
+    public static long percentileMillis(long[] counts, double percentile) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                return BOUNDS_MILLIS[Math.min(i, BOUNDS_MILLIS.length - 1)];
+            }
+        }
+        return BOUNDS_MILLIS[BOUNDS_MILLIS.length - 1];
+    }
+}
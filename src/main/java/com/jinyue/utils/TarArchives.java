@@ -0,0 +1,82 @@
+package com.jinyue.utils;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Docker复制文件接口使用的tar归档读写
+ * 只处理单文件归档：写入时打包一个文件，读取时返回第一个非空文件的内容
+ */
+public final class TarArchives {
+
+    private TarArchives() {
+    }
+
+    /**
+     * 创建包含单个文件的tar归档
+     */
+    public static byte[] createSingleFile(String fileName, String fileContent) throws IOException {
+        try (var byteOutput = new ByteArrayOutputStream();
+             var tarOutput = new TarArchiveOutputStream(byteOutput)) {
+
+            byte[] contentBytes = fileContent.getBytes(StandardCharsets.UTF_8);
+
+            // 创建tar条目
+            TarArchiveEntry entry = new TarArchiveEntry(fileName);
+            entry.setSize(contentBytes.length);
+            entry.setMode(0644); // 设置文件权限
+
+            tarOutput.putArchiveEntry(entry);
+            tarOutput.write(contentBytes);
+            tarOutput.closeArchiveEntry();
+            tarOutput.finish();
+
+            return byteOutput.toByteArray();
+        }
+    }
+
+    /**
+     * 从tar流中提取第一个文件的内容
+     */
+    public static byte[] extractFirstFile(InputStream tarStream) throws IOException {
+        try (var bufferedStream = new BufferedInputStream(tarStream)) {
+
+            // 简单的tar文件头解析
+            byte[] header = new byte[512];
+
+            while (bufferedStream.read(header) == 512) {
+                // 获取文件大小（tar头部的124-135字节，8进制表示）
+                String sizeStr = new String(header, 124, 11).trim();
+                if (sizeStr.isEmpty()) continue;
+
+                long size;
+                try {
+                    size = Long.parseLong(sizeStr, 8);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+
+                if (size > 0) {
+                    // 读取文件内容
+                    byte[] fileContent = new byte[(int) size];
+                    int bytesRead = bufferedStream.read(fileContent);
+                    if (bytesRead > 0) {
+                        return Arrays.copyOf(fileContent, bytesRead);
+                    }
+                }
+
+                // 跳过padding到512字节边界
+                long padding = (512 - (size % 512)) % 512;
+                bufferedStream.skip(padding);
+            }
+        }
+        return null;
+    }
+}
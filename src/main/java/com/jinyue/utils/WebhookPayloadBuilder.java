@@ -0,0 +1,56 @@
+package com.jinyue.utils;
+
+import com.jinyue.dto.WebhookMessageRequest;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 将NapCat上报的消息转换为xxf-bot-backend IncomingMessage格式 (统一使用snake_case命名格式)
+ * 架构简化: 不再传递UUID，后端通过QQ号识别账号
+ */
+public final class WebhookPayloadBuilder {
+
+    private WebhookPayloadBuilder() {
+    }
+
+    public static Map<String, Object> build(WebhookMessageRequest request) {
+        Map<String, Object> data = new HashMap<>();
+
+        // 平台和消息基本信息
+        data.put("platform", "qq");
+        data.put("message_id", request.getMessageId().toString());
+        data.put("message_type", request.getMessageType());
+
+        // 发送者信息
+        data.put("sender_id", request.getUserId().toString());
+        data.put("sender_nickname", request.getSender().getNickname());
+
+        // 接收者信息 (机器人自己的QQ号，后端通过此字段识别账号)
+        data.put("receiver_id", request.getSelfId().toString());
+
+        // 消息内容
+        data.put("content", request.getRawMessage());
+
+        // 时间戳 (转换为ISO 8601格式)
+        data.put("timestamp", Instant.ofEpochSecond(request.getTime()).toString());
+
+        // 目标信息 (群聊或私聊)
+        if ("group".equals(request.getMessageType())) {
+            data.put("target_id", request.getGroupId() != null ? request.getGroupId().toString() : "");
+            data.put("target_name", request.getGroupName() != null ? request.getGroupName() : "");
+        } else {
+            // 私聊时target_id就是发送者的QQ号
+            data.put("target_id", request.getUserId().toString());
+            data.put("target_name", request.getSender().getNickname());
+        }
+
+        // 原始数据 (保留完整的NapCat消息结构)
+        Map<String, Object> rawData = new HashMap<>();
+        rawData.put("original_napcat_data", request);
+        data.put("raw_data", rawData);
+
+        return data;
+    }
+}
@@ -24,6 +24,10 @@ CREATE INDEX IF NOT EXISTS idx_napcat_instance_status ON napcat_instance(status)
 CREATE INDEX IF NOT EXISTS idx_napcat_instance_qq_account ON napcat_instance(qq_account);
 CREATE INDEX IF NOT EXISTS idx_napcat_instance_deleted ON napcat_instance(deleted);
 
+-- 未删除实例的服务端口唯一，兜底并发分配时的端口冲突
+-- 从没有该索引的旧版本升级时，库中已有的重复端口会使建索引失败、应用无法启动，处理方法见README“升级：端口唯一索引”
+CREATE UNIQUE INDEX IF NOT EXISTS uk_napcat_instance_port ON napcat_instance(port) WHERE deleted = 0;
+
 -- 创建JSONB索引（用于配置的查询）
 CREATE INDEX IF NOT EXISTS idx_napcat_instance_config_gin ON napcat_instance USING gin(config);
 
@@ -32,8 +36,39 @@ COMMENT ON TABLE napcat_instance IS 'Napcat实例表';
 COMMENT ON COLUMN napcat_instance.id IS '主键ID';
 COMMENT ON COLUMN napcat_instance.name IS '实例名称';
 COMMENT ON COLUMN napcat_instance.container_id IS 'Docker容器ID';
-COMMENT ON COLUMN napcat_instance.status IS '运行状态: STOPPED, STARTING, RUNNING, STOPPING, ERROR';
+COMMENT ON COLUMN napcat_instance.status IS '运行状态: STOPPED, STARTING, RUNNING, STOPPING, DELETING, ERROR';
 COMMENT ON COLUMN napcat_instance.config IS '实例配置信息(JSON格式)';
 COMMENT ON COLUMN napcat_instance.port IS '实例端口号';
 COMMENT ON COLUMN napcat_instance.qq_account IS 'QQ账号';
-COMMENT ON COLUMN napcat_instance.deleted IS '逻辑删除标记: 0-未删除, 1-已删除';
\ No newline at end of file
+COMMENT ON COLUMN napcat_instance.deleted IS '逻辑删除标记: 0-未删除, 1-已删除';
+
+-- 创建异步任务表
+CREATE TABLE IF NOT EXISTS napcat_task (
+    task_id VARCHAR(36) PRIMARY KEY,
+    operation VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    instance_ids TEXT,
+    total_count INTEGER NOT NULL DEFAULT 0,
+    success_count INTEGER NOT NULL DEFAULT 0,
+    failed_count INTEGER NOT NULL DEFAULT 0,
+    success_ids TEXT,
+    failed_operations TEXT,
+    error_message TEXT,
+    node_id VARCHAR(64),
+    created_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    completed_time TIMESTAMP,
+    updated_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 兼容在增加node_id之前创建的表
+ALTER TABLE napcat_task ADD COLUMN IF NOT EXISTS node_id VARCHAR(64);
+
+CREATE INDEX IF NOT EXISTS idx_napcat_task_created_time ON napcat_task(created_time);
+
+COMMENT ON TABLE napcat_task IS 'Napcat异步任务表';
+COMMENT ON COLUMN napcat_task.operation IS '操作类型: START, STOP, RESTART, DELETE';
+COMMENT ON COLUMN napcat_task.status IS '任务状态: PENDING, RUNNING, COMPLETED, FAILED, CANCELLED';
+COMMENT ON COLUMN napcat_task.instance_ids IS '目标实例ID列表(JSON文本)';
+COMMENT ON COLUMN napcat_task.success_ids IS '成功实例ID列表(JSON文本)';
+COMMENT ON COLUMN napcat_task.failed_operations IS '失败详情(JSON文本)';
+COMMENT ON COLUMN napcat_task.node_id IS '执行任务的管理器节点ID';
@@ -0,0 +1,39 @@
+package com.jinyue.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.boot.diagnostics.FailureAnalysis;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.jdbc.datasource.init.ScriptStatementFailedException;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PortIndexFailureAnalyzerTest {
+
+    private final PortIndexFailureAnalyzer analyzer = new PortIndexFailureAnalyzer();
+
+    @Test
+    void pointsDuplicatePortFailureToMigrationGuide() {
+        FailureAnalysis analysis = analyzer.analyze(startupFailure(
+                "CREATE UNIQUE INDEX IF NOT EXISTS uk_napcat_instance_port ON napcat_instance(port) WHERE deleted = 0"));
+
+        assertNotNull(analysis);
+        assertTrue(analysis.getAction().contains("升级：端口唯一索引"));
+    }
+
+    @Test
+    void ignoresOtherScriptFailures() {
+        assertNull(analyzer.analyze(startupFailure("CREATE TABLE IF NOT EXISTS napcat_task (task_id VARCHAR(36))")));
+    }
+
+    private static Throwable startupFailure(String statement) {
+        ScriptStatementFailedException cause = new ScriptStatementFailedException(statement, 1,
+                new EncodedResource(new ClassPathResource("sql/schema.sql")), new SQLException("duplicate key"));
+        return new BeanCreationException("dataSourceScriptDatabaseInitializer", "init failed", cause);
+    }
+}
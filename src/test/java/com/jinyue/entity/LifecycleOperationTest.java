@@ -0,0 +1,116 @@
+package com.jinyue.entity;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.LocalDateTime;
+
+import static com.jinyue.entity.NapcatInstance.InstanceStatus.DELETING;
+import static com.jinyue.entity.NapcatInstance.InstanceStatus.ERROR;
+import static com.jinyue.entity.NapcatInstance.InstanceStatus.RUNNING;
+import static com.jinyue.entity.NapcatInstance.InstanceStatus.STARTING;
+import static com.jinyue.entity.NapcatInstance.InstanceStatus.STOPPED;
+import static com.jinyue.entity.NapcatInstance.InstanceStatus.STOPPING;
+import static com.jinyue.entity.NapcatInstance.InstanceStatus.UNKNOWN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LifecycleOperationTest {
+
+    private static final LocalDateTime STALE_BEFORE = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @Test
+    void startIsRejectedOnlyWhenRunningOrTransitional() {
+        assertNull(LifecycleOperation.START.check(STOPPED));
+        assertNull(LifecycleOperation.START.check(ERROR));
+        assertNull(LifecycleOperation.START.check(UNKNOWN));
+        assertNotNull(LifecycleOperation.START.check(RUNNING));
+        assertNotNull(LifecycleOperation.START.check(STARTING));
+        assertNotNull(LifecycleOperation.START.check(STOPPING));
+        assertNotNull(LifecycleOperation.START.check(DELETING));
+    }
+
+    @Test
+    void stopIsRejectedOnlyWhenStoppedOrTransitional() {
+        assertNull(LifecycleOperation.STOP.check(RUNNING));
+        assertNull(LifecycleOperation.STOP.check(ERROR));
+        assertNotNull(LifecycleOperation.STOP.check(STOPPED));
+        assertNotNull(LifecycleOperation.STOP.check(STARTING));
+        assertNotNull(LifecycleOperation.STOP.check(STOPPING));
+        assertNotNull(LifecycleOperation.STOP.check(DELETING));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = LifecycleOperation.class, names = {"RESTART", "DELETE"})
+    void restartAndDeleteAreAllowedFromAnySettledState(LifecycleOperation operation) {
+        for (NapcatInstance.InstanceStatus status : NapcatInstance.InstanceStatus.values()) {
+            if (LifecycleOperation.isTransitional(status)) {
+                assertNotNull(operation.check(status), operation + " from " + status);
+            } else {
+                assertNull(operation.check(status), operation + " from " + status);
+            }
+        }
+    }
+
+    @Test
+    void transitionalStatesBelongToOperations() {
+        assertEquals(STARTING, LifecycleOperation.START.getTransitional());
+        assertEquals(STOPPING, LifecycleOperation.STOP.getTransitional());
+        assertEquals(STOPPING, LifecycleOperation.RESTART.getTransitional());
+        assertEquals(DELETING, LifecycleOperation.DELETE.getTransitional());
+    }
+
+    @Test
+    void parsesOperationNamesCaseInsensitively() {
+        assertEquals(LifecycleOperation.RESTART, LifecycleOperation.of("restart"));
+        assertThrows(IllegalArgumentException.class, () -> LifecycleOperation.of("pause"));
+        assertThrows(IllegalArgumentException.class, () -> LifecycleOperation.of(null));
+    }
+
+    @Test
+    void staleTransitionRecoversToObservedStatus() {
+        assertEquals(RUNNING, LifecycleOperation.recoveryTarget(
+                instance(STARTING, STALE_BEFORE.minusMinutes(1)), RUNNING, STALE_BEFORE));
+        assertEquals(STOPPED, LifecycleOperation.recoveryTarget(
+                instance(STOPPING, STALE_BEFORE.minusMinutes(1)), STOPPED, STALE_BEFORE));
+        // 删除中途崩溃：容器已不存在，恢复为ERROR后可以再次删除
+        assertEquals(ERROR, LifecycleOperation.recoveryTarget(
+                instance(DELETING, STALE_BEFORE.minusMinutes(1)), ERROR, STALE_BEFORE));
+        assertNull(LifecycleOperation.DELETE.check(ERROR));
+    }
+
+    @Test
+    void staleTransitionWithoutTimestampIsRecovered() {
+        assertEquals(STOPPED, LifecycleOperation.recoveryTarget(instance(STARTING, null), STOPPED, STALE_BEFORE));
+    }
+
+    @Test
+    void recentTransitionIsLeftToItsOperation() {
+        assertNull(LifecycleOperation.recoveryTarget(instance(STARTING, STALE_BEFORE), RUNNING, STALE_BEFORE));
+        assertNull(LifecycleOperation.recoveryTarget(
+                instance(STOPPING, STALE_BEFORE.plusSeconds(1)), STOPPED, STALE_BEFORE));
+    }
+
+    @Test
+    void settledStatusIsNeverRecovered() {
+        assertNull(LifecycleOperation.recoveryTarget(
+                instance(RUNNING, STALE_BEFORE.minusHours(1)), STOPPED, STALE_BEFORE));
+        assertNull(LifecycleOperation.recoveryTarget(
+                instance(ERROR, STALE_BEFORE.minusHours(1)), RUNNING, STALE_BEFORE));
+    }
+
+    @Test
+    void transitionalObservationFallsBackToError() {
+        assertEquals(ERROR, LifecycleOperation.recoveryTarget(
+                instance(STARTING, STALE_BEFORE.minusMinutes(1)), STARTING, STALE_BEFORE));
+        assertEquals(ERROR, LifecycleOperation.recoveryTarget(
+                instance(STARTING, STALE_BEFORE.minusMinutes(1)), null, STALE_BEFORE));
+    }
+
+    private static NapcatInstance instance(NapcatInstance.InstanceStatus status, LocalDateTime updatedTime) {
+        return new NapcatInstance().setStatus(status).setUpdatedTime(updatedTime);
+    }
+}
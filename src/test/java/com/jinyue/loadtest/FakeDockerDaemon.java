@@ -0,0 +1,554 @@
+package com.jinyue.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jinyue.utils.TarArchives;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 本地Docker Engine API替身
+ * 只实现DockerServiceImpl用到的子集：ping、镜像检查、容器create/start/stop/restart/remove/inspect/list、
+ * 文件归档复制、日志、数据卷和events流。容器只是内存中的状态，不运行任何进程。
+ * 每个请求先占用并发许可，再按latencyMs±jitterMs休眠，然后以errorRate的概率返回500，用于模拟慢守护进程和故障
+ */
+public class FakeDockerDaemon {
+
+    private static final Pattern VERSION_PREFIX = Pattern.compile("^/v\\d+\\.\\d+");
+    private static final Pattern CONTAINER_ACTION = Pattern.compile("^/containers/([^/]+)/(start|stop|restart|json|archive|logs)$");
+    private static final Pattern CONTAINER = Pattern.compile("^/containers/([^/]+)$");
+    private static final Pattern VOLUME = Pattern.compile("^/volumes/([^/]+)$");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, FakeContainer> containers = new ConcurrentHashMap<>();
+    private final Set<String> volumes = ConcurrentHashMap.newKeySet();
+    private final List<OutputStream> eventSubscribers = new CopyOnWriteArrayList<>();
+    private final List<RecordedEvent> eventHistory = new CopyOnWriteArrayList<>();
+    private final Map<String, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+    private final AtomicLong injectedErrors = new AtomicLong();
+
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double errorRate;
+    private final int maxContainers;
+    private final Semaphore permits;
+
+    private HttpServer server;
+    private ExecutorService workers;
+
+    /**
+     * @param latencyMs 每个请求的基础延迟
+     * @param jitterMs 延迟的随机抖动上限
+     * @param errorRate 注入500错误的概率（0~1），ping和events不注入
+     * @param maxContainers 容器数量上限，超出后create返回500
+     * @param maxConcurrentRequests 同时处理的请求上限，超出的请求排队，模拟守护进程饱和
+     */
+    public FakeDockerDaemon(long latencyMs, long jitterMs, double errorRate, int maxContainers, int maxConcurrentRequests) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.errorRate = errorRate;
+        this.maxContainers = maxContainers;
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+    }
+
+    public void start() throws IOException {
+        workers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-dockerd");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(workers);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public void stop() {
+        for (OutputStream subscriber : eventSubscribers) {
+            try {
+                subscriber.close();
+            } catch (IOException ignored) {
+                // 连接已断开
+            }
+        }
+        server.stop(0);
+        workers.shutdownNow();
+    }
+
+    /**
+     * docker-java可用的DOCKER_HOST地址
+     */
+    public String getHost() {
+        return "tcp://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public int containerCount() {
+        return containers.size();
+    }
+
+    public long injectedErrors() {
+        return injectedErrors.get();
+    }
+
+    /**
+     * 各路由的请求次数，键为"方法 路由"
+     */
+    public Map<String, Long> requestCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        requestCounts.forEach((route, count) -> counts.put(route, count.get()));
+        return counts;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = VERSION_PREFIX.matcher(exchange.getRequestURI().getPath()).replaceFirst("");
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+        try {
+            if (path.equals("/_ping")) {
+                count(method, "/_ping");
+                sendText(exchange, 200, "OK");
+                return;
+            }
+            if (path.equals("/events")) {
+                count(method, "/events");
+                openEventStream(exchange, query);
+                return;
+            }
+
+            permits.acquire();
+            try {
+                simulateLatency();
+                route(exchange, method, path, query);
+            } finally {
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendError(exchange, 500, "daemon shutting down");
+        } catch (Exception e) {
+            sendError(exchange, 500, e.getMessage());
+        } finally {
+            if (!path.equals("/events")) {
+                exchange.close();
+            }
+        }
+    }
+
+    private void route(HttpExchange exchange, String method, String path, Map<String, String> query) throws IOException {
+        if (path.startsWith("/images/")) {
+            count(method, "/images");
+            // 镜像总是"已存在"，create为拉取
+            sendJson(exchange, 200, path.equals("/images/create") ? Map.of("status", "Downloaded") : Map.of("Id", "sha256:fake"));
+            return;
+        }
+
+        if (method.equals("POST") && path.equals("/containers/create")) {
+            count(method, "/containers/create");
+            if (injectFailure(exchange)) {
+                return;
+            }
+            createContainer(exchange, query.get("name"));
+            return;
+        }
+
+        if (method.equals("GET") && path.equals("/containers/json")) {
+            count(method, "/containers/json");
+            if (injectFailure(exchange)) {
+                return;
+            }
+            listContainers(exchange, query.get("filters"));
+            return;
+        }
+
+        if (path.equals("/volumes")) {
+            count(method, "/volumes");
+            List<Map<String, Object>> list = new ArrayList<>();
+            volumes.forEach(name -> list.add(Map.of("Name", name, "Driver", "local", "Mountpoint", "/var/lib/docker/volumes/" + name)));
+            sendJson(exchange, 200, Map.of("Volumes", list, "Warnings", List.of()));
+            return;
+        }
+
+        Matcher volume = VOLUME.matcher(path);
+        if (volume.matches() && method.equals("DELETE")) {
+            count(method, "/volumes/{name}");
+            sendEmpty(exchange, volumes.remove(volume.group(1)) ? 204 : 404);
+            return;
+        }
+
+        Matcher action = CONTAINER_ACTION.matcher(path);
+        if (action.matches()) {
+            count(method, "/containers/{id}/" + action.group(2));
+            if (injectFailure(exchange)) {
+                return;
+            }
+            FakeContainer container = findContainer(action.group(1));
+            if (container == null) {
+                sendError(exchange, 404, "No such container: " + action.group(1));
+                return;
+            }
+            containerAction(exchange, method, action.group(2), container, query);
+            return;
+        }
+
+        Matcher single = CONTAINER.matcher(path);
+        if (single.matches() && method.equals("DELETE")) {
+            count(method, "/containers/{id}");
+            if (injectFailure(exchange)) {
+                return;
+            }
+            FakeContainer container = findContainer(single.group(1));
+            if (container == null) {
+                sendError(exchange, 404, "No such container: " + single.group(1));
+                return;
+            }
+            containers.remove(container.id);
+            publishEvent(container, "destroy");
+            sendEmpty(exchange, 204);
+            return;
+        }
+
+        count(method, "unsupported");
+        sendError(exchange, 404, "page not found: " + method + " " + path);
+    }
+
+    private void createContainer(HttpExchange exchange, String name) throws IOException {
+        if (name != null && containers.values().stream().anyMatch(c -> c.name.equals(name))) {
+            sendError(exchange, 409, "Conflict. The container name \"/" + name + "\" is already in use");
+            return;
+        }
+        if (containers.size() >= maxContainers) {
+            sendError(exchange, 500, "capacity exhausted: " + maxContainers + " containers");
+            return;
+        }
+
+        JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+        FakeContainer container = new FakeContainer();
+        container.id = (UUID.randomUUID().toString() + UUID.randomUUID()).replace("-", "").substring(0, 64);
+        container.name = name != null ? name : container.id.substring(0, 12);
+        container.image = body.path("Image").asText();
+        container.created = Instant.now();
+        body.path("Labels").properties().forEach(entry -> container.labels.put(entry.getKey(), entry.getValue().asText()));
+        for (JsonNode bind : body.path("HostConfig").path("Binds")) {
+            String source = bind.asText().split(":")[0];
+            if (!source.startsWith("/")) {
+                container.volumes.add(source);
+                volumes.add(source);
+            }
+        }
+
+        containers.put(container.id, container);
+        publishEvent(container, "create");
+        sendJson(exchange, 201, Map.of("Id", container.id, "Warnings", List.of()));
+    }
+
+    private void containerAction(HttpExchange exchange, String method, String action,
+                                 FakeContainer container, Map<String, String> query) throws IOException {
+        switch (action) {
+            case "start" -> {
+                if (container.running) {
+                    sendEmpty(exchange, 304);
+                    return;
+                }
+                container.running = true;
+                container.startedAt = Instant.now();
+                publishEvent(container, "start");
+                sendEmpty(exchange, 204);
+            }
+            case "stop" -> {
+                if (!container.running) {
+                    sendEmpty(exchange, 304);
+                    return;
+                }
+                container.running = false;
+                publishEvent(container, "die");
+                publishEvent(container, "stop");
+                sendEmpty(exchange, 204);
+            }
+            case "restart" -> {
+                container.running = true;
+                container.startedAt = Instant.now();
+                publishEvent(container, "restart");
+                sendEmpty(exchange, 204);
+            }
+            case "json" -> sendJson(exchange, 200, inspect(container));
+            case "archive" -> {
+                String path = query.getOrDefault("path", "/");
+                if (method.equals("PUT")) {
+                    storeArchive(container, path, exchange.getRequestBody().readAllBytes());
+                    sendEmpty(exchange, 200);
+                } else {
+                    byte[] content = container.files.get(path);
+                    if (content == null) {
+                        sendError(exchange, 404, "Could not find the file " + path + " in container " + container.name);
+                        return;
+                    }
+                    String fileName = path.substring(path.lastIndexOf('/') + 1);
+                    byte[] tar = TarArchives.createSingleFile(fileName, new String(content, StandardCharsets.UTF_8));
+                    exchange.getResponseHeaders().add("Content-Type", "application/x-tar");
+                    exchange.sendResponseHeaders(200, tar.length);
+                    exchange.getResponseBody().write(tar);
+                }
+            }
+            case "logs" -> sendLogs(exchange, container);
+            default -> sendError(exchange, 404, "unsupported action " + action);
+        }
+    }
+
+    private void storeArchive(FakeContainer container, String directory, byte[] tar) throws IOException {
+        try (TarArchiveInputStream input = new TarArchiveInputStream(new ByteArrayInputStream(tar))) {
+            TarArchiveEntry entry;
+            while ((entry = input.getNextEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    String base = directory.endsWith("/") ? directory : directory + "/";
+                    container.files.put(base + entry.getName(), input.readAllBytes());
+                }
+            }
+        }
+    }
+
+    /**
+     * 非TTY容器的日志使用多路复用帧：1字节流类型 + 3字节填充 + 4字节大端长度 + 内容
+     */
+    private void sendLogs(HttpExchange exchange, FakeContainer container) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/vnd.docker.raw-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream body = exchange.getResponseBody();
+        String[] lines = {
+                "[fake-dockerd] container " + container.name + " created at " + container.created,
+                "[fake-dockerd] running=" + container.running
+        };
+        for (String line : lines) {
+            byte[] payload = (line + "\n").getBytes(StandardCharsets.UTF_8);
+            byte[] header = {1, 0, 0, 0,
+                    (byte) (payload.length >>> 24), (byte) (payload.length >>> 16),
+                    (byte) (payload.length >>> 8), (byte) payload.length};
+            body.write(header);
+            body.write(payload);
+        }
+    }
+
+    private void listContainers(HttpExchange exchange, String filters) throws IOException {
+        Map<String, String> labelFilters = new HashMap<>();
+        if (filters != null) {
+            for (JsonNode label : objectMapper.readTree(filters).path("label")) {
+                String[] pair = label.asText().split("=", 2);
+                labelFilters.put(pair[0], pair.length > 1 ? pair[1] : null);
+            }
+        }
+
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (FakeContainer container : containers.values()) {
+            boolean matches = labelFilters.entrySet().stream().allMatch(filter ->
+                    container.labels.containsKey(filter.getKey())
+                            && (filter.getValue() == null || filter.getValue().equals(container.labels.get(filter.getKey()))));
+            if (!matches) {
+                continue;
+            }
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("Id", container.id);
+            item.put("Names", List.of("/" + container.name));
+            item.put("Image", container.image);
+            item.put("Created", container.created.getEpochSecond());
+            item.put("State", container.running ? "running" : "exited");
+            item.put("Status", container.running ? "Up" : "Exited (0)");
+            item.put("Labels", container.labels);
+            item.put("Mounts", container.volumes.stream().map(name -> Map.of("Type", "volume", "Name", name)).toList());
+            list.add(item);
+        }
+        sendJson(exchange, 200, list);
+    }
+
+    private Map<String, Object> inspect(FakeContainer container) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("Status", container.running ? "running" : "exited");
+        state.put("Running", container.running);
+        state.put("Paused", false);
+        state.put("Restarting", false);
+        state.put("OOMKilled", false);
+        state.put("Dead", false);
+        state.put("ExitCode", 0);
+        state.put("StartedAt", container.startedAt != null ? container.startedAt.toString() : "0001-01-01T00:00:00Z");
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("Id", container.id);
+        result.put("Name", "/" + container.name);
+        result.put("Created", container.created.toString());
+        result.put("Image", container.image);
+        result.put("State", state);
+        result.put("Config", Map.of("Image", container.image, "Labels", container.labels, "Tty", false));
+        return result;
+    }
+
+    /**
+     * events保持长连接，之后的容器事件逐行写入
+     */
+    /**
+     * 带since时先回放历史事件；带until时回放区间内的历史事件后结束响应，否则保持连接推送后续事件
+     */
+    private void openEventStream(HttpExchange exchange, Map<String, String> query) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream body = exchange.getResponseBody();
+        String since = query.get("since");
+        String until = query.get("until");
+        if (since != null || until != null) {
+            long from = since != null ? (long) Double.parseDouble(since) : Long.MIN_VALUE;
+            long to = until != null ? (long) Double.parseDouble(until) : Long.MAX_VALUE;
+            for (RecordedEvent event : eventHistory) {
+                if (event.epochSecond >= from && event.epochSecond <= to) {
+                    body.write(event.line);
+                }
+            }
+        }
+        body.flush();
+        if (until != null) {
+            exchange.close();
+            return;
+        }
+        eventSubscribers.add(body);
+    }
+
+    private void publishEvent(FakeContainer container, String action) {
+        Map<String, String> attributes = new HashMap<>(container.labels);
+        attributes.put("name", container.name);
+        attributes.put("image", container.image);
+        Instant now = Instant.now();
+
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("status", action);
+        event.put("id", container.id);
+        event.put("from", container.image);
+        event.put("Type", "container");
+        event.put("Action", action);
+        event.put("Actor", Map.of("ID", container.id, "Attributes", attributes));
+        event.put("time", now.getEpochSecond());
+        event.put("timeNano", now.getEpochSecond() * 1_000_000_000L + now.getNano());
+
+        byte[] line;
+        try {
+            line = (objectMapper.writeValueAsString(event) + "\n").getBytes(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return;
+        }
+        eventHistory.add(new RecordedEvent(now.getEpochSecond(), line));
+        for (OutputStream subscriber : eventSubscribers) {
+            try {
+                synchronized (subscriber) {
+                    subscriber.write(line);
+                    subscriber.flush();
+                }
+            } catch (IOException e) {
+                eventSubscribers.remove(subscriber);
+            }
+        }
+    }
+
+    private FakeContainer findContainer(String idOrName) {
+        FakeContainer container = containers.get(idOrName);
+        if (container != null) {
+            return container;
+        }
+        String name = idOrName.startsWith("/") ? idOrName.substring(1) : idOrName;
+        return containers.values().stream()
+                .filter(c -> c.name.equals(name) || c.id.startsWith(idOrName))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private boolean injectFailure(HttpExchange exchange) throws IOException {
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            injectedErrors.incrementAndGet();
+            sendError(exchange, 500, "injected failure");
+            return true;
+        }
+        return false;
+    }
+
+    private void simulateLatency() throws InterruptedException {
+        long delay = latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(-jitterMs, jitterMs + 1) : 0);
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+    }
+
+    private void count(String method, String route) {
+        requestCounts.computeIfAbsent(method + " " + route, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    private Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            String[] parts = pair.split("=", 2);
+            query.put(URLDecoder.decode(parts[0], StandardCharsets.UTF_8),
+                    parts.length > 1 ? URLDecoder.decode(parts[1], StandardCharsets.UTF_8) : "");
+        }
+        return query;
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private void sendText(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        sendJson(exchange, status, Map.of("message", String.valueOf(message)));
+    }
+
+    private void sendEmpty(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    private static class FakeContainer {
+        private String id;
+        private String name;
+        private String image;
+        private Instant created;
+        private volatile Instant startedAt;
+        private volatile boolean running;
+        private final Map<String, String> labels = new HashMap<>();
+        private final List<String> volumes = new ArrayList<>();
+        private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+    }
+
+    private record RecordedEvent(long epochSecond, byte[] line) {
+    }
+}
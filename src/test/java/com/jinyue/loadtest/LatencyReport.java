@@ -0,0 +1,126 @@
+package com.jinyue.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 压测结果汇总：每个阶段一个HdrHistogram（微秒精度），输出p50/p99/p99.9/max与吞吐
+ */
+public class LatencyReport {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(30);
+
+    private final String title;
+    private final List<Phase> phases = new ArrayList<>();
+
+    public LatencyReport(String title) {
+        this.title = title;
+    }
+
+    public Phase phase(String name) {
+        Phase phase = new Phase(name);
+        phases.add(phase);
+        return phase;
+    }
+
+    public String render() {
+        StringBuilder out = new StringBuilder();
+        out.append("==== ").append(title).append(" ====\n");
+        out.append(String.format(Locale.ROOT, "%-12s %8s %8s %10s %10s %10s %10s %10s %10s%n",
+                "phase", "ok", "failed", "wall(ms)", "ops/sec", "p50(ms)", "p99(ms)", "p99.9(ms)", "max(ms)"));
+        for (Phase phase : phases) {
+            Histogram histogram = phase.histogram;
+            out.append(String.format(Locale.ROOT, "%-12s %8d %8d %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    phase.name, histogram.getTotalCount(), phase.failed, phase.wallMillis(), phase.opsPerSecond(),
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0));
+        }
+        return out.toString();
+    }
+
+    /**
+     * 每个阶段输出一个.hgrm百分位分布文件（毫秒），可用HdrHistogram的plotFiles页面叠加比较多次运行
+     */
+    public void writePercentileDistributions(Path directory, String prefix) throws IOException {
+        Files.createDirectories(directory);
+        for (Phase phase : phases) {
+            Path file = directory.resolve(prefix + "-" + phase.name + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file), true, StandardCharsets.UTF_8)) {
+                phase.histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    public static class Phase {
+
+        private final String name;
+        private final Histogram histogram = new Histogram(MAX_TRACKABLE_MICROS, 3);
+        private long startNanos;
+        private long endNanos;
+        private long failed;
+
+        Phase(String name) {
+            this.name = name;
+        }
+
+        public Phase start() {
+            startNanos = System.nanoTime();
+            return this;
+        }
+
+        public long startNanos() {
+            return startNanos;
+        }
+
+        /**
+         * 记录一次成功操作，耗时从阶段开始计
+         */
+        public synchronized void recordCompletion(long completedNanos) {
+            recordLatency(completedNanos - startNanos);
+        }
+
+        public synchronized void recordLatency(long latencyNanos) {
+            histogram.recordValue(Math.min(MAX_TRACKABLE_MICROS, Math.max(0, latencyNanos / 1000)));
+        }
+
+        public synchronized void recordFailure() {
+            failed++;
+        }
+
+        public void finish() {
+            endNanos = System.nanoTime();
+        }
+
+        public long succeeded() {
+            return histogram.getTotalCount();
+        }
+
+        public long failed() {
+            return failed;
+        }
+
+        public Histogram histogram() {
+            return histogram;
+        }
+
+        long wallMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(endNanos - startNanos);
+        }
+
+        double opsPerSecond() {
+            long wall = endNanos - startNanos;
+            return wall > 0 ? (histogram.getTotalCount() + failed) * 1e9 / wall : 0;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.jinyue.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 生命周期端到端压测
+ * 管理器连接FakeDockerDaemon，经REST接口批量执行create/start/restart/delete，按阶段输出p50/p99与吞吐。
+ * 单实例耗时为从阶段请求发出到该实例结果事件到达（创建走/api/instances/stream，其余走任务进度流），包含排队时间；
+ * 订阅任务流之前已完成的实例按快照到达时间计入。报告写入日志和target/loadtest/lifecycle-report.txt。
+ * 需要可用的PostgreSQL（沿用application.yml的数据源配置），默认构建不运行：
+ * mvn test -Ploadtest -Dloadtest.instances=50 -Dloadtest.docker.latency-ms=50
+ */
+@Slf4j
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LifecycleLoadTest {
+
+    private static final int INSTANCES = Integer.getInteger("loadtest.instances", 20);
+    private static final Duration PHASE_TIMEOUT = Duration.ofMinutes(Long.getLong("loadtest.phase-timeout-minutes", 10));
+
+    private static final FakeDockerDaemon DAEMON = new FakeDockerDaemon(
+            Long.getLong("loadtest.docker.latency-ms", 20),
+            Long.getLong("loadtest.docker.jitter-ms", 10),
+            Double.parseDouble(System.getProperty("loadtest.docker.error-rate", "0")),
+            Integer.getInteger("loadtest.docker.max-containers", 10000),
+            Integer.getInteger("loadtest.docker.max-concurrency", 64));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void dockerProperties(DynamicPropertyRegistry registry) throws IOException {
+        DAEMON.start();
+        registry.add("napcat.docker.host", DAEMON::getHost);
+        registry.add("napcat.instance.max-instances", () -> INSTANCES * 2);
+    }
+
+    @AfterAll
+    static void stopDaemon() {
+        DAEMON.stop();
+    }
+
+    @Test
+    void bulkLifecycle() throws Exception {
+        LatencyReport report = new LatencyReport(String.format(
+                "lifecycle load test: %d instances, docker latency %sms, error rate %s",
+                INSTANCES, System.getProperty("loadtest.docker.latency-ms", "20"),
+                System.getProperty("loadtest.docker.error-rate", "0")));
+
+        List<String> ids = createInstances(report.phase("create"));
+        assertTrue(!ids.isEmpty(), "no instance was created");
+
+        runTask(report.phase("start"), "PUT", "/api/instances/start", ids);
+        runTask(report.phase("restart"), "PUT", "/api/instances/restart", ids);
+        runTask(report.phase("delete"), "DELETE", "/api/instances", ids);
+
+        String summary = report.render() + System.lineSeparator()
+                + "fake dockerd requests: " + DAEMON.requestCounts()
+                + ", injected errors: " + DAEMON.injectedErrors();
+        Path output = Path.of("target", "loadtest", "lifecycle-report.txt");
+        Files.createDirectories(output.getParent());
+        Files.writeString(output, summary);
+        log.info("{}{}results in {}", summary, System.lineSeparator(), output.toAbsolutePath());
+
+        if (DAEMON.injectedErrors() == 0) {
+            assertEquals(INSTANCES, ids.size());
+            assertEquals(0, DAEMON.containerCount(), "containers left behind after delete");
+        }
+    }
+
+    private List<String> createInstances(LatencyReport.Phase phase) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of(
+                "count", INSTANCES,
+                "namePrefix", "loadtest-" + UUID.randomUUID().toString().substring(0, 8),
+                "autoStart", false));
+
+        List<String> ids = new ArrayList<>();
+        phase.start();
+        readEvents(request("POST", "/api/instances/stream", body), (event, data) -> {
+            switch (event) {
+                case "instance" -> {
+                    phase.recordCompletion(System.nanoTime());
+                    ids.add(data.path("id").asText());
+                }
+                case "failed", "error" -> phase.recordFailure();
+                default -> {
+                }
+            }
+        });
+        phase.finish();
+        return ids;
+    }
+
+    private void runTask(LatencyReport.Phase phase, String method, String path, List<String> ids) throws Exception {
+        phase.start();
+        HttpResponse<String> accepted = httpClient.send(
+                request(method, path, objectMapper.writeValueAsString(Map.of("ids", ids))),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(202, accepted.statusCode(), path + " rejected: " + accepted.body());
+        String taskId = objectMapper.readTree(accepted.body()).path("taskId").asText();
+
+        boolean[] snapshotSeen = {false};
+        readEvents(request("GET", "/api/tasks/tasks/" + taskId + "/stream", null), (event, data) -> {
+            switch (event) {
+                case "snapshot" -> {
+                    if (!snapshotSeen[0]) {
+                        snapshotSeen[0] = true;
+                        long now = System.nanoTime();
+                        for (int i = 0; i < data.path("successCount").asInt(); i++) {
+                            phase.recordCompletion(now);
+                        }
+                        for (int i = 0; i < data.path("failedCount").asInt(); i++) {
+                            phase.recordFailure();
+                        }
+                    }
+                }
+                case "progress" -> {
+                    if (data.path("success").asBoolean()) {
+                        phase.recordCompletion(System.nanoTime());
+                    } else {
+                        phase.recordFailure();
+                    }
+                }
+                default -> {
+                }
+            }
+        });
+        phase.finish();
+    }
+
+    private HttpRequest request(String method, String path, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path))
+                .timeout(PHASE_TIMEOUT)
+                .method(method, body != null
+                        ? HttpRequest.BodyPublishers.ofString(body)
+                        : HttpRequest.BodyPublishers.noBody());
+        if (body != null) {
+            builder.header("Content-Type", "application/json");
+        }
+        return builder.build();
+    }
+
+    /**
+     * 逐行读取SSE流直到服务端关闭连接，每个事件回调一次（事件名，data的JSON）
+     */
+    private void readEvents(HttpRequest request, BiConsumer<String, JsonNode> consumer) throws Exception {
+        HttpResponse<Stream<String>> response = httpClient.send(request, HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, response.statusCode(), "event stream " + request.uri() + " failed");
+
+        String[] event = {"message"};
+        try (Stream<String> lines = response.body()) {
+            lines.forEach(line -> {
+                if (line.startsWith("event:")) {
+                    event[0] = line.substring(6).trim();
+                } else if (line.startsWith("data:")) {
+                    try {
+                        consumer.accept(event[0], objectMapper.readTree(line.substring(5)));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                } else if (line.isEmpty()) {
+                    event[0] = "message";
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.jinyue.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 消息转发目标（xxf-proxy）替身：接收转发请求，按latencyMs±jitterMs延迟后返回200
+ */
+public class StubForwardTarget {
+
+    private static final byte[] RESPONSE = "{\"success\":true}".getBytes(StandardCharsets.UTF_8);
+
+    private final long latencyMs;
+    private final long jitterMs;
+    private final AtomicLong received = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService workers;
+
+    public StubForwardTarget(long latencyMs, long jitterMs) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+    }
+
+    public void start() throws IOException {
+        workers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stub-forward-target");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        server.setExecutor(workers);
+        server.createContext("/", exchange -> {
+            try (exchange) {
+                exchange.getRequestBody().readAllBytes();
+                long delay = latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(-jitterMs, jitterMs + 1) : 0);
+                if (delay > 0) {
+                    Thread.sleep(delay);
+                }
+                received.incrementAndGet();
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, RESPONSE.length);
+                exchange.getResponseBody().write(RESPONSE);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        workers.shutdownNow();
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/webhook/napcat-message";
+    }
+
+    public long received() {
+        return received.get();
+    }
+}
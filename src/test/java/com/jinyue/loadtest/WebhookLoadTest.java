@@ -0,0 +1,216 @@
+package com.jinyue.loadtest;
+
+import com.jinyue.dto.NapcatConfig;
+import com.jinyue.entity.NapcatInstance;
+import com.jinyue.mapper.NapcatInstanceMapper;
+import com.jinyue.service.INapcatInstanceService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Webhook接入压测
+ * 按阶梯速率向/api/webhook/message开环发送消息，转发目标为StubForwardTarget。
+ * 延迟从计划发送时刻算起（校正协调遗漏），每个速率一个HdrHistogram，
+ * 结果写入target/loadtest：webhook-rate-N.hgrm为百分位分布，webhook-curve.csv为速率-吞吐-延迟曲线，webhook-report.txt为汇总报告。
+ * 需要可用的PostgreSQL，Docker由FakeDockerDaemon替代：
+ * mvn test -Ploadtest -Dtest=WebhookLoadTest -Dloadtest.webhook.rates=100,200,400,800 -Dloadtest.webhook.forward-latency-ms=20
+ * 回放录制流量: -Dloadtest.webhook.replay=/path/to/messages.jsonl（每行一个WebhookMessageRequest）
+ */
+@Slf4j
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class WebhookLoadTest {
+
+    private static final String NAME_PREFIX = "webhook-load-";
+    private static final Path OUTPUT_DIR = Path.of("target", "loadtest");
+
+    private static final FakeDockerDaemon DAEMON = new FakeDockerDaemon(0, 0, 0, 10000, 64);
+    private static final StubForwardTarget TARGET = new StubForwardTarget(
+            Long.getLong("loadtest.webhook.forward-latency-ms", 20),
+            Long.getLong("loadtest.webhook.forward-jitter-ms", 5));
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newCachedThreadPool())
+            .build();
+
+    @Autowired
+    private INapcatInstanceService instanceService;
+
+    @Autowired
+    private NapcatInstanceMapper instanceMapper;
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void stubProperties(DynamicPropertyRegistry registry) throws IOException {
+        DAEMON.start();
+        TARGET.start();
+        registry.add("napcat.docker.host", DAEMON::getHost);
+        registry.add("message.forward.target-url", TARGET::getUrl);
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        TARGET.stop();
+        DAEMON.stop();
+    }
+
+    @Test
+    void webhookThroughputCurve() throws Exception {
+        WebhookTrafficModel model = trafficModel();
+        List<String> seeded = seedInstances(model.selfIds());
+        try {
+            long stepNanos = TimeUnit.SECONDS.toNanos(Long.getLong("loadtest.webhook.step-seconds", 20));
+            double[] rates = Arrays.stream(System.getProperty("loadtest.webhook.rates", "50,100,200,400").split(","))
+                    .mapToDouble(rate -> Double.parseDouble(rate.trim()))
+                    .toArray();
+
+            // 预热：JIT、连接池和数据库连接，不计入结果
+            runStep(new LatencyReport("warmup").phase("warmup"), model, rates[0],
+                    TimeUnit.SECONDS.toNanos(Long.getLong("loadtest.webhook.warmup-seconds", 5)));
+
+            LatencyReport report = new LatencyReport(String.format(Locale.ROOT,
+                    "webhook load test: %d self_ids, forward latency %sms, %ds per step",
+                    model.selfIds().size(), System.getProperty("loadtest.webhook.forward-latency-ms", "20"),
+                    TimeUnit.NANOSECONDS.toSeconds(stepNanos)));
+            List<String> curve = new ArrayList<>();
+            curve.add("target_rate,achieved_rate,ok,failed,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+
+            for (double rate : rates) {
+                LatencyReport.Phase phase = report.phase("rate-" + (long) rate);
+                runStep(phase, model, rate, stepNanos);
+                var histogram = phase.histogram();
+                curve.add(String.format(Locale.ROOT, "%.0f,%.1f,%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f",
+                        rate, phase.opsPerSecond(), phase.succeeded(), phase.failed(),
+                        histogram.getValueAtPercentile(50) / 1000.0,
+                        histogram.getValueAtPercentile(90) / 1000.0,
+                        histogram.getValueAtPercentile(99) / 1000.0,
+                        histogram.getValueAtPercentile(99.9) / 1000.0,
+                        histogram.getMaxValue() / 1000.0));
+            }
+
+            report.writePercentileDistributions(OUTPUT_DIR, "webhook");
+            Files.write(OUTPUT_DIR.resolve("webhook-curve.csv"), curve);
+            String summary = report.render() + System.lineSeparator()
+                    + "forward target received " + TARGET.received() + " messages";
+            Files.writeString(OUTPUT_DIR.resolve("webhook-report.txt"), summary);
+            log.info("{}{}results in {}", summary, System.lineSeparator(), OUTPUT_DIR.toAbsolutePath());
+
+            assertTrue(TARGET.received() > 0, "no message reached the forward target");
+        } finally {
+            cleanup(seeded);
+        }
+    }
+
+    private WebhookTrafficModel trafficModel() throws IOException {
+        long seed = Long.getLong("loadtest.webhook.seed", 42);
+        String replay = System.getProperty("loadtest.webhook.replay");
+        if (replay != null) {
+            return new WebhookTrafficModel(seed, Path.of(replay));
+        }
+        return new WebhookTrafficModel(seed,
+                Integer.getInteger("loadtest.webhook.self-ids", 50),
+                Integer.getInteger("loadtest.webhook.groups-per-self-id", 5),
+                Double.parseDouble(System.getProperty("loadtest.webhook.private-ratio", "0.2")),
+                Double.parseDouble(System.getProperty("loadtest.webhook.mean-burst-size", "8")),
+                Long.getLong("loadtest.webhook.burst-window-ms", 500),
+                Integer.getInteger("loadtest.webhook.message-length", 64));
+    }
+
+    /**
+     * 开环发送：按计划时刻发出请求，不等待前一个响应
+     */
+    private void runStep(LatencyReport.Phase phase, WebhookTrafficModel model,
+                         double rate, long durationNanos) throws Exception {
+        List<WebhookTrafficModel.ScheduledMessage> plan = model.schedule(rate, durationNanos);
+        URI uri = URI.create("http://127.0.0.1:" + port + "/api/webhook/message");
+        List<CompletableFuture<?>> inFlight = new ArrayList<>(plan.size());
+
+        long start = phase.start().startNanos();
+        for (WebhookTrafficModel.ScheduledMessage message : plan) {
+            long intended = start + message.offsetNanos();
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(message.body()))
+                    .build();
+            inFlight.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (error == null && response.statusCode() == 200) {
+                            phase.recordLatency(System.nanoTime() - intended);
+                        } else {
+                            phase.recordFailure();
+                        }
+                    }));
+        }
+
+        try {
+            CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).get(2, TimeUnit.MINUTES);
+        } catch (Exception e) {
+            // 失败已逐条计入
+        }
+        phase.finish();
+    }
+
+    private List<String> seedInstances(List<Long> selfIds) {
+        cleanup(instanceService.lambdaQuery()
+                .likeRight(NapcatInstance::getName, NAME_PREFIX)
+                .list()
+                .stream()
+                .map(NapcatInstance::getId)
+                .toList());
+
+        List<NapcatInstance> instances = new ArrayList<>(selfIds.size());
+        for (Long selfId : selfIds) {
+            instances.add(new NapcatInstance()
+                    .setName(NAME_PREFIX + selfId)
+                    .setQqAccount(String.valueOf(selfId))
+                    .setStatus(NapcatInstance.InstanceStatus.RUNNING)
+                    .setConfig(new NapcatConfig()));
+        }
+        instanceService.saveBatch(instances);
+        return instances.stream().map(NapcatInstance::getId).toList();
+    }
+
+    private void cleanup(List<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        instanceService.removeByIds(ids);
+        ids.forEach(instanceMapper::purgeDeleted);
+    }
+}
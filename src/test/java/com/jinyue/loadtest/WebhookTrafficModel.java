@@ -0,0 +1,161 @@
+package com.jinyue.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jinyue.dto.WebhookMessageRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Webhook流量模型
+ * 合成模式：事件按泊松过程到达，每个事件随机落在某个self_id上；私聊事件是一条消息，
+ * 群聊事件是一次突发——同一群在burstWindowMs内连续到达若干条消息（条数服从均值为meanBurstSize的几何分布）。
+ * 回放模式：按文件顺序循环使用录制的WebhookMessageRequest（每行一个JSON），到达时刻仍由泊松过程生成
+ */
+public class WebhookTrafficModel {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Random random;
+    private final List<Long> selfIds;
+    private final int groupsPerSelfId;
+    private final double privateRatio;
+    private final double meanBurstSize;
+    private final long burstWindowNanos;
+    private final int messageLength;
+    private final List<byte[]> recorded;
+
+    private long messageSeq;
+    private int replayCursor;
+
+    /**
+     * 合成流量
+     */
+    public WebhookTrafficModel(long seed, int selfIdCount, int groupsPerSelfId, double privateRatio,
+                               double meanBurstSize, long burstWindowMs, int messageLength) {
+        this.random = new Random(seed);
+        this.selfIds = new ArrayList<>(selfIdCount);
+        for (int i = 0; i < selfIdCount; i++) {
+            selfIds.add(3_000_000_000L + i);
+        }
+        this.groupsPerSelfId = groupsPerSelfId;
+        this.privateRatio = privateRatio;
+        this.meanBurstSize = meanBurstSize;
+        this.burstWindowNanos = TimeUnit.MILLISECONDS.toNanos(burstWindowMs);
+        this.messageLength = messageLength;
+        this.recorded = null;
+    }
+
+    /**
+     * 回放录制的流量
+     */
+    public WebhookTrafficModel(long seed, Path recording) throws IOException {
+        this.random = new Random(seed);
+        this.recorded = new ArrayList<>();
+        Set<Long> ids = new LinkedHashSet<>();
+        for (String line : Files.readAllLines(recording)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            WebhookMessageRequest request = objectMapper.readValue(line, WebhookMessageRequest.class);
+            ids.add(request.getSelfId());
+            recorded.add(objectMapper.writeValueAsBytes(request));
+        }
+        if (recorded.isEmpty()) {
+            throw new IllegalArgumentException("Recording is empty: " + recording);
+        }
+        this.selfIds = new ArrayList<>(ids);
+        this.groupsPerSelfId = 0;
+        this.privateRatio = 1;
+        this.meanBurstSize = 1;
+        this.burstWindowNanos = 0;
+        this.messageLength = 0;
+    }
+
+    /**
+     * 流量涉及的全部self_id，压测前需要为每个self_id准备实例
+     */
+    public List<Long> selfIds() {
+        return selfIds;
+    }
+
+    /**
+     * 生成durationNanos内平均每秒messagesPerSecond条消息的发送计划，按计划发送时刻排序
+     */
+    public List<ScheduledMessage> schedule(double messagesPerSecond, long durationNanos) throws IOException {
+        double messagesPerEvent = recorded != null ? 1 : privateRatio + (1 - privateRatio) * meanBurstSize;
+        double eventsPerNano = messagesPerSecond / messagesPerEvent / 1e9;
+
+        List<ScheduledMessage> plan = new ArrayList<>();
+        long at = 0;
+        while (true) {
+            at += (long) (-Math.log(1 - random.nextDouble()) / eventsPerNano);
+            if (at >= durationNanos) {
+                break;
+            }
+            if (recorded != null) {
+                plan.add(new ScheduledMessage(at, recorded.get(replayCursor++ % recorded.size())));
+                continue;
+            }
+
+            long selfId = selfIds.get(random.nextInt(selfIds.size()));
+            if (random.nextDouble() < privateRatio) {
+                plan.add(new ScheduledMessage(at, message(selfId, "private", null)));
+            } else {
+                long groupId = 500_000_000L + selfId % 100_000 * 100 + random.nextInt(groupsPerSelfId);
+                int burst = geometric(meanBurstSize);
+                for (int i = 0; i < burst; i++) {
+                    long offset = burst > 1 ? burstWindowNanos * i / (burst - 1) : 0;
+                    if (at + offset < durationNanos) {
+                        plan.add(new ScheduledMessage(at + offset, message(selfId, "group", groupId)));
+                    }
+                }
+            }
+        }
+        plan.sort((a, b) -> Long.compare(a.offsetNanos(), b.offsetNanos()));
+        return plan;
+    }
+
+    private byte[] message(long selfId, String messageType, Long groupId) throws IOException {
+        long userId = 10_000L + random.nextInt(100_000);
+
+        WebhookMessageRequest.Sender sender = new WebhookMessageRequest.Sender();
+        sender.setUserId(userId);
+        sender.setNickname("user-" + userId);
+
+        WebhookMessageRequest request = new WebhookMessageRequest();
+        request.setPostType("message");
+        request.setMessageType(messageType);
+        request.setTime(System.currentTimeMillis() / 1000);
+        request.setSelfId(selfId);
+        request.setMessageId(++messageSeq);
+        request.setUserId(userId);
+        request.setRawMessage("m".repeat(Math.max(1, messageLength / 2 + random.nextInt(messageLength + 1))));
+        request.setSender(sender);
+        if (groupId != null) {
+            request.setGroupId(groupId);
+            request.setGroupName("group-" + groupId);
+        }
+        return objectMapper.writeValueAsBytes(request);
+    }
+
+    private int geometric(double mean) {
+        if (mean <= 1) {
+            return 1;
+        }
+        double p = 1 / mean;
+        return 1 + (int) (Math.log(1 - random.nextDouble()) / Math.log(1 - p));
+    }
+
+    /**
+     * 计划在阶段开始后offsetNanos发送的一条消息
+     */
+    public record ScheduledMessage(long offsetNanos, byte[] body) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.jinyue.service.impl;
+
+import com.jinyue.dto.OperationResult;
+import com.jinyue.entity.TaskInfo;
+import com.jinyue.metrics.OperationConcurrencyController;
+import com.jinyue.service.INapcatInstanceService;
+import com.jinyue.service.ITaskManagerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AsyncOperationServiceImplTest {
+
+    private final ExecutorService operationExecutor = Executors.newCachedThreadPool();
+    private final INapcatInstanceService instanceService = mock(INapcatInstanceService.class);
+    private final ITaskManagerService taskManager = mock(ITaskManagerService.class);
+    private final OperationConcurrencyController concurrencyController = mock(OperationConcurrencyController.class);
+    private final TaskInfo task = new TaskInfo().setTaskId("t1").setStatus(TaskInfo.TaskStatus.PENDING);
+    private AsyncOperationServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new AsyncOperationServiceImpl(operationExecutor, instanceService, taskManager,
+                new SimpleMeterRegistry(), concurrencyController);
+        ReflectionTestUtils.setField(service, "operationTimeoutSeconds", 1L);
+        ReflectionTestUtils.setField(service, "taskTimeoutBaseSeconds", 30L);
+        when(concurrencyController.currentLimit()).thenReturn(10);
+        when(taskManager.getTask("t1")).thenReturn(task);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        operationExecutor.shutdownNow();
+    }
+
+    @Test
+    void cancelBeforeStartLeavesNoPlaceholder() {
+        doAnswer(invocation -> task.setCompletedTime(LocalDateTime.now()))
+                .when(taskManager).cancelTask("t1");
+
+        assertTrue(service.cancelTask("t1"));
+        assertTrue(executions().isEmpty());
+
+        service.executeStartOperationsAsync("t1", List.of("i1"));
+
+        assertTrue(executions().isEmpty());
+        verify(taskManager, never()).updateTaskStatus(any(), any());
+        verify(instanceService, never()).startInstance(any());
+    }
+
+    @Test
+    void abandonedOperationIsReportedAsUnknown() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            finished.countDown();
+            return null;
+        }).when(instanceService).startInstance("i1");
+
+        service.executeStartOperationsAsync("t1", List.of("i1"));
+
+        ArgumentCaptor<OperationResult> captor = ArgumentCaptor.forClass(OperationResult.class);
+        verify(taskManager, timeout(3000)).recordOperationResult(eq("t1"), captor.capture());
+        OperationResult result = captor.getValue();
+        assertFalse(result.isSuccess());
+        assertTrue(result.getErrorMessage().contains("状态未知"), result.getErrorMessage());
+
+        // 迟到的实际结果不再覆盖已记录的结果
+        release.countDown();
+        assertTrue(finished.await(3, TimeUnit.SECONDS));
+        verify(taskManager, timeout(1000)).completeTask("t1");
+        verify(taskManager).recordOperationResult(eq("t1"), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> executions() {
+        return (Map<String, ?>) ReflectionTestUtils.getField(service, "executions");
+    }
+}
@@ -0,0 +1,103 @@
+package com.jinyue.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.api.model.EventActor;
+import com.jinyue.dto.ContainerStateSnapshot;
+import com.jinyue.dto.FleetSnapshot;
+import com.jinyue.mapper.NapcatInstanceMapper;
+import com.jinyue.service.IContainerStateCache;
+import com.jinyue.service.IDockerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FleetSnapshotServiceImplTest {
+
+    private final IContainerStateCache cache = mock(IContainerStateCache.class);
+    private final IDockerService dockerService = mock(IDockerService.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private FleetSnapshotServiceImpl service;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new FleetSnapshotServiceImpl(cache, dockerService, mock(NapcatInstanceMapper.class), objectMapper);
+        Path file = dir.resolve("fleet-snapshot.json");
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "path", file.toString());
+        ReflectionTestUtils.setField(service, "maxAgeMinutes", 60L);
+        ReflectionTestUtils.setField(service, "eventOverlapSeconds", 30L);
+
+        objectMapper.writeValue(file.toFile(), new FleetSnapshot()
+                .setSavedTime(System.currentTimeMillis())
+                .setEventOffset(System.currentTimeMillis() / 1000)
+                .setContainers(List.of(
+                        entry("a", "c-a", IDockerService.ContainerStatus.RUNNING),
+                        entry("b", "c-b", IDockerService.ContainerStatus.STOPPED))));
+    }
+
+    @Test
+    void restoresFromReplayWithoutListingContainers() {
+        when(dockerService.listContainerEvents(anyLong(), anyLong())).thenReturn(List.of(
+                event("c-b", "start"), event("c-a", "exec_start"), event("c-new", "create"), event("c-a", "destroy")));
+
+        ContainerStateSnapshot restored = service.restore();
+
+        assertNotNull(restored);
+        assertEquals(IDockerService.ContainerStatus.NOT_FOUND, restored.statusOf("c-a"));
+        assertEquals(IDockerService.ContainerStatus.RUNNING, restored.statusOf("c-b"));
+        assertEquals(IDockerService.ContainerStatus.STOPPED, restored.statusOf("c-new"));
+        verify(cache).seed(restored);
+        verify(dockerService, never()).listNapcatContainers();
+    }
+
+    @Test
+    void restoresOnlyOnce() {
+        when(dockerService.listContainerEvents(anyLong(), anyLong())).thenReturn(List.of());
+
+        assertNotNull(service.restore());
+        assertNull(service.restore());
+    }
+
+    @Test
+    void fallsBackWhenEventBufferMayHaveOverflowed() {
+        List<Event> events = new ArrayList<>();
+        IntStream.range(0, 256).forEach(i -> events.add(event("c-a", "exec_start")));
+        when(dockerService.listContainerEvents(anyLong(), anyLong())).thenReturn(events);
+
+        assertNull(service.restore());
+        verify(cache, never()).seed(any());
+    }
+
+    private static FleetSnapshot.Entry entry(String instanceId, String containerId,
+                                             IDockerService.ContainerStatus status) {
+        FleetSnapshot.Entry entry = new FleetSnapshot.Entry();
+        entry.setInstanceId(instanceId);
+        entry.setContainerId(containerId);
+        entry.setContainerStatus(status);
+        return entry;
+    }
+
+    private static Event event(String containerId, String action) {
+        return new Event().withAction(action).withEventActor(new EventActor().withId(containerId));
+    }
+}
@@ -0,0 +1,109 @@
+package com.jinyue.service.impl;
+
+import com.jinyue.entity.NapcatInstance;
+import com.jinyue.mapper.NapcatInstanceMapper;
+import com.jinyue.service.IContainerStateCache;
+import com.jinyue.service.IDockerConnectivity;
+import com.jinyue.service.IDockerService;
+import com.jinyue.service.IFleetSnapshotService;
+import com.jinyue.service.IInstanceStatusWriter;
+import com.jinyue.service.INapcatInstanceService;
+import com.jinyue.utils.NapcatConfigFileGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InstanceHealthCheckServiceImplTest {
+
+    private final NapcatInstanceMapper mapper = mock(NapcatInstanceMapper.class);
+    private final IDockerService dockerService = mock(IDockerService.class);
+    private final IDockerConnectivity connectivity = mock(IDockerConnectivity.class);
+    private InstanceHealthCheckServiceImpl healthCheck;
+
+    @BeforeEach
+    void setUp() {
+        healthCheck = new InstanceHealthCheckServiceImpl(mock(INapcatInstanceService.class), mapper, dockerService,
+                mock(NapcatConfigFileGenerator.class), mock(IInstanceStatusWriter.class),
+                mock(IFleetSnapshotService.class), mock(IContainerStateCache.class), connectivity);
+        ReflectionTestUtils.setField(healthCheck, "transitionTimeoutMinutes", 10L);
+        when(connectivity.isAvailable()).thenReturn(true);
+    }
+
+    @Test
+    void resetsStaleTransitionsToDockerStatus() {
+        LocalDateTime longAgo = LocalDateTime.now().minusHours(1);
+        NapcatInstance starting = instance("a", "c-a", NapcatInstance.InstanceStatus.STARTING, longAgo);
+        NapcatInstance deleting = instance("b", "c-b", NapcatInstance.InstanceStatus.DELETING, longAgo);
+        NapcatInstance noContainer = instance("c", null, NapcatInstance.InstanceStatus.STOPPING, longAgo);
+        when(mapper.selectStaleTransitions(any())).thenReturn(List.of(starting, deleting, noContainer));
+        when(dockerService.getContainerStatus("c-a")).thenReturn(IDockerService.ContainerStatus.RUNNING);
+        when(dockerService.getContainerStatus("c-b")).thenReturn(IDockerService.ContainerStatus.NOT_FOUND);
+
+        healthCheck.recoverStaleTransitions();
+
+        verify(mapper).resetStaleTransition(eq("a"), eq(NapcatInstance.InstanceStatus.STARTING),
+                eq(NapcatInstance.InstanceStatus.RUNNING), any(), any());
+        verify(mapper).resetStaleTransition(eq("b"), eq(NapcatInstance.InstanceStatus.DELETING),
+                eq(NapcatInstance.InstanceStatus.ERROR), any(), any());
+        verify(mapper).resetStaleTransition(eq("c"), eq(NapcatInstance.InstanceStatus.STOPPING),
+                eq(NapcatInstance.InstanceStatus.ERROR), any(), any());
+    }
+
+    @Test
+    void restartLoopIsNotRecoveredIntoAnotherTransition() {
+        NapcatInstance starting = instance("a", "c-a", NapcatInstance.InstanceStatus.STARTING,
+                LocalDateTime.now().minusHours(1));
+        when(mapper.selectStaleTransitions(any())).thenReturn(List.of(starting));
+        when(dockerService.getContainerStatus("c-a")).thenReturn(IDockerService.ContainerStatus.RESTARTING);
+
+        healthCheck.recoverStaleTransitions();
+
+        verify(mapper).resetStaleTransition(eq("a"), eq(NapcatInstance.InstanceStatus.STARTING),
+                eq(NapcatInstance.InstanceStatus.ERROR), any(), any());
+    }
+
+    @Test
+    void oneFailingInspectDoesNotStopRecovery() {
+        LocalDateTime longAgo = LocalDateTime.now().minusHours(1);
+        when(mapper.selectStaleTransitions(any())).thenReturn(List.of(
+                instance("a", "c-a", NapcatInstance.InstanceStatus.STOPPING, longAgo),
+                instance("b", "c-b", NapcatInstance.InstanceStatus.STOPPING, longAgo)));
+        when(dockerService.getContainerStatus("c-a")).thenThrow(new RuntimeException("inspect failed"));
+        when(dockerService.getContainerStatus("c-b")).thenReturn(IDockerService.ContainerStatus.STOPPED);
+
+        healthCheck.recoverStaleTransitions();
+
+        verify(mapper, never()).resetStaleTransition(eq("a"), any(), any(), any(), any());
+        verify(mapper).resetStaleTransition(eq("b"), eq(NapcatInstance.InstanceStatus.STOPPING),
+                eq(NapcatInstance.InstanceStatus.STOPPED), any(), any());
+    }
+
+    @Test
+    void skipsRecoveryWhileDockerIsUnavailable() {
+        when(connectivity.isAvailable()).thenReturn(false);
+
+        healthCheck.recoverStaleTransitions();
+
+        verify(mapper, never()).selectStaleTransitions(any());
+    }
+
+    private static NapcatInstance instance(String id, String containerId, NapcatInstance.InstanceStatus status,
+                                           LocalDateTime updatedTime) {
+        return new NapcatInstance()
+                .setId(id)
+                .setName("instance-" + id)
+                .setContainerId(containerId)
+                .setStatus(status)
+                .setUpdatedTime(updatedTime);
+    }
+}
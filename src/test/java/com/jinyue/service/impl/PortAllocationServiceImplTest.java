@@ -0,0 +1,116 @@
+package com.jinyue.service.impl;
+
+import com.jinyue.dto.InstancePortUsage;
+import com.jinyue.mapper.NapcatInstanceMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PortAllocationServiceImplTest {
+
+    private static final int BASE_PORT = 6000;
+    private static final int RANGE_SIZE = 5;
+
+    private final List<InstancePortUsage> usages = new ArrayList<>();
+    private PortAllocationServiceImpl allocator;
+
+    @BeforeEach
+    void setUp() {
+        NapcatInstanceMapper mapper = mock(NapcatInstanceMapper.class);
+        when(mapper.selectPortUsages()).thenAnswer(invocation -> new ArrayList<>(usages));
+
+        allocator = new PortAllocationServiceImpl(mapper);
+        ReflectionTestUtils.setField(allocator, "basePort", BASE_PORT);
+        ReflectionTestUtils.setField(allocator, "rangeSize", RANGE_SIZE);
+    }
+
+    @Test
+    void seedsFromDatabaseOnFirstUse() {
+        usages.add(usage(6000, 6005, 6010));
+        usages.add(usage(6002, 6007, 6012));
+
+        assertEquals(List.of(6001, 6003), allocator.reserve(2));
+        assertEquals(1, allocator.availableCount());
+    }
+
+    @Test
+    void skipsServicePortWhoseDerivedPortsAreTaken() {
+        // 6001的WebSocket端口6011被占用（如手工修改了配置），6001不可作为服务端口
+        usages.add(usage(null, null, 6011));
+
+        assertEquals(List.of(6000, 6002), allocator.reserve(2));
+    }
+
+    @Test
+    void returnsFewerPortsWhenRangeIsExhausted() {
+        assertEquals(List.of(6000, 6001, 6002, 6003, 6004), allocator.reserve(RANGE_SIZE + 2));
+        assertTrue(allocator.reserve(1).isEmpty());
+        assertEquals(0, allocator.availableCount());
+    }
+
+    @Test
+    void wrapsBackToReleasedPortsAfterReachingEndOfRange() {
+        allocator.reserve(RANGE_SIZE);
+        allocator.release(6001, 6006, 6011);
+        allocator.release(6003, 6008, 6013);
+
+        assertEquals(2, allocator.availableCount());
+        assertEquals(List.of(6001, 6003), allocator.reserve(3));
+    }
+
+    @Test
+    void partialReleaseKeepsServicePortUnavailable() {
+        allocator.reserve(1);
+        allocator.release(6000, 6005, null);
+
+        assertFalse(allocator.reserve(RANGE_SIZE).contains(6000));
+    }
+
+    @Test
+    void ignoresPortsOutsideRange() {
+        usages.add(usage(5999, 9999, null));
+        allocator.release(7000, null, null);
+
+        assertEquals(RANGE_SIZE, allocator.availableCount());
+    }
+
+    @Test
+    void resyncPicksUpPortsTakenByAnotherManager() {
+        assertEquals(List.of(6000), allocator.reserve(1));
+
+        // 另一个管理器节点写入了6001，本地位图并不知道；插入冲突后重新加载位图
+        usages.add(usage(6000, 6005, 6010));
+        usages.add(usage(6001, 6006, 6011));
+        assertEquals(List.of(6001), allocator.reserve(1));
+        allocator.release(6001, 6006, 6011);
+        allocator.resync();
+
+        assertEquals(List.of(6002), allocator.reserve(1));
+        assertEquals(2, allocator.availableCount());
+    }
+
+    @Test
+    void resyncDropsReservationsThatWereNeverPersisted() {
+        allocator.reserve(3);
+        allocator.resync();
+
+        assertEquals(RANGE_SIZE, allocator.availableCount());
+    }
+
+    private static InstancePortUsage usage(Integer port, Integer httpPort, Integer wsPort) {
+        InstancePortUsage usage = new InstancePortUsage();
+        usage.setPort(port);
+        usage.setHttpPort(httpPort);
+        usage.setWsPort(wsPort);
+        return usage;
+    }
+}
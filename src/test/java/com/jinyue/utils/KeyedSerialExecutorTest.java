@@ -0,0 +1,163 @@
+package com.jinyue.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyedSerialExecutorTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void runsTasksOfOneKeyInOrderWithoutOverlap() throws Exception {
+        KeyedSerialExecutor executor = new KeyedSerialExecutor(pool);
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> futures = IntStream.range(0, 50)
+                .mapToObj(i -> executor.submit("instance", () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    order.add(i);
+                    running.decrementAndGet();
+                    return i;
+                }))
+                .toList();
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(IntStream.range(0, 50).boxed().toList(), order);
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    void runsDifferentKeysConcurrently() throws Exception {
+        KeyedSerialExecutor executor = new KeyedSerialExecutor(pool);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        CompletableFuture<Boolean> first = executor.submit("a", () -> awaitQuietly(bothStarted));
+        CompletableFuture<Boolean> second = executor.submit("b", () -> awaitQuietly(bothStarted));
+
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failedTaskDoesNotBlockItsKey() throws Exception {
+        KeyedSerialExecutor executor = new KeyedSerialExecutor(pool);
+
+        CompletableFuture<Object> failed = executor.submit("instance", () -> {
+            throw new IllegalStateException("boom");
+        });
+        CompletableFuture<String> next = executor.submit("instance", () -> "ok");
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertEquals("ok", next.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void removesKeyOnceItsQueueIsDrained() throws Exception {
+        KeyedSerialExecutor executor = new KeyedSerialExecutor(pool);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Boolean> blocked = executor.submit("instance", () -> await(release));
+        CompletableFuture<String> queued = executor.submit("instance", () -> "done");
+        assertEquals(1, executor.activeKeys());
+        assertEquals(2, executor.totalDepth());
+
+        release.countDown();
+        blocked.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+        waitUntil(() -> executor.activeKeys() == 0);
+        assertEquals(0, executor.maxDepth());
+    }
+
+    @Test
+    void rejectedSubmissionIsNotRetained() {
+        KeyedSerialExecutor executor = new KeyedSerialExecutor(task -> {
+            throw new RejectedExecutionException("saturated");
+        });
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute("instance", () -> {
+        }));
+        assertEquals(0, executor.activeKeys());
+    }
+
+    @Test
+    void failsTasksEnqueuedWhileTheDrainWasBeingRejected() throws Exception {
+        AtomicBoolean reject = new AtomicBoolean(true);
+        AtomicReference<KeyedSerialExecutor> self = new AtomicReference<>();
+        AtomicReference<CompletableFuture<String>> concurrent = new AtomicReference<>();
+        List<RejectedExecutionException> callbacks = new CopyOnWriteArrayList<>();
+
+        KeyedSerialExecutor executor = new KeyedSerialExecutor(task -> {
+            if (reject.getAndSet(false)) {
+                // 排空已标记启动但尚未交给线程池时，其他提交者加入同一队列
+                concurrent.set(self.get().submit("instance", () -> "stranded"));
+                self.get().execute("instance", () -> {
+                }, callbacks::add);
+                throw new RejectedExecutionException("saturated");
+            }
+            pool.execute(task);
+        });
+        self.set(executor);
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute("instance", () -> {
+        }));
+
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> concurrent.get().get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        assertEquals(1, callbacks.size());
+        assertEquals(0, executor.activeKeys());
+
+        // 之后的提交重新创建队列并正常执行
+        assertEquals("ok", executor.submit("instance", () -> "ok").get(5, TimeUnit.SECONDS));
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        latch.countDown();
+        return await(latch);
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,82 @@
+package com.jinyue.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogRingBufferTest {
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new LogRingBuffer(0));
+    }
+
+    @Test
+    void keepsDataInOrderBeforeWrapping() {
+        LogRingBuffer buffer = new LogRingBuffer(16);
+        buffer.append(bytes("abc"));
+        buffer.append(bytes("def"));
+
+        assertEquals(6, buffer.size());
+        assertFalse(buffer.isWrapped());
+        assertArrayEquals(bytes("abcdef"), buffer.snapshot());
+    }
+
+    @Test
+    void overwritesOldestBytesWhenFull() {
+        LogRingBuffer buffer = new LogRingBuffer(8);
+        buffer.append(bytes("012345"));
+        buffer.append(bytes("6789"));
+
+        assertTrue(buffer.isWrapped());
+        assertEquals(8, buffer.size());
+        assertArrayEquals(bytes("23456789"), buffer.snapshot());
+    }
+
+    @Test
+    void keepsOnlyTailOfOversizedAppend() {
+        LogRingBuffer buffer = new LogRingBuffer(4);
+        buffer.append(bytes("x"));
+        buffer.append(bytes("abcdefgh"));
+
+        assertArrayEquals(bytes("efgh"), buffer.snapshot());
+    }
+
+    @Test
+    void returnsLastCompleteLines() {
+        LogRingBuffer buffer = new LogRingBuffer(64);
+        buffer.append(bytes("one\ntwo\n\nthree\nfour\n"));
+
+        assertEquals(List.of("three", "four"), buffer.lastLines(2));
+        assertEquals(List.of("one", "two", "three", "four"), buffer.lastLines(10));
+        assertTrue(buffer.lastLines(0).isEmpty());
+    }
+
+    @Test
+    void dropsTruncatedFirstLineAfterWrapping() {
+        LogRingBuffer buffer = new LogRingBuffer(12);
+        buffer.append(bytes("first line\nsecond\nthird\n"));
+
+        // 缓冲区只剩末尾12字节"econd\nthird\n"，第一行残缺
+        assertEquals(List.of("third"), buffer.lastLines(10));
+    }
+
+    @Test
+    void returnsNothingWhenWrappedWithinOneLine() {
+        LogRingBuffer buffer = new LogRingBuffer(4);
+        buffer.append(bytes("a very long line without newline"));
+
+        assertTrue(buffer.lastLines(5).isEmpty());
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}